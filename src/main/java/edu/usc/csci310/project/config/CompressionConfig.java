@@ -0,0 +1,21 @@
+package edu.usc.csci310.project.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<GzipCompressionFilter> gzipCompressionFilter(
+            CompressionStats stats,
+            @Value("${api.compression.min-response-size:2048}") int minResponseSize,
+            @Value("${api.compression.gzip-level:1}") int gzipLevel) {
+        FilterRegistrationBean<GzipCompressionFilter> registration =
+                new FilterRegistrationBean<>(new GzipCompressionFilter(stats, minResponseSize, gzipLevel));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
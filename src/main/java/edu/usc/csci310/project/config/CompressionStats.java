@@ -0,0 +1,48 @@
+package edu.usc.csci310.project.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals for {@link GzipCompressionFilter}: bytes in/out and CPU spent deflating.
+ */
+@Component
+public class CompressionStats {
+
+    private final AtomicLong responsesCompressed = new AtomicLong();
+    private final AtomicLong cachedBodiesServed = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong cpuNanos = new AtomicLong();
+
+    public void recordCompressed(long rawBytes, long compressedBytes, long nanos) {
+        responsesCompressed.incrementAndGet();
+        bytesIn.addAndGet(rawBytes);
+        bytesOut.addAndGet(compressedBytes);
+        cpuNanos.addAndGet(nanos);
+    }
+
+    public void recordCacheHit(long rawBytes, long compressedBytes) {
+        cachedBodiesServed.incrementAndGet();
+        bytesIn.addAndGet(rawBytes);
+        bytesOut.addAndGet(compressedBytes);
+    }
+
+    public Map<String, Object> snapshot() {
+        long in = bytesIn.get();
+        long out = bytesOut.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("responsesCompressed", responsesCompressed.get());
+        stats.put("cachedBodiesServed", cachedBodiesServed.get());
+        stats.put("bytesIn", in);
+        stats.put("bytesOut", out);
+        stats.put("bytesSaved", in - out);
+        stats.put("ratio", in == 0 ? 1.0 : (double) out / in);
+        stats.put("cpuMillis", cpuNanos.get() / 1_000_000.0);
+        return stats;
+    }
+}
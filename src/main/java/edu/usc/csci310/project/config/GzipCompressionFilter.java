@@ -0,0 +1,410 @@
+package edu.usc.csci310.project.config;
+
+import edu.usc.csci310.project.util.LruCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiated gzip for large API responses.
+ *
+ * The body is held back until it reaches {@code minResponseSize}; smaller bodies go out as-is,
+ * larger ones are deflated on the fly so streamed responses never have to be fully buffered.
+ * Compressed bodies of ETagged Genius proxy responses are kept so a repeat is not deflated again.
+ */
+public class GzipCompressionFilter extends OncePerRequestFilter {
+
+    private static final String WRAPPER_ATTRIBUTE = GzipCompressionFilter.class.getName() + ".response";
+    private static final int MAX_CACHED_BODIES = 128;
+    private static final int MAX_CACHED_BODY_BYTES = 1 << 20;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final CompressionStats stats;
+    private final int minResponseSize;
+    private final int gzipLevel;
+
+    // strong ETag -> gzip bytes, only for immutable proxy responses
+    private final LruCache<String, byte[]> compressedBodies = new LruCache<>(MAX_CACHED_BODIES);
+
+    public GzipCompressionFilter(CompressionStats stats, int minResponseSize, int gzipLevel) {
+        this.stats = stats;
+        this.minResponseSize = Math.max(minResponseSize, 1);
+        this.gzipLevel = gzipLevel;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // streamed bodies finish on the async dispatch, that is where the gzip trailer gets written
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            chain.doFilter(request, response);
+            CompressingResponse wrapped = (CompressingResponse) request.getAttribute(WRAPPER_ATTRIBUTE);
+            if (wrapped != null && !request.isAsyncStarted()) {
+                wrapped.finish();
+            }
+            return;
+        }
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean cacheable = request.getRequestURI().startsWith(request.getContextPath() + "/api/genius/");
+        CompressingResponse wrapped = new CompressingResponse(response, cacheable);
+        chain.doFilter(request, wrapped);
+
+        if (request.isAsyncStarted()) {
+            request.setAttribute(WRAPPER_ATTRIBUTE, wrapped);
+        } else {
+            wrapped.finish();
+        }
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean any = null;
+        for (String part : accept.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (coding.equalsIgnoreCase("gzip")) {
+                gzip = isAcceptable(tokens);
+            } else if (coding.equals("*")) {
+                any = isAcceptable(tokens);
+            }
+        }
+        // an explicit gzip entry decides wherever it appears; * only covers codings not listed
+        return gzip != null ? gzip : Boolean.TRUE.equals(any);
+    }
+
+    // false when the coding's q is zero
+    private static boolean isAcceptable(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim().replace(" ", "");
+            if (param.equals("q=0") || param.matches("q=0\\.0{0,3}")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static boolean isCompressibleType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml") || type.contains("javascript");
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final boolean cacheable;
+        private CompressingStream stream;
+        private PrintWriter writer;
+
+        private CompressingResponse(HttpServletResponse response, boolean cacheable) {
+            super(response);
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        private CompressingStream stream() {
+            if (stream == null) {
+                stream = new CompressingStream(this);
+            }
+            return stream;
+        }
+
+        // the length is only known once we have decided whether to compress
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (stream != null && stream.buffer != null) {
+                stream.buffer.reset();
+            } else {
+                super.resetBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            super.reset();
+        }
+
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            }
+        }
+
+        private void setRawContentLength(int length) {
+            super.setContentLength(length);
+        }
+    }
+
+    private final class CompressingStream extends ServletOutputStream {
+
+        private final CompressingResponse response;
+        private ByteArrayOutputStream buffer;
+        private CountingOutputStream counter;
+        private GZIPOutputStream gzip;
+        private OutputStream passthrough;
+        private byte[] replay;
+        private String eTag;
+        private long rawBytes;
+        private long cpuNanos;
+        private boolean finished;
+
+        private CompressingStream(CompressingResponse response) {
+            this.response = response;
+            this.buffer = new ByteArrayOutputStream(Math.min(minResponseSize, 8192));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (buffer != null) {
+                buffer.write(b, off, len);
+                if (buffer.size() >= minResponseSize) {
+                    decide();
+                }
+                return;
+            }
+            rawBytes += len;
+            if (gzip != null) {
+                long start = cpuTime();
+                gzip.write(b, off, len);
+                cpuNanos += cpuTime() - start;
+            } else if (passthrough != null) {
+                passthrough.write(b, off, len);
+            }
+            // replaying a cached body: the controller's copy is dropped
+        }
+
+        private void decide() throws IOException {
+            byte[] pending = buffer.toByteArray();
+            buffer = null;
+
+            if (!shouldCompress()) {
+                passthrough = response.getResponse().getOutputStream();
+                passthrough.write(pending);
+                return;
+            }
+
+            String currentETag = response.getHeader(HttpHeaders.ETAG);
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            if (currentETag != null && !currentETag.startsWith("W/")) {
+                // the gzip representation is only semantically equivalent to the identity one
+                response.setHeader(HttpHeaders.ETAG, "W/" + currentETag);
+                if (response.cacheable) {
+                    eTag = currentETag;
+                    replay = compressedBodies.get(eTag);
+                }
+            }
+
+            rawBytes = pending.length;
+            if (replay != null) {
+                return;
+            }
+
+            counter = new CountingOutputStream(response.getResponse().getOutputStream(), eTag != null);
+            long start = cpuTime();
+            gzip = new GZIPOutputStream(counter, 8192) {
+                {
+                    def.setLevel(gzipLevel);
+                }
+            };
+            gzip.write(pending);
+            cpuNanos += cpuTime() - start;
+        }
+
+        private boolean shouldCompress() {
+            int status = response.getStatus();
+            return status >= 200 && status != HttpServletResponse.SC_NO_CONTENT
+                    && status != HttpServletResponse.SC_NOT_MODIFIED
+                    && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                    && isCompressibleType(response.getContentType());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (gzip != null) {
+                gzip.flush();
+            } else if (passthrough != null) {
+                passthrough.flush();
+            }
+        }
+
+        private void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+
+            if (buffer != null) {
+                // under the threshold: send it uncompressed with an exact length
+                byte[] pending = buffer.toByteArray();
+                buffer = null;
+                if (pending.length > 0) {
+                    response.setRawContentLength(pending.length);
+                    response.getResponse().getOutputStream().write(pending);
+                }
+            } else if (replay != null) {
+                response.setRawContentLength(replay.length);
+                response.getResponse().getOutputStream().write(replay);
+                stats.recordCacheHit(rawBytes, replay.length);
+            } else if (gzip != null) {
+                long start = cpuTime();
+                gzip.finish();
+                cpuNanos += cpuTime() - start;
+                stats.recordCompressed(rawBytes, counter.count, cpuNanos);
+                if (eTag != null && counter.copy != null) {
+                    compressedBodies.put(eTag, counter.copy.toByteArray());
+                }
+            }
+        }
+
+        // non-blocking writes go by the real stream's readiness: buffered bytes end up there too
+        @Override
+        public boolean isReady() {
+            return underlying().isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            underlying().setWriteListener(writeListener);
+        }
+
+        private ServletOutputStream underlying() {
+            try {
+                return response.getResponse().getOutputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+        private ByteArrayOutputStream copy;
+
+        private CountingOutputStream(OutputStream out, boolean keepCopy) {
+            super(out);
+            this.copy = keepCopy ? new ByteArrayOutputStream() : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+            if (copy != null) {
+                if (copy.size() + len > MAX_CACHED_BODY_BYTES) {
+                    copy = null;
+                } else {
+                    copy.write(b, off, len);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package edu.usc.csci310.project.controller;
+
+import edu.usc.csci310.project.model.CompareRequest;
+import edu.usc.csci310.project.model.Comparison;
+import edu.usc.csci310.project.services.FavoriteService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/compare")
+public class CompareController {
+
+    private static final int MAX_COMPARED_USERS = 50;
+
+    private final FavoriteService favoriteService;
+
+    public CompareController(FavoriteService favoriteService) {
+        this.favoriteService = favoriteService;
+    }
+
+    // the requester's favorites and those of usernames merged into one ranked song list, one query for all of
+    // them. 403 (with privateUsers filled in and no songs) if anybody else's favorites are private;
+    // usernames that do not exist come back in missingUsers and are otherwise ignored
+    @PostMapping
+    public ResponseEntity<Comparison> compare(@RequestBody CompareRequest request) {
+        String requester = request.getRequester();
+        if (requester == null || requester.isBlank() || request.getUsernames() == null
+                || request.getUsernames().size() > MAX_COMPARED_USERS) {
+            return ResponseEntity.badRequest().build();
+        }
+        Comparison comparison = favoriteService.compare(requester, request.getUsernames());
+        if (!comparison.getPrivateUsers().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new Comparison(List.of(), comparison.getMissingUsers(), comparison.getPrivateUsers()));
+        }
+        return ResponseEntity.ok(comparison);
+    }
+}
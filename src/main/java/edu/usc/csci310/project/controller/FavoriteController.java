@@ -1,11 +1,15 @@
 package edu.usc.csci310.project.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.usc.csci310.project.model.FavoriteSong;
 import edu.usc.csci310.project.services.FavoriteService;
 import edu.usc.csci310.project.services.UserService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
 
@@ -13,6 +17,8 @@ import java.util.*;
 @RequestMapping("/api/favorites")
 public class FavoriteController {
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private final FavoriteService favoriteService;
     private final UserService userService; // ✅ now final and injected
 
@@ -97,45 +103,33 @@ public class FavoriteController {
                 ResponseEntity.badRequest().body("❌ Failed to swap ranks.");
     }
 
+    /**
+     * Every user's word map and favorites as one JSON object keyed by username, written while the
+     * favorites table is being scanned. Pass the last username received as {@code after} to page.
+     */
     @GetMapping("/all-wordmaps")
-    public ResponseEntity<Map<String, Map<String, Object>>> getAllFavoritesWordMaps() {
-        List<String> usernames = favoriteService.getAllUsersWithFavorites();
-        Map<String, Map<String, Object>> result = new HashMap<>();
-
-        for (String username : usernames) {
-            List<FavoriteSong> songs = favoriteService.getFavorites(username);
-            Map<String, Integer> wordMap = generateWordMapFromFavorites(songs);
-
-            Map<String, Object> userData = new HashMap<>();
-            userData.put("wordMap", wordMap);
-            userData.put("favorites", songs);
-
-            result.put(username, userData);
+    public ResponseEntity<StreamingResponseBody> getAllFavoritesWordMaps(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        if (limit != null && limit < 1) {
+            return ResponseEntity.badRequest().build();
         }
 
-        return ResponseEntity.ok(result);
-    }
-
-    private static final List<String> STOP_WORDS = List.of(
-            "the", "and", "a", "to", "of", "in", "is", "it", "you", "that", "on", "for", "with",
-            "as", "was", "are", "but", "be", "at", "by", "this", "have", "or", "an", "not", "we"
-    );
-
-    private Map<String, Integer> generateWordMapFromFavorites(List<FavoriteSong> songs) {
-        Map<String, Integer> wordFreq = new HashMap<>();
-
-        for (FavoriteSong song : songs) {
-            String lyrics = song.getLyrics().toLowerCase().replaceAll("[^a-zA-Z\\s]", "");
-            String[] words = lyrics.split("\\s+");
-
-            for (String word : words) {
-                if (!STOP_WORDS.contains(word)) {
-                    wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
-                }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = MAPPER.getFactory().createGenerator(out)) {
+                json.writeStartObject();
+                favoriteService.forEachUserWordMap(after, limit, (username, favorites, wordMap) -> {
+                    json.writeFieldName(username);
+                    json.writeStartObject();
+                    json.writeObjectField("wordMap", wordMap);
+                    json.writeObjectField("favorites", favorites);
+                    json.writeEndObject();
+                });
+                json.writeEndObject();
             }
-        }
-
-        return wordFreq;
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
 }
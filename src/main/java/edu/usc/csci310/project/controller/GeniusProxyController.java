@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.usc.csci310.project.util.HashUtil;
+import edu.usc.csci310.project.util.LruCache;
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -28,9 +30,14 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 @CrossOrigin(origins = "https://localhost:3000")
 public class GeniusProxyController {
 
+    private static final int MAX_CACHED_RESPONSES = 256;
+
     private final String geniusAccessToken;
     private final RestTemplate restTemplate;
 
+    // upstream url -> last body we proxied, its content hash and Genius' own validators
+    private final LruCache<String, CachedResponse> responseCache = new LruCache<>(MAX_CACHED_RESPONSES);
+
     @Autowired
     public GeniusProxyController(RestTemplate restTemplate, @Value("${GENIUS_ACCESS_TOKEN}") String geniusAccessToken) {
         this.restTemplate = restTemplate;
@@ -44,10 +51,8 @@ public class GeniusProxyController {
 
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + geniusAccessToken);
-        HttpEntity<String> entity = new HttpEntity<>(headers);
 
-        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-        return ResponseEntity.ok(response.getBody());
+        return proxyWithETag(url, headers);
     }
 
     @GetMapping("/artists/{artistId}/songs")
@@ -61,10 +66,57 @@ public class GeniusProxyController {
 
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(geniusAccessToken);
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
 
-        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-        return ResponseEntity.ok(response.getBody());
+        return proxyWithETag(url, headers);
+    }
+
+    /**
+     * Proxies a Genius GET and tags the body with a content-hash ETag.
+     * Spring answers 304 on a matching If-None-Match, so the body is never re-sent.
+     * Genius' own ETag / Last-Modified are replayed upstream on the next fetch.
+     */
+    private ResponseEntity<String> proxyWithETag(String url, HttpHeaders headers) {
+        CachedResponse cached = responseCache.get(url);
+        if (cached != null) {
+            if (cached.upstreamETag != null) {
+                headers.setIfNoneMatch(cached.upstreamETag);
+            }
+            if (cached.upstreamLastModified > 0) {
+                headers.setIfModifiedSince(cached.upstreamLastModified);
+            }
+        }
+
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<Void>(headers), String.class);
+
+        if (cached == null || response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+            String body = response.getBody();
+            if (body == null) {
+                return ResponseEntity.ok(null);
+            }
+            // skip re-hashing when Genius sent the exact same bytes without validators
+            String eTag = cached != null && body.equals(cached.body) ? cached.eTag : "\"" + HashUtil.contentHash(body) + "\"";
+            cached = new CachedResponse(body, eTag, response.getHeaders().getETag(), response.getHeaders().getLastModified());
+            responseCache.put(url, cached);
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(cached.eTag)
+                .body(cached.body);
+    }
+
+    private static final class CachedResponse {
+        private final String body;
+        private final String eTag;
+        private final String upstreamETag;
+        private final long upstreamLastModified;
+
+        private CachedResponse(String body, String eTag, String upstreamETag, long upstreamLastModified) {
+            this.body = body;
+            this.eTag = eTag;
+            this.upstreamETag = upstreamETag;
+            this.upstreamLastModified = upstreamLastModified;
+        }
     }
 
     // gets songs by a provided artist ID
@@ -0,0 +1,35 @@
+package edu.usc.csci310.project.controller;
+
+import edu.usc.csci310.project.config.CompressionStats;
+import edu.usc.csci310.project.services.SoulmateService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final CompressionStats compressionStats;
+    private final SoulmateService soulmateService;
+
+    public MetricsController(CompressionStats compressionStats, SoulmateService soulmateService) {
+        this.compressionStats = compressionStats;
+        this.soulmateService = soulmateService;
+    }
+
+    // bytes saved and CPU spent by response compression since startup
+    @GetMapping("/compression")
+    public ResponseEntity<Map<String, Object>> getCompressionStats() {
+        return ResponseEntity.ok(compressionStats.snapshot());
+    }
+
+    // when the soulmate snapshot was built, how long it took and how many favorite changes it is behind
+    @GetMapping("/soulmate-snapshot")
+    public ResponseEntity<Map<String, Object>> getSoulmateSnapshotStats() {
+        return ResponseEntity.ok(soulmateService.snapshotStats());
+    }
+}
@@ -1,9 +1,7 @@
 package edu.usc.csci310.project.controller;
 
-import edu.usc.csci310.project.model.FavoriteSong;
 import edu.usc.csci310.project.repository.FavoriteRepository;
 import edu.usc.csci310.project.repository.UserRepository;
-import edu.usc.csci310.project.util.HashUtil;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +14,8 @@ import java.util.*;
 @CrossOrigin(origins = "https://localhost:3000") // adjust as needed
 public class SocialController {
 
+    private static final int MAX_SONGS_PER_LOOKUP = 100;
+
     @Autowired
     private UserRepository userRepo;
 
@@ -39,21 +39,21 @@ public class SocialController {
             @PathVariable String songId,
             @RequestParam String user // this is raw_username
     ) {
-        Optional<String> hashedOpt = userRepo.getHashedUsernameFromRaw(user);
-        if (hashedOpt.isEmpty()) return ResponseEntity.notFound().build();
-
-        String hashedUsername = hashedOpt.get();
-        List<String> allUsers = favoriteRepo.findUsernamesBySongId(songId);
-
-        // Return raw usernames of other users (excluding the current user)
-        List<String> rawUsernames = new ArrayList<>();
-        for (String u : allUsers) {
-            if (!u.equals(hashedUsername)) {
-                Optional<String> raw = userRepo.getRawUsernameFromHashed(u);
-                raw.ifPresent(rawUsernames::add);
-            }
-        }
-
-        return ResponseEntity.ok(rawUsernames);
+        if (userRepo.getHashedUsernameFromRaw(user).isEmpty()) return ResponseEntity.notFound().build();
+
+        // raw usernames of other users, straight from the favorites/users join
+        return ResponseEntity.ok(favoriteRepo.findRawUsernamesBySongIds(List.of(songId), user).get(songId));
+    }
+
+    // Same as above for many songs at once: song id -> friends who also favorited it, one query in total
+    @GetMapping("/songs/friends")
+    public ResponseEntity<Map<String, List<String>>> getMutualsForSongs(
+            @RequestParam List<String> songIds,
+            @RequestParam String user // this is raw_username
+    ) {
+        if (songIds.size() > MAX_SONGS_PER_LOOKUP) return ResponseEntity.badRequest().build();
+        if (userRepo.getHashedUsernameFromRaw(user).isEmpty()) return ResponseEntity.notFound().build();
+
+        return ResponseEntity.ok(favoriteRepo.findRawUsernamesBySongIds(songIds, user));
     }
 }
@@ -0,0 +1,83 @@
+package edu.usc.csci310.project.controller;
+
+import edu.usc.csci310.project.model.LyricalMatch;
+import edu.usc.csci310.project.model.MatchPage;
+import edu.usc.csci310.project.model.SimilarityMetric;
+import edu.usc.csci310.project.model.SoulmateResult;
+import edu.usc.csci310.project.services.SoulmateService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/soulmate")
+public class SoulmateController {
+
+    private static final int MAX_RANKING_PAGE = 100;
+
+    private final SoulmateService soulmateService;
+
+    public SoulmateController(SoulmateService soulmateService) {
+        this.soulmateService = soulmateService;
+    }
+
+    // most and least similar public users with their scores; 204 when there is nobody to compare against,
+    // 404 when the user does not exist.
+    // metric is jaccard (default, served from the materialized rows), cosine (TF-IDF, scanned per request)
+    // or songs (overlap of favorited songs, from the in-memory song index)
+    @GetMapping("/{username}")
+    public ResponseEntity<SoulmateResult> getSoulmate(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "jaccard") String metric) {
+        Optional<SimilarityMetric> similarity = SimilarityMetric.fromParam(metric);
+        if (similarity.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!soulmateService.isKnownUser(username)) {
+            return ResponseEntity.notFound().build();
+        }
+        return soulmateService.findMatches(username, similarity.get())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    // every public user ranked by similarity, most (order=most) or least (order=least) similar first,
+    // limit per page; pass nextCursor back as after for the next page
+    @GetMapping("/{username}/ranking")
+    public ResponseEntity<MatchPage> getRanking(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "most") String order,
+            @RequestParam(defaultValue = "jaccard") String metric,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int limit) {
+        Optional<SimilarityMetric> similarity = SimilarityMetric.fromParam(metric);
+        boolean most = "most".equalsIgnoreCase(order);
+        if (similarity.isEmpty() || (!most && !"least".equalsIgnoreCase(order)) || limit < 1 || limit > MAX_RANKING_PAGE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!soulmateService.isKnownUser(username)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(soulmateService.rank(username, similarity.get(), most, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // soulmate only, from the LSH index; cheaper than the full scan but may miss a marginally closer match
+    @GetMapping("/{username}/approximate")
+    public ResponseEntity<LyricalMatch> getApproximateSoulmate(@PathVariable String username) {
+        if (!soulmateService.isKnownUser(username)) {
+            return ResponseEntity.notFound().build();
+        }
+        return soulmateService.findSoulmateApproximate(username)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
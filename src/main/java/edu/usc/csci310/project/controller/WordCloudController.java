@@ -0,0 +1,167 @@
+package edu.usc.csci310.project.controller;
+
+import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.HighlightRanges;
+import edu.usc.csci310.project.model.RenderedCloud;
+import edu.usc.csci310.project.model.SongOccurrence;
+import edu.usc.csci310.project.model.WeightedWord;
+import edu.usc.csci310.project.model.WordCloud;
+import edu.usc.csci310.project.services.UserService;
+import edu.usc.csci310.project.services.WordCloudService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/wordcloud")
+public class WordCloudController {
+
+    private static final int DEFAULT_K = 100;
+    private static final int MAX_K = 1000;
+    private static final int MIN_SVG_SIDE = 100;
+    private static final int MAX_SVG_SIDE = 4000;
+    private static final MediaType SVG = MediaType.valueOf("image/svg+xml");
+
+    private final WordCloudService wordCloudService;
+    private final UserService userService;
+
+    public WordCloudController(WordCloudService wordCloudService, UserService userService) {
+        this.wordCloudService = wordCloudService;
+        this.userService = userService;
+    }
+
+    // someone else's private favorites, which only their owner may see words or songs of
+    private boolean isHidden(String username, String requester) {
+        return !username.equals(requester) && userService.isFavoritesPrivate(username);
+    }
+
+    // top k words over a user's favorites; stem=true groups "love", "loved", "loving" into one entry
+    @GetMapping("/top/{username}")
+    public ResponseEntity<?> getTopWordsForUser(
+            @PathVariable String username,
+            @RequestParam String requester,
+            @RequestParam(defaultValue = "" + DEFAULT_K) int k,
+            @RequestParam(defaultValue = "false") boolean stem
+    ) {
+        if (k < 1 || k > MAX_K) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isHidden(username, requester)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Favorites list is private");
+        }
+        return ResponseEntity.ok(wordCloudService.topWordsForUser(username, k, stem));
+    }
+
+    // top k words over an explicit set of songs, e.g. /api/wordcloud/top?songIds=1,2,3&k=50&stem=true
+    @GetMapping("/top")
+    public ResponseEntity<List<WeightedWord>> getTopWordsForSongs(
+            @RequestParam List<String> songIds,
+            @RequestParam(defaultValue = "" + DEFAULT_K) int k,
+            @RequestParam(defaultValue = "false") boolean stem
+    ) {
+        if (k < 1 || k > MAX_K) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(wordCloudService.topWordsForSongs(songIds, k, stem));
+    }
+
+    // favorites of a user containing the word (any form of its stem), most occurrences first
+    @GetMapping("/songs/{username}")
+    public ResponseEntity<?> getSongsForWord(
+            @PathVariable String username,
+            @RequestParam String requester,
+            @RequestParam String word
+    ) {
+        if (word.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isHidden(username, requester)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Favorites list is private");
+        }
+        return ResponseEntity.ok(wordCloudService.songsForWord(username, word));
+    }
+
+    // songs of an explicit set containing the word, e.g. /api/wordcloud/songs?songIds=1,2,3&word=loving
+    @GetMapping("/songs")
+    public ResponseEntity<List<SongOccurrence>> getSongsForWord(
+            @RequestParam List<String> songIds,
+            @RequestParam String word
+    ) {
+        if (word.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(wordCloudService.songsForWord(songIds, word));
+    }
+
+    // character ranges of the song's lyrics matching the word's stem
+    @GetMapping("/highlights/{songId}")
+    public ResponseEntity<HighlightRanges> getHighlights(
+            @PathVariable String songId,
+            @RequestParam String word
+    ) {
+        if (word.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(wordCloudService.highlights(songId, word));
+    }
+
+    // the user's saved cloud: its songs and top k words, cached server-side until the cloud changes
+    @GetMapping("/saved/{username}")
+    public ResponseEntity<WordCloud> getSavedCloud(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "" + DEFAULT_K) int k,
+            @RequestParam(defaultValue = "false") boolean stem
+    ) {
+        if (k < 1 || k > MAX_K) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(wordCloudService.getSavedCloud(username, k, stem));
+    }
+
+    @PostMapping("/saved/add")
+    public ResponseEntity<String> addToSavedCloud(@RequestBody FavoriteSong song) {
+        return wordCloudService.addToCloud(song) ? ResponseEntity.ok("✅ Song added to word cloud")
+                : ResponseEntity.status(HttpStatus.CONFLICT).body("❌ Song is already in the word cloud.");
+    }
+
+    @DeleteMapping("/saved/{username}/{songId}")
+    public ResponseEntity<String> removeFromSavedCloud(@PathVariable String username, @PathVariable String songId) {
+        return wordCloudService.removeFromCloud(username, songId) ? ResponseEntity.ok("✅ Song removed from word cloud")
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/saved/{username}")
+    public ResponseEntity<Integer> clearSavedCloud(@PathVariable String username) {
+        return ResponseEntity.ok(wordCloudService.clearCloud(username));
+    }
+
+    // the cloud laid out server-side as SVG; the ETag changes only with the word map, so 304s are cheap
+    @GetMapping("/svg/{username}")
+    public ResponseEntity<String> getSvg(
+            @PathVariable String username,
+            @RequestParam String requester,
+            @RequestParam(defaultValue = "false") boolean saved,
+            @RequestParam(defaultValue = "" + DEFAULT_K) int k,
+            @RequestParam(defaultValue = "false") boolean stem,
+            @RequestParam(defaultValue = "800") int width,
+            @RequestParam(defaultValue = "600") int height
+    ) {
+        if (k < 1 || k > MAX_K || width < MIN_SVG_SIDE || width > MAX_SVG_SIDE
+                || height < MIN_SVG_SIDE || height > MAX_SVG_SIDE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isHidden(username, requester)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Favorites list is private");
+        }
+        RenderedCloud rendered = wordCloudService.renderSvg(username, saved, k, stem, width, height);
+        return ResponseEntity.ok()
+                .contentType(SVG)
+                .cacheControl(CacheControl.noCache())
+                .eTag(rendered.getETag())
+                .body(rendered.getSvg());
+    }
+}
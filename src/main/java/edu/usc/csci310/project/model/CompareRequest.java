@@ -0,0 +1,36 @@
+package edu.usc.csci310.project.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of {@code POST /api/compare}: the requesting user and the users to compare their favorites with.
+ */
+public class CompareRequest {
+    private String requester;
+    private List<String> usernames = new ArrayList<>();
+
+    public CompareRequest() {
+    }
+
+    public CompareRequest(String requester, List<String> usernames) {
+        this.requester = requester;
+        this.usernames = usernames;
+    }
+
+    public String getRequester() {
+        return requester;
+    }
+
+    public void setRequester(String requester) {
+        this.requester = requester;
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames;
+    }
+}
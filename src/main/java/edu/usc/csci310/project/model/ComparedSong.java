@@ -0,0 +1,50 @@
+package edu.usc.csci310.project.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A song favorited by at least one of the compared users, with who favorited it and its 1-based rank by
+ * how many of them did. Songs with the same number of fans share a rank (1, 1, 3, ...).
+ */
+public class ComparedSong {
+    private final int rank;
+    private final String songId;
+    private final String title;
+    private final String artistName;
+    private final String releaseDate;
+    private final List<String> users;
+
+    public ComparedSong(int rank, String songId, String title, String artistName, String releaseDate, List<String> users) {
+        this.rank = rank;
+        this.songId = songId;
+        this.title = title;
+        this.artistName = artistName;
+        this.releaseDate = releaseDate;
+        this.users = Collections.unmodifiableList(users);
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public String getSongId() {
+        return songId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getArtistName() {
+        return artistName;
+    }
+
+    public String getReleaseDate() {
+        return releaseDate;
+    }
+
+    public List<String> getUsers() {
+        return users;
+    }
+}
@@ -0,0 +1,33 @@
+package edu.usc.csci310.project.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Favorites of several users merged and ranked by how many of them favorited each song, most first.
+ * {@code missingUsers} do not exist; {@code privateUsers} keep their favorites private from the requester
+ * and contributed no songs.
+ */
+public class Comparison {
+    private final List<ComparedSong> songs;
+    private final List<String> missingUsers;
+    private final List<String> privateUsers;
+
+    public Comparison(List<ComparedSong> songs, List<String> missingUsers, List<String> privateUsers) {
+        this.songs = Collections.unmodifiableList(songs);
+        this.missingUsers = Collections.unmodifiableList(missingUsers);
+        this.privateUsers = Collections.unmodifiableList(privateUsers);
+    }
+
+    public List<ComparedSong> getSongs() {
+        return songs;
+    }
+
+    public List<String> getMissingUsers() {
+        return missingUsers;
+    }
+
+    public List<String> getPrivateUsers() {
+        return privateUsers;
+    }
+}
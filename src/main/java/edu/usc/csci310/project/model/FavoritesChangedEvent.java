@@ -0,0 +1,17 @@
+package edu.usc.csci310.project.model;
+
+/**
+ * Published when a user's favorites change, or whether other users may be matched against them does
+ * (privacy toggled, account deleted). Anything derived from several users' favorites listens for it.
+ */
+public class FavoritesChangedEvent {
+    private final String username;
+
+    public FavoritesChangedEvent(String username) {
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
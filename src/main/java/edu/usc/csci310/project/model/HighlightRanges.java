@@ -0,0 +1,29 @@
+package edu.usc.csci310.project.model;
+
+/**
+ * Character ranges of a song's lyrics to highlight for one stem, flattened as
+ * [start0, end0, start1, end1, ...] with each end exclusive.
+ */
+public class HighlightRanges {
+    private final String songId;
+    private final String stem;
+    private final int[] ranges;
+
+    public HighlightRanges(String songId, String stem, int[] ranges) {
+        this.songId = songId;
+        this.stem = stem;
+        this.ranges = ranges;
+    }
+
+    public String getSongId() {
+        return songId;
+    }
+
+    public String getStem() {
+        return stem;
+    }
+
+    public int[] getRanges() {
+        return ranges;
+    }
+}
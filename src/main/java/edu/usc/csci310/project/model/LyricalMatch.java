@@ -0,0 +1,29 @@
+package edu.usc.csci310.project.model;
+
+/**
+ * Another user matched against the requester by word-map similarity.
+ * {@code mutual} is true when the requester is this user's closest (or farthest) match too.
+ */
+public class LyricalMatch {
+    private final String username;
+    private final double score;
+    private final boolean mutual;
+
+    public LyricalMatch(String username, double score, boolean mutual) {
+        this.username = username;
+        this.score = score;
+        this.mutual = mutual;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public boolean isMutual() {
+        return mutual;
+    }
+}
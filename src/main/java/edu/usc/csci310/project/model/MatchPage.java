@@ -0,0 +1,26 @@
+package edu.usc.csci310.project.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a ranked list of matches. {@code nextCursor} is passed back as {@code after} for the next page,
+ * and is null on the last one.
+ */
+public class MatchPage {
+    private final List<RankedMatch> matches;
+    private final String nextCursor;
+
+    public MatchPage(List<RankedMatch> matches, String nextCursor) {
+        this.matches = Collections.unmodifiableList(matches);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<RankedMatch> getMatches() {
+        return matches;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,45 @@
+package edu.usc.csci310.project.model;
+
+/**
+ * A user's materialized best (soulmate) and worst (enemy) match with their Jaccard scores.
+ * Both names are null when there was nobody to compare against.
+ */
+public class MatchRow {
+    private final String username;
+    private final String soulmate;
+    private final double soulmateScore;
+    private final String enemy;
+    private final double enemyScore;
+
+    public MatchRow(String username, String soulmate, double soulmateScore, String enemy, double enemyScore) {
+        this.username = username;
+        this.soulmate = soulmate;
+        this.soulmateScore = soulmateScore;
+        this.enemy = enemy;
+        this.enemyScore = enemyScore;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getSoulmate() {
+        return soulmate;
+    }
+
+    public double getSoulmateScore() {
+        return soulmateScore;
+    }
+
+    public String getEnemy() {
+        return enemy;
+    }
+
+    public double getEnemyScore() {
+        return enemyScore;
+    }
+
+    public boolean isEmpty() {
+        return soulmate == null;
+    }
+}
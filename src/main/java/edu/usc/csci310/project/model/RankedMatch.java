@@ -0,0 +1,29 @@
+package edu.usc.csci310.project.model;
+
+/**
+ * One entry of a ranked list of matches: the user, their similarity to the requester and their 1-based
+ * position in the ranking.
+ */
+public class RankedMatch {
+    private final int rank;
+    private final String username;
+    private final double score;
+
+    public RankedMatch(int rank, String username, double score) {
+        this.rank = rank;
+        this.username = username;
+        this.score = score;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
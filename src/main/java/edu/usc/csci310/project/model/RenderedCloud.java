@@ -0,0 +1,22 @@
+package edu.usc.csci310.project.model;
+
+/**
+ * A word cloud rendered to SVG, tagged with the word-map version and canvas it was laid out for.
+ */
+public class RenderedCloud {
+    private final String eTag;
+    private final String svg;
+
+    public RenderedCloud(String eTag, String svg) {
+        this.eTag = eTag;
+        this.svg = svg;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getSvg() {
+        return svg;
+    }
+}
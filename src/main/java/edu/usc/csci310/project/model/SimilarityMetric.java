@@ -0,0 +1,27 @@
+package edu.usc.csci310.project.model;
+
+import java.util.Optional;
+
+/**
+ * How two users' word maps are compared.
+ * JACCARD: shared distinct words over all distinct words, frequencies ignored.
+ * COSINE: cosine of TF-IDF weighted word maps, so shared rare words count for more than shared common ones.
+ * SONGS: shared favorited songs over all favorited songs; no lyrics involved.
+ */
+public enum SimilarityMetric {
+    JACCARD,
+    COSINE,
+    SONGS;
+
+    /**
+     * Case-insensitive lookup for request parameters; empty for unknown names.
+     */
+    public static Optional<SimilarityMetric> fromParam(String value) {
+        for (SimilarityMetric metric : values()) {
+            if (metric.name().equalsIgnoreCase(value)) {
+                return Optional.of(metric);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,53 @@
+package edu.usc.csci310.project.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Every user's soulmate and enemy as of one background build, with when and how it was built.
+ * Immutable, so readers can share one instance without locking while the next one is built.
+ */
+public class SimilaritySnapshot {
+
+    public static final SimilaritySnapshot EMPTY = new SimilaritySnapshot(Map.of(), false, 0, 0);
+
+    private final Map<String, MatchRow> rows;
+    private final boolean full;
+    private final long builtAt;
+    private final long buildMillis;
+
+    public SimilaritySnapshot(Map<String, MatchRow> rows, boolean full, long builtAt, long buildMillis) {
+        this.rows = Collections.unmodifiableMap(new LinkedHashMap<>(rows));
+        this.full = full;
+        this.builtAt = builtAt;
+        this.buildMillis = buildMillis;
+    }
+
+    public Optional<MatchRow> find(String username) {
+        return Optional.ofNullable(rows.get(username));
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public boolean isBuilt() {
+        return builtAt > 0;
+    }
+
+    // true for a full rebuild, false for an incremental one
+    public boolean isFull() {
+        return full;
+    }
+
+    // epoch millis
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+}
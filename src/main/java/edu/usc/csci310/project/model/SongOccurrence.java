@@ -0,0 +1,38 @@
+package edu.usc.csci310.project.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A song containing a given stem and how many times it occurs there.
+ * Title and artist are only known for songs looked up through someone's favorites.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SongOccurrence {
+    private final String songId;
+    private final String title;
+    private final String artistName;
+    private final int count;
+
+    public SongOccurrence(String songId, String title, String artistName, int count) {
+        this.songId = songId;
+        this.title = title;
+        this.artistName = artistName;
+        this.count = count;
+    }
+
+    public String getSongId() {
+        return songId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getArtistName() {
+        return artistName;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
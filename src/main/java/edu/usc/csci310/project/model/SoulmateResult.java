@@ -0,0 +1,22 @@
+package edu.usc.csci310.project.model;
+
+/**
+ * The most (soulmate) and least (enemy) similar public users to the requester.
+ */
+public class SoulmateResult {
+    private final LyricalMatch soulmate;
+    private final LyricalMatch enemy;
+
+    public SoulmateResult(LyricalMatch soulmate, LyricalMatch enemy) {
+        this.soulmate = soulmate;
+        this.enemy = enemy;
+    }
+
+    public LyricalMatch getSoulmate() {
+        return soulmate;
+    }
+
+    public LyricalMatch getEnemy() {
+        return enemy;
+    }
+}
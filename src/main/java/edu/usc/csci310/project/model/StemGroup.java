@@ -0,0 +1,54 @@
+package edu.usc.csci310.project.model;
+
+import edu.usc.csci310.project.util.Stemmer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * All the surface forms of one stem in a word map, e.g. "love", "loved" and "loving" under "love".
+ */
+public class StemGroup {
+    private final String stem;
+    private int count;
+    private String surfaceForm;
+    private int surfaceCount;
+
+    public StemGroup(String stem) {
+        this.stem = stem;
+    }
+
+    /**
+     * Groups a word -> count map by stem, summing counts and keeping each stem's most frequent word
+     * (the alphabetically first one on ties).
+     */
+    public static Map<String, StemGroup> group(Map<String, Integer> wordMap) {
+        Map<String, StemGroup> groups = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : wordMap.entrySet()) {
+            String stem = Stemmer.stem(entry.getKey());
+            groups.computeIfAbsent(stem, StemGroup::new).add(entry.getKey(), entry.getValue());
+        }
+        return groups;
+    }
+
+    void add(String word, int wordCount) {
+        count += wordCount;
+        if (surfaceForm == null || wordCount > surfaceCount
+                || (wordCount == surfaceCount && word.compareTo(surfaceForm) < 0)) {
+            surfaceForm = word;
+            surfaceCount = wordCount;
+        }
+    }
+
+    public String getStem() {
+        return stem;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getSurfaceForm() {
+        return surfaceForm;
+    }
+}
@@ -0,0 +1,148 @@
+package edu.usc.csci310.project.model;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Term-frequency vector over global term ids: parallel arrays sorted by term id, counts always positive.
+ * Instances are immutable; the arrays returned by the getters must not be modified.
+ */
+public class TermVector {
+
+    public static final TermVector EMPTY = new TermVector(new int[0], new int[0]);
+
+    private final int[] termIds;
+    private final int[] counts;
+
+    public TermVector(int[] termIds, int[] counts) {
+        if (termIds.length != counts.length) {
+            throw new IllegalArgumentException("termIds and counts must have the same length");
+        }
+        this.termIds = termIds;
+        this.counts = counts;
+    }
+
+    public static TermVector fromCounts(Map<Integer, Integer> countsById) {
+        int[] ids = new int[countsById.size()];
+        int n = 0;
+        for (Map.Entry<Integer, Integer> e : countsById.entrySet()) {
+            if (e.getValue() > 0) {
+                ids[n++] = e.getKey();
+            }
+        }
+        ids = Arrays.copyOf(ids, n);
+        Arrays.sort(ids);
+
+        int[] counts = new int[n];
+        for (int i = 0; i < n; i++) {
+            counts[i] = countsById.get(ids[i]);
+        }
+        return new TermVector(ids, counts);
+    }
+
+    public int size() {
+        return termIds.length;
+    }
+
+    public boolean isEmpty() {
+        return termIds.length == 0;
+    }
+
+    public int[] getTermIds() {
+        return termIds;
+    }
+
+    public int[] getCounts() {
+        return counts;
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (int c : counts) {
+            total += c;
+        }
+        return total;
+    }
+
+    /**
+     * Element-wise sum, in one linear merge.
+     */
+    public TermVector plus(TermVector other) {
+        return merge(other, 1);
+    }
+
+    /**
+     * Element-wise difference; terms whose count drops to zero or below are removed.
+     */
+    public TermVector minus(TermVector other) {
+        return merge(other, -1);
+    }
+
+    /**
+     * Jaccard similarity of the two term sets, counts ignored: |A and B| / |A or B|, 0 when both are empty.
+     */
+    public double jaccard(TermVector other) {
+        int shared = sharedTerms(other);
+        int union = termIds.length + other.termIds.length - shared;
+        return union == 0 ? 0 : shared / (double) union;
+    }
+
+    /**
+     * Number of term ids present in both vectors, in one linear merge.
+     */
+    public int sharedTerms(TermVector other) {
+        int[] a = termIds, b = other.termIds;
+        int i = 0, j = 0, shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                shared++;
+                i++;
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    private TermVector merge(TermVector other, int sign) {
+        int[] a = termIds, b = other.termIds;
+        int[] ids = new int[a.length + b.length];
+        int[] sums = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            int id;
+            int count;
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                id = a[i];
+                count = counts[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                id = b[j];
+                count = sign * other.counts[j++];
+            } else {
+                id = a[i];
+                count = counts[i++] + sign * other.counts[j++];
+            }
+            if (count > 0) {
+                ids[n] = id;
+                sums[n++] = count;
+            }
+        }
+        return new TermVector(Arrays.copyOf(ids, n), Arrays.copyOf(sums, n));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TermVector)) return false;
+        TermVector that = (TermVector) o;
+        return Arrays.equals(termIds, that.termIds) && Arrays.equals(counts, that.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(termIds) + Arrays.hashCode(counts);
+    }
+}
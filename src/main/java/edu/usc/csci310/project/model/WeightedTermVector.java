@@ -0,0 +1,84 @@
+package edu.usc.csci310.project.model;
+
+/**
+ * Unit-length weight vector over global term ids (TF-IDF weights): parallel arrays sorted by term id.
+ * Because both sides are normalized, cosine similarity is just the dot product.
+ * Instances are immutable; the arrays returned by the getters must not be modified.
+ */
+public class WeightedTermVector {
+
+    public static final WeightedTermVector EMPTY = new WeightedTermVector(new int[0], new float[0]);
+
+    private final int[] termIds;
+    private final float[] weights;
+
+    public WeightedTermVector(int[] termIds, float[] weights) {
+        if (termIds.length != weights.length) {
+            throw new IllegalArgumentException("termIds and weights must have the same length");
+        }
+        this.termIds = termIds;
+        this.weights = weights;
+    }
+
+    public int size() {
+        return termIds.length;
+    }
+
+    public int[] getTermIds() {
+        return termIds;
+    }
+
+    public float[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Cosine similarity in one linear merge over the two sorted id arrays.
+     */
+    public double cosine(WeightedTermVector other) {
+        int[] a = termIds, b = other.termIds;
+        int i = 0, j = 0;
+        double dot = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                dot += weights[i] * other.weights[j];
+                i++;
+                j++;
+            }
+        }
+        return dot;
+    }
+
+    /**
+     * This vector scattered into a dense array indexed by term id, for {@link #dot(float[])}.
+     */
+    public float[] toDense() {
+        float[] dense = new float[termIds.length == 0 ? 0 : termIds[termIds.length - 1] + 1];
+        for (int i = 0; i < termIds.length; i++) {
+            dense[termIds[i]] = weights[i];
+        }
+        return dense;
+    }
+
+    /**
+     * Dot product with a dense vector from {@link #toDense()}: a gather over this vector's ids with no branches
+     * on the other side's ids, which is what makes scoring one user against many cheap. Adds the same products
+     * in the same order as {@link #cosine}, so both give bit-identical scores.
+     */
+    public double dot(float[] dense) {
+        double dot = 0;
+        int n = termIds.length;
+        // ids are sorted, so everything past the dense array's end is a zero weight
+        while (n > 0 && termIds[n - 1] >= dense.length) {
+            n--;
+        }
+        for (int i = 0; i < n; i++) {
+            dot += weights[i] * dense[termIds[i]];
+        }
+        return dot;
+    }
+}
@@ -0,0 +1,42 @@
+package edu.usc.csci310.project.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One word of a word cloud: its raw count and its weight in [0, 1] relative to the other words returned.
+ * In stemmed clouds the word is the stem's most frequent surface form and the count covers every form.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WeightedWord {
+    private final String word;
+    private final int count;
+    private final double weight;
+    private final String stem;
+
+    public WeightedWord(String word, int count, double weight) {
+        this(word, count, weight, null);
+    }
+
+    public WeightedWord(String word, int count, double weight, String stem) {
+        this.word = word;
+        this.count = count;
+        this.weight = weight;
+        this.stem = stem;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public String getStem() {
+        return stem;
+    }
+}
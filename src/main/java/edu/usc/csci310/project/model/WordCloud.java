@@ -0,0 +1,30 @@
+package edu.usc.csci310.project.model;
+
+import java.util.List;
+
+/**
+ * A user's saved word cloud: the songs in it and its top words, everything the page needs in one response.
+ */
+public class WordCloud {
+    private final String username;
+    private final List<FavoriteSong> songs;
+    private final List<WeightedWord> words;
+
+    public WordCloud(String username, List<FavoriteSong> songs, List<WeightedWord> words) {
+        this.username = username;
+        this.songs = songs;
+        this.words = words;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<FavoriteSong> getSongs() {
+        return songs;
+    }
+
+    public List<WeightedWord> getWords() {
+        return words;
+    }
+}
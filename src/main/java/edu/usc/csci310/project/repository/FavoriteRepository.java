@@ -1,45 +1,78 @@
 package edu.usc.csci310.project.repository;
 
+import edu.usc.csci310.project.model.ComparedSong;
+import edu.usc.csci310.project.model.Comparison;
 import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.IntCountMap;
+import edu.usc.csci310.project.util.LyricsTokenizer;
+import edu.usc.csci310.project.util.ParallelWordMaps;
+import edu.usc.csci310.project.util.TermVectorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 
 @Repository
 public class FavoriteRepository {
 
+    private static final String WITHOUT_WORD_MAP =
+            "NOT EXISTS (SELECT 1 FROM user_wordmaps uw WHERE uw.username = f.username)";
+
     private final Connection connection;
+    private final TermRepository termRepository;
+    private final WordMapRepository wordMapRepository;
 
     @Autowired
-    public FavoriteRepository(Connection connection) {
+    public FavoriteRepository(Connection connection, TermRepository termRepository, WordMapRepository wordMapRepository) {
         this.connection = connection;
+        this.termRepository = termRepository;
+        this.wordMapRepository = wordMapRepository;
     }
 
     /**
      * Adds a song to the user's favorite list (no encryption).
      */
     public boolean addFavorite(String username, String songId, String title, String url, String imageUrl, String releaseDate, String artistName, String lyrics) {
-        int rank = getNextRank(username); // ✅ Ensure a valid rank is assigned
+        Optional<TermVector> songVector = termRepository.ensureSongVector(songId, lyrics); // ✅ tokenized once per song
 
         String sql = "INSERT INTO favorites (username, song_id, title, url, image_url, release_date, artist_name, lyrics, rank) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, username);
-            stmt.setString(2, songId);
-            stmt.setString(3, title);
-            stmt.setString(4, url);
-            stmt.setString(5, imageUrl);
-            stmt.setString(6, releaseDate);
-            stmt.setString(7, artistName);
-            stmt.setString(8, lyrics);
-            stmt.setInt(9, rank);
-            stmt.executeUpdate();
+        try {
+            // the row and the word map change together, so a rebuild in between can't count the song twice
+            int rank = Transactions.inTransaction(connection, () -> {
+                int nextRank = getNextRank(username); // ✅ Ensure a valid rank is assigned
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, username);
+                    stmt.setString(2, songId);
+                    stmt.setString(3, title);
+                    stmt.setString(4, url);
+                    stmt.setString(5, imageUrl);
+                    stmt.setString(6, releaseDate);
+                    stmt.setString(7, artistName);
+                    stmt.setString(8, lyrics);
+                    stmt.setInt(9, nextRank);
+                    stmt.executeUpdate();
+                }
+                addToWordMap(username, songVector);
+                return nextRank;
+            });
             System.out.println("✅ Added song with rank: " + rank);
             return true;
         } catch (SQLException e) {
@@ -61,21 +94,7 @@ public class FavoriteRepository {
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                int rank = rs.getInt("rank");
-                if (rank < 1) rank = 1;
-
-                FavoriteSong song = new FavoriteSong(
-                        username,
-                        rs.getString("song_id"),
-                        rs.getString("title"),
-                        rs.getString("url"),
-                        rs.getString("image_url"),
-                        rs.getString("release_date"),
-                        rs.getString("artist_name"),
-                        rs.getString("lyrics"),
-                        rank
-                );
-                favorites.add(song);
+                favorites.add(toFavoriteSong(username, rs));
             }
         } catch (SQLException e) {
             System.err.println("❌ Error retrieving favorites: " + e.getMessage());
@@ -83,17 +102,280 @@ public class FavoriteRepository {
         return favorites;
     }
 
+    private static FavoriteSong toFavoriteSong(String username, ResultSet rs) throws SQLException {
+        int rank = rs.getInt("rank");
+        if (rank < 1) rank = 1;
+
+        return new FavoriteSong(
+                username,
+                rs.getString("song_id"),
+                rs.getString("title"),
+                rs.getString("url"),
+                rs.getString("image_url"),
+                rs.getString("release_date"),
+                rs.getString("artist_name"),
+                rs.getString("lyrics"),
+                rank
+        );
+    }
+
     /**
-     * Removes a song from the user's favorite list.
+     * Receives one user's favorites and word map at a time from {@link #forEachUserWordMap}.
      */
-    public boolean removeFavorite(String username, String songId) {
-        String sql = "DELETE FROM favorites WHERE username = ? AND song_id = ?";
+    @FunctionalInterface
+    public interface UserWordMapVisitor {
+        void visit(String username, List<FavoriteSong> favorites, Map<String, Integer> wordMap) throws IOException;
+    }
+
+    /**
+     * Walks every user with favorites in username order with a single query, handing each user to the
+     * visitor as soon as their rows have been read, so only one user's favorites are held at a time.
+     * Users after {@code after} (exclusive) are visited, at most {@code limit} of them; either may be null.
+     *
+     * @throws IOException if the visitor throws, or if reading fails partway (wrapping the SQLException)
+     */
+    public void forEachUserWordMap(String after, Integer limit, UserWordMapVisitor visitor) throws IOException {
+        String sql = "SELECT f.username, f.song_id, f.title, f.url, f.image_url, f.release_date, f.artist_name, " +
+                "f.lyrics, COALESCE(f.rank, 1) AS rank, uw.vector AS wordmap " +
+                "FROM favorites f LEFT JOIN user_wordmaps uw ON uw.username = f.username " +
+                "WHERE f.username IN (SELECT DISTINCT username FROM favorites " +
+                "WHERE ? IS NULL OR username > ? ORDER BY username LIMIT ?) " +
+                "ORDER BY f.username, rank";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, after);
+            stmt.setString(2, after);
+            stmt.setInt(3, limit == null ? -1 : limit);
+            ResultSet rs = stmt.executeQuery();
+
+            String current = null;
+            byte[] wordMap = null;
+            List<FavoriteSong> songs = new ArrayList<>();
+            while (rs.next()) {
+                String username = rs.getString("username");
+                if (!username.equals(current)) {
+                    if (current != null) {
+                        visitor.visit(current, songs, storedOrRebuiltWordMap(current, wordMap));
+                    }
+                    current = username;
+                    wordMap = rs.getBytes("wordmap");
+                    songs = new ArrayList<>();
+                }
+                songs.add(toFavoriteSong(username, rs));
+            }
+            if (current != null) {
+                visitor.visit(current, songs, storedOrRebuiltWordMap(current, wordMap));
+            }
+        } catch (SQLException e) {
+            // the caller may have streamed part of the result already: fail it rather than end it early
+            System.err.println("❌ Error streaming word maps: " + e.getMessage());
+            throw new IOException("Error streaming word maps", e);
+        }
+    }
+
+    private Map<String, Integer> storedOrRebuiltWordMap(String username, byte[] stored) {
+        return stored != null ? termRepository.toWordMap(TermVectorCodec.decode(stored)) : rebuildWordMap(username);
+    }
+
+    /**
+     * Returns a user's word map from its materialized vector, building it first if needed.
+     */
+    public Map<String, Integer> getWordMap(String username) {
+        Optional<TermVector> stored = wordMapRepository.find(username);
+        if (stored.isPresent()) {
+            return termRepository.toWordMap(stored.get());
+        }
+        return rebuildWordMap(username);
+    }
+
+    /**
+     * Same as {@link #getWordMap} but keyed by term id, for callers that never need the words themselves.
+     */
+    public TermVector getWordVector(String username) {
+        Optional<TermVector> stored = wordMapRepository.find(username);
+        return stored.isPresent() ? stored.get() : rebuildWordVector(username, new HashMap<>());
+    }
+
+    private Map<String, Integer> rebuildWordMap(String username) {
+        Map<String, Integer> untracked = new HashMap<>();
+        Map<String, Integer> wordMap = termRepository.toWordMap(rebuildWordVector(username, untracked));
+        untracked.forEach((word, count) -> wordMap.merge(word, count, Integer::sum));
+        return wordMap;
+    }
+
+    /**
+     * Builds a user's word vector by summing the stored term vectors of their favorites and materializes it.
+     * Favorites saved before vectors existed are tokenized once here and their vector is stored; if that
+     * fails their words are counted into {@code untracked} instead and nothing is materialized. Nothing is
+     * materialized either for a name with no favorites: any name can be asked for, and an empty row would
+     * make it look like a user to everything that scans the stored maps.
+     *
+     * Reading the favorites and saving the sum happen under the connection's lock, the same one favorite
+     * writes hold while they change a row and apply its delta, so the saved map never misses or repeats one.
+     */
+    private TermVector rebuildWordVector(String username, Map<String, Integer> untracked) {
+        try {
+            return Transactions.inTransaction(connection, () -> sumWordVector(username, untracked));
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving word map: " + e.getMessage());
+            return TermVector.EMPTY;
+        }
+    }
+
+    private TermVector sumWordVector(String username, Map<String, Integer> untracked) throws SQLException {
+        String sql = "SELECT f.song_id, st.vector, CASE WHEN st.vector IS NULL THEN f.lyrics END AS lyrics " +
+                "FROM favorites f LEFT JOIN song_terms st ON st.song_id = f.song_id WHERE f.username = ?";
+        IntCountMap total = new IntCountMap(1024);
+        Map<String, String> missing = new HashMap<>();
+        boolean hasFavorites = false;
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, username);
-            stmt.setString(2, songId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                hasFavorites = true;
+                byte[] vector = rs.getBytes("vector");
+                if (vector != null) {
+                    total.addAll(TermVectorCodec.decode(vector));
+                } else {
+                    missing.put(rs.getString("song_id"), rs.getString("lyrics"));
+                }
+            }
+        }
+
+        for (Map.Entry<String, String> song : missing.entrySet()) {
+            Optional<TermVector> vector = termRepository.ensureSongVector(song.getKey(), song.getValue());
+            if (vector.isPresent()) {
+                total.addAll(vector.get());
+            } else {
+                LyricsTokenizer.countWords(song.getValue(), untracked);
+            }
+        }
+
+        TermVector wordVector = total.toTermVector();
+        if (hasFavorites && untracked.isEmpty()) {
+            wordMapRepository.save(username, wordVector);
+        }
+        return wordVector;
+    }
+
+    /**
+     * Materializes the word map of every user who has favorites but none stored yet, in bulk: songs without a
+     * vector are tokenized and per-user sums are taken on {@code pool}, while reads and writes stay batched on
+     * this thread. This runs while requests are served, so a map is only stored if, once the sums are done, its
+     * user still has no map and still has exactly the songs summed; users whose favorites changed meanwhile are
+     * left to the next read, which rebuilds from their current favorites. Returns the number of word maps stored.
+     */
+    public int rebuildMissingWordMaps(ForkJoinPool pool) {
+        String sql = "SELECT f.username, f.song_id, st.vector, CASE WHEN st.vector IS NULL THEN f.lyrics END AS lyrics " +
+                "FROM favorites f LEFT JOIN song_terms st ON st.song_id = f.song_id " +
+                "WHERE " + WITHOUT_WORD_MAP;
+        Map<String, List<String>> songsByUser = new LinkedHashMap<>();
+        Map<String, byte[]> stored = new HashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                String songId = rs.getString("song_id");
+                songsByUser.computeIfAbsent(rs.getString("username"), u -> new ArrayList<>()).add(songId);
+                byte[] vector = rs.getBytes("vector");
+                if (vector != null) {
+                    stored.putIfAbsent(songId, vector);
+                } else {
+                    missing.putIfAbsent(songId, rs.getString("lyrics"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading favorites for word map build: " + e.getMessage());
+            return 0;
+        }
+        if (songsByUser.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, TermVector> songVectors = new HashMap<>((stored.size() + missing.size()) * 2);
+        stored.forEach((songId, vector) -> songVectors.put(songId, TermVectorCodec.decode(vector)));
+        try {
+            songVectors.putAll(termRepository.saveCountedSongs(ParallelWordMaps.countSongs(missing, pool)));
+        } catch (SQLException e) {
+            System.err.println("❌ Error storing song vectors: " + e.getMessage());
+            return 0;
+        }
+
+        Map<String, List<TermVector>> vectorsByUser = new LinkedHashMap<>(songsByUser.size() * 2);
+        songsByUser.forEach((username, songIds) -> {
+            List<TermVector> vectors = new ArrayList<>(songIds.size());
+            for (String songId : songIds) {
+                vectors.add(songVectors.get(songId));
+            }
+            vectorsByUser.put(username, vectors);
+        });
+        Map<String, TermVector> wordMaps = ParallelWordMaps.sumByUser(vectorsByUser, pool);
+        try {
+            // checked and stored under the connection's lock, so no favorite can change in between
+            return Transactions.inTransaction(connection, () -> {
+                wordMaps.keySet().retainAll(stillWithoutWordMap(songsByUser));
+                wordMapRepository.saveAll(wordMaps);
+                return wordMaps.size();
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ Error storing built word maps: " + e.getMessage());
+            return 0;
+        }
+    }
 
-            int affectedRows = stmt.executeUpdate();
+    // the users in `songsByUser` who have no word map and whose favorites are still exactly those songs
+    private Set<String> stillWithoutWordMap(Map<String, List<String>> songsByUser) throws SQLException {
+        Map<String, Set<String>> current = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT f.username, f.song_id FROM favorites f WHERE " + WITHOUT_WORD_MAP)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                current.computeIfAbsent(rs.getString("username"), u -> new HashSet<>()).add(rs.getString("song_id"));
+            }
+        }
+        Set<String> unchanged = new HashSet<>();
+        songsByUser.forEach((username, songIds) -> {
+            if (new HashSet<>(songIds).equals(current.get(username))) {
+                unchanged.add(username);
+            }
+        });
+        return unchanged;
+    }
+
+    private void addToWordMap(String username, Optional<TermVector> songVector) {
+        if (songVector.isEmpty()) {
+            // can't apply an exact delta; the next read rebuilds from favorites
+            wordMapRepository.delete(username);
+        } else if (!wordMapRepository.applyDelta(username, songVector.get(), 1)) {
+            rebuildWordVector(username, new HashMap<>());
+        }
+    }
+
+    /**
+     * Removes a song from the user's favorite list.
+     */
+    public boolean removeFavorite(String username, String songId) {
+        String sql = "DELETE FROM favorites WHERE username = ? AND song_id = ?";
+
+        try {
+            // as in addFavorite, the row and the word map change together
+            int affectedRows = Transactions.inTransaction(connection, () -> {
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, username);
+                    stmt.setString(2, songId);
+                    int deleted = stmt.executeUpdate();
+                    if (deleted > 0) {
+                        Optional<TermVector> songVector = termRepository.findSongVector(songId);
+                        if (songVector.isEmpty() || !wordMapRepository.applyDelta(username, songVector.get(), -1)) {
+                            wordMapRepository.delete(username);
+                        }
+                    }
+                    return deleted;
+                }
+            });
             System.out.println("🔄 DELETE Query executed. Affected Rows: " + affectedRows);
 
             return affectedRows > 0;
@@ -108,50 +390,40 @@ public class FavoriteRepository {
      */
     public boolean swapRanks(String username, int rank1, int rank2) {
         try {
-            connection.setAutoCommit(false);
-
-            String tempUpdate = "UPDATE favorites SET rank = ? WHERE username = ? AND rank = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(tempUpdate)) {
-                stmt.setInt(1, -rank1);
-                stmt.setString(2, username);
-                stmt.setInt(3, rank1);
-                stmt.executeUpdate();
-            }
-
-            String updateRank2 = "UPDATE favorites SET rank = ? WHERE username = ? AND rank = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(updateRank2)) {
-                stmt.setInt(1, rank1);
-                stmt.setString(2, username);
-                stmt.setInt(3, rank2);
-                stmt.executeUpdate();
-            }
-
-            String updateTemp = "UPDATE favorites SET rank = ? WHERE username = ? AND rank = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(updateTemp)) {
-                stmt.setInt(1, rank2);
-                stmt.setString(2, username);
-                stmt.setInt(3, -rank1);
-                stmt.executeUpdate();
-            }
-
-            connection.commit();
+            Transactions.inTransaction(connection, () -> swapRanksInTransaction(username, rank1, rank2));
             return true;
         } catch (SQLException e) {
-            try {
-                connection.rollback();
-            } catch (SQLException ex) {
-                System.err.println("Rollback failed: " + ex.getMessage());
-            }
             System.err.println("Error swapping ranks: " + e.getMessage());
             return false;
-        } finally {
-            try {
-                connection.setAutoCommit(true);
-            } catch (SQLException e) {
-                System.err.println("Error resetting auto-commit: " + e.getMessage());
-            }
         }
     }
+
+    private void swapRanksInTransaction(String username, int rank1, int rank2) throws SQLException {
+        String tempUpdate = "UPDATE favorites SET rank = ? WHERE username = ? AND rank = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(tempUpdate)) {
+            stmt.setInt(1, -rank1);
+            stmt.setString(2, username);
+            stmt.setInt(3, rank1);
+            stmt.executeUpdate();
+        }
+
+        String updateRank2 = "UPDATE favorites SET rank = ? WHERE username = ? AND rank = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(updateRank2)) {
+            stmt.setInt(1, rank1);
+            stmt.setString(2, username);
+            stmt.setInt(3, rank2);
+            stmt.executeUpdate();
+        }
+
+        String updateTemp = "UPDATE favorites SET rank = ? WHERE username = ? AND rank = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(updateTemp)) {
+            stmt.setInt(1, rank2);
+            stmt.setString(2, username);
+            stmt.setInt(3, -rank1);
+            stmt.executeUpdate();
+        }
+    }
+
     public List<FavoriteSong> findByUsername(String hashedUsername) {
         String sql = "SELECT * FROM favorites WHERE username = ?";
         List<FavoriteSong> songs = new ArrayList<>();
@@ -176,22 +448,145 @@ public class FavoriteRepository {
         return songs;
     }
 
-    public List<String> findUsernamesBySongId(String songId) {
-        String sql = "SELECT username FROM favorites WHERE song_id = ?";
-        List<String> users = new ArrayList<>();
+    /**
+     * Raw usernames of the users who favorited each of {@code songIds}, other than {@code excluded} and users
+     * whose favorites are private, in username order; every requested song id is a key, with an empty list if
+     * nobody else (visibly) favorited it.
+     * One query for all the songs: favorites are joined to users, so no per-user lookup follows.
+     */
+    public Map<String, List<String>> findRawUsernamesBySongIds(Collection<String> songIds, String excluded) {
+        Map<String, List<String>> fans = new LinkedHashMap<>();
+        for (String songId : songIds) {
+            fans.put(songId, new ArrayList<>());
+        }
+        if (fans.isEmpty()) {
+            return fans;
+        }
+        String sql = "SELECT f.song_id, u.raw_username FROM favorites f " +
+                "JOIN users u ON u.raw_username = f.username " +
+                "WHERE f.song_id IN (" + String.join(", ", Collections.nCopies(fans.size(), "?")) + ") " +
+                "AND u.raw_username <> ? AND COALESCE(u.favorites_private, 0) = 0 " +
+                "ORDER BY f.song_id, u.raw_username";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (String songId : fans.keySet()) {
+                stmt.setString(index++, songId);
+            }
+            stmt.setString(index, excluded);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                fans.get(rs.getString("song_id")).add(rs.getString("raw_username"));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error getting usernames for songs: " + e.getMessage());
+        }
+        return fans;
+    }
 
+    /**
+     * Song ids of a user's favorites (raw username).
+     */
+    public List<String> findSongIds(String username) {
+        List<String> songIds = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT song_id FROM favorites WHERE username = ?")) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                songIds.add(rs.getString("song_id"));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error getting song ids: " + e.getMessage());
+        }
+        return songIds;
+    }
+
+    /**
+     * Visits (raw username, song id) for every favorite of a user who has not made their favorites private,
+     * grouped by username. Privacy is filtered in the query.
+     */
+    public void forEachPublicFavorite(BiConsumer<String, String> visitor) {
+        String sql = "SELECT f.username, f.song_id FROM favorites f " +
+                "JOIN users u ON u.raw_username = f.username " +
+                "WHERE COALESCE(u.favorites_private, 0) = 0 " +
+                "ORDER BY f.username";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, songId);
             ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                visitor.accept(rs.getString("username"), rs.getString("song_id"));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading public favorites: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Merges the favorites of {@code usernames} (raw) into songs ranked by how many of them favorited each,
+     * in one statement: the compared users' existence and privacy are read from users and reported as rows
+     * of their own next to the song groups. Private users contribute no songs, except the requester, who
+     * can always see their own.
+     */
+    public Comparison compareFavorites(String requester, List<String> usernames) {
+        if (usernames.isEmpty()) {
+            return new Comparison(List.of(), List.of(), List.of());
+        }
+        String placeholders = String.join(", ", Collections.nCopies(usernames.size(), "?"));
+        String sql = "WITH compared AS (SELECT DISTINCT raw_username, COALESCE(favorites_private, 0) AS private " +
+                "FROM users WHERE raw_username IN (" + placeholders + ")) " +
+                "SELECT raw_username AS username, private, NULL AS song_id, NULL AS title, NULL AS artist_name, " +
+                "NULL AS release_date, 0 AS fans FROM compared " +
+                "UNION ALL " +
+                "SELECT GROUP_CONCAT(f.username, char(31)), NULL, f.song_id, MAX(f.title), MAX(f.artist_name), " +
+                "MAX(f.release_date), COUNT(*) FROM favorites f JOIN compared c ON c.raw_username = f.username " +
+                "WHERE c.private = 0 OR f.username = ? " +
+                "GROUP BY f.song_id " +
+                "ORDER BY fans DESC, title, song_id";
+
+        List<ComparedSong> songs = new ArrayList<>();
+        Set<String> found = new HashSet<>();
+        List<String> privateUsers = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (String username : usernames) {
+                stmt.setString(index++, username);
+            }
+            stmt.setString(index, requester);
+            ResultSet rs = stmt.executeQuery();
+
+            int previousFans = -1;
+            int rank = 0;
             while (rs.next()) {
-                users.add(rs.getString("username"));
+                String songId = rs.getString("song_id");
+                if (songId == null) {
+                    String username = rs.getString("username");
+                    found.add(username);
+                    if (rs.getInt("private") != 0 && !username.equals(requester)) {
+                        privateUsers.add(username);
+                    }
+                    continue;
+                }
+                int fans = rs.getInt("fans");
+                if (fans != previousFans) {
+                    rank = songs.size() + 1;
+                    previousFans = fans;
+                }
+                List<String> users = new ArrayList<>(List.of(rs.getString("username").split("\u001f")));
+                Collections.sort(users);
+                songs.add(new ComparedSong(rank, songId, rs.getString("title"), rs.getString("artist_name"),
+                        rs.getString("release_date"), users));
             }
         } catch (SQLException e) {
-            System.err.println("❌ Error getting usernames for song: " + e.getMessage());
+            System.err.println("❌ Error comparing favorites: " + e.getMessage());
+            return new Comparison(List.of(), List.of(), List.of());
         }
 
-        return users;
+        List<String> missingUsers = new ArrayList<>();
+        for (String username : usernames) {
+            if (!found.contains(username)) {
+                missingUsers.add(username);
+            }
+        }
+        Collections.sort(privateUsers);
+        return new Comparison(songs, missingUsers, privateUsers);
     }
 
     /**
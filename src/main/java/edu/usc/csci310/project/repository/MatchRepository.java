@@ -0,0 +1,113 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.MatchRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Each user's current soulmate and enemy (user_matches), keyed by raw username.
+ * A missing row means "not computed yet"; rows are patched in place as other users' favorites change.
+ */
+@Repository
+public class MatchRepository {
+
+    private final Connection connection;
+
+    @Autowired
+    public MatchRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    public Optional<MatchRow> find(String username) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT username, soulmate, soulmate_score, enemy, enemy_score FROM user_matches WHERE username = ?")) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return Optional.of(read(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading matches: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    public Map<String, MatchRow> findAll() {
+        Map<String, MatchRow> rows = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT username, soulmate, soulmate_score, enemy, enemy_score FROM user_matches ORDER BY username")) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                MatchRow row = read(rs);
+                rows.put(row.getUsername(), row);
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading matches: " + e.getMessage());
+        }
+        return rows;
+    }
+
+    /**
+     * Saves rows in one transaction.
+     */
+    public void saveAll(Collection<MatchRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        write(rows, false);
+    }
+
+    /**
+     * Replaces every stored row with {@code rows} in one transaction, for full rebuilds.
+     */
+    public void replaceAll(Collection<MatchRow> rows) {
+        write(rows, true);
+    }
+
+    private void write(Collection<MatchRow> rows, boolean replace) {
+        try (PreparedStatement clear = connection.prepareStatement("DELETE FROM user_matches");
+             PreparedStatement stmt = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO user_matches (username, soulmate, soulmate_score, enemy, enemy_score) " +
+                             "VALUES (?, ?, ?, ?, ?)")) {
+            Transactions.inTransaction(connection, () -> {
+                if (replace) {
+                    clear.executeUpdate();
+                }
+                for (MatchRow row : rows) {
+                    stmt.setString(1, row.getUsername());
+                    stmt.setString(2, row.getSoulmate());
+                    stmt.setDouble(3, row.getSoulmateScore());
+                    stmt.setString(4, row.getEnemy());
+                    stmt.setDouble(5, row.getEnemyScore());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving matches: " + e.getMessage());
+        }
+    }
+
+    public void delete(String username) {
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM user_matches WHERE username = ?")) {
+            stmt.setString(1, username);
+            Transactions.update(connection, stmt::executeUpdate);
+        } catch (SQLException e) {
+            System.err.println("❌ Error deleting matches: " + e.getMessage());
+        }
+    }
+
+    private static MatchRow read(ResultSet rs) throws SQLException {
+        return new MatchRow(rs.getString("username"), rs.getString("soulmate"), rs.getDouble("soulmate_score"),
+                rs.getString("enemy"), rs.getDouble("enemy_score"));
+    }
+}
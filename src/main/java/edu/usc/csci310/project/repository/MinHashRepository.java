@@ -0,0 +1,164 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.MinHash;
+import edu.usc.csci310.project.util.TermVectorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MinHash signatures of users' word sets (user_minhash) and the LSH band buckets they fall into
+ * (minhash_buckets), maintained alongside the materialized word maps they are computed from.
+ */
+@Repository
+public class MinHashRepository {
+
+    private final Connection connection;
+
+    @Autowired
+    public MinHashRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    public Optional<int[]> findSignature(String username) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT signature FROM user_minhash WHERE username = ?")) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return Optional.of(MinHash.decode(rs.getBytes("signature")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading MinHash signature: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Public users with favorites, other than {@code excluded}, who share at least one band bucket with
+     * {@code signature}, in username order. The lookup goes through the (band, bucket) key, so its cost
+     * follows the number of colliding users rather than the number of users.
+     */
+    public List<String> findCandidates(String excluded, int[] signature) {
+        StringBuilder sql = new StringBuilder("SELECT DISTINCT u.raw_username FROM minhash_buckets b " +
+                "JOIN users u ON u.raw_username = b.username " +
+                "WHERE (");
+        for (int band = 0; band < MinHash.BANDS; band++) {
+            sql.append(band == 0 ? "" : " OR ").append("(b.band = ? AND b.bucket = ?)");
+        }
+        sql.append(") AND b.username <> ? AND COALESCE(u.favorites_private, 0) = 0 " +
+                "AND EXISTS (SELECT 1 FROM favorites f WHERE f.username = u.raw_username) " +
+                "ORDER BY u.raw_username");
+
+        List<String> candidates = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            long[] keys = MinHash.bandKeys(signature);
+            int index = 1;
+            for (int band = 0; band < MinHash.BANDS; band++) {
+                stmt.setInt(index++, band);
+                stmt.setLong(index++, keys[band]);
+            }
+            stmt.setString(index, excluded);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                candidates.add(rs.getString("raw_username"));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error finding LSH candidates: " + e.getMessage());
+        }
+        return candidates;
+    }
+
+    /**
+     * Recomputes the user's signature from their word map and moves them to its buckets.
+     * Users with an empty word set keep a signature but are left out of the buckets: they match nobody.
+     */
+    public void save(String username, TermVector vector) {
+        Map<String, TermVector> single = new LinkedHashMap<>();
+        single.put(username, vector);
+        saveAll(single);
+    }
+
+    /**
+     * Saves many signatures in one transaction, for bulk rebuilds.
+     */
+    public void saveAll(Map<String, TermVector> vectors) {
+        if (vectors.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement saveSignature = connection.prepareStatement(
+                "INSERT OR REPLACE INTO user_minhash (username, signature) VALUES (?, ?)");
+             PreparedStatement clearBuckets = connection.prepareStatement("DELETE FROM minhash_buckets WHERE username = ?");
+             PreparedStatement addBucket = connection.prepareStatement(
+                     "INSERT OR IGNORE INTO minhash_buckets (band, bucket, username) VALUES (?, ?, ?)")) {
+            Transactions.inTransaction(connection, () -> {
+                for (Map.Entry<String, TermVector> entry : vectors.entrySet()) {
+                    int[] signature = MinHash.signature(entry.getValue());
+                    saveSignature.setString(1, entry.getKey());
+                    saveSignature.setBytes(2, MinHash.encode(signature));
+                    saveSignature.addBatch();
+                    clearBuckets.setString(1, entry.getKey());
+                    clearBuckets.addBatch();
+                    if (!entry.getValue().isEmpty()) {
+                        long[] keys = MinHash.bandKeys(signature);
+                        for (int band = 0; band < keys.length; band++) {
+                            addBucket.setInt(1, band);
+                            addBucket.setLong(2, keys[band]);
+                            addBucket.setString(3, entry.getKey());
+                            addBucket.addBatch();
+                        }
+                    }
+                }
+                saveSignature.executeBatch();
+                clearBuckets.executeBatch();
+                addBucket.executeBatch();
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving MinHash signatures: " + e.getMessage());
+        }
+    }
+
+    public void delete(String username) {
+        try (PreparedStatement deleteSignature = connection.prepareStatement("DELETE FROM user_minhash WHERE username = ?");
+             PreparedStatement deleteBuckets = connection.prepareStatement("DELETE FROM minhash_buckets WHERE username = ?")) {
+            deleteSignature.setString(1, username);
+            deleteBuckets.setString(1, username);
+            Transactions.inTransaction(connection, () -> {
+                deleteSignature.executeUpdate();
+                deleteBuckets.executeUpdate();
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ Error deleting MinHash signature: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Signs every materialized word map that has no signature yet (maps stored before signatures existed).
+     * Returns how many were signed.
+     */
+    public int indexMissing() {
+        String sql = "SELECT uw.username, uw.vector FROM user_wordmaps uw " +
+                "WHERE NOT EXISTS (SELECT 1 FROM user_minhash m WHERE m.username = uw.username)";
+        Map<String, TermVector> unsigned = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                unsigned.put(rs.getString("username"), TermVectorCodec.decode(rs.getBytes("vector")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error finding unsigned word maps: " + e.getMessage());
+            return 0;
+        }
+        saveAll(unsigned);
+        return unsigned.size();
+    }
+}
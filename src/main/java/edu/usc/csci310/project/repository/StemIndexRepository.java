@@ -0,0 +1,174 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.SongOccurrence;
+import edu.usc.csci310.project.util.TermVectorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookups on the stem -> (song, count) inverted index kept in song_stems.
+ *
+ * Postings are per song, so they never change once written; a user's or a cloud's view of the index
+ * is a join against their current songs, which keeps it current as songs are added and removed.
+ */
+@Repository
+public class StemIndexRepository {
+
+    private final Connection connection;
+    private final TermRepository termRepository;
+
+    @Autowired
+    public StemIndexRepository(Connection connection, TermRepository termRepository) {
+        this.connection = connection;
+        this.termRepository = termRepository;
+    }
+
+    /**
+     * A user's favorite songs containing the stem, most occurrences first.
+     */
+    public List<SongOccurrence> findFavoriteSongs(String username, String stem) {
+        backfillFavorites(username);
+
+        String sql = "SELECT f.song_id, f.title, f.artist_name, ss.count FROM song_stems ss " +
+                "JOIN favorites f ON f.song_id = ss.song_id " +
+                "WHERE ss.stem_id = (SELECT id FROM terms WHERE term = ?) AND f.username = ? " +
+                "ORDER BY ss.count DESC, f.rank ASC";
+        List<SongOccurrence> songs = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, stem);
+            stmt.setString(2, username);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                songs.add(new SongOccurrence(rs.getString("song_id"), rs.getString("title"),
+                        rs.getString("artist_name"), rs.getInt("count")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading stem index: " + e.getMessage());
+        }
+        return songs;
+    }
+
+    /**
+     * Songs from the given set containing the stem, most occurrences first.
+     */
+    public List<SongOccurrence> findSongs(Collection<String> songIds, String stem) {
+        if (songIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(songIds.size(), "?"));
+        backfillSongs(songIds, placeholders);
+
+        String sql = "SELECT song_id, count FROM song_stems " +
+                "WHERE stem_id = (SELECT id FROM terms WHERE term = ?) AND song_id IN (" + placeholders + ") " +
+                "ORDER BY count DESC, song_id ASC";
+        List<SongOccurrence> songs = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, stem);
+            int i = 2;
+            for (String songId : songIds) {
+                stmt.setString(i++, songId);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                songs.add(new SongOccurrence(rs.getString("song_id"), null, null, rs.getInt("count")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading stem index: " + e.getMessage());
+        }
+        return songs;
+    }
+
+    /**
+     * Where the stem occurs in a song's lyrics, as flat [start, end) character ranges
+     * (start0, end0, start1, end1, ...) into the lyrics stored with the song's favorites.
+     */
+    public int[] findHighlightRanges(String songId, String stem) {
+        byte[] offsets = readOffsets(songId, stem);
+        if (offsets == null && !hasOffsets(songId)) {
+            backfillOffsets(songId);
+            offsets = readOffsets(songId, stem);
+        }
+        return TermVectorCodec.decodeRanges(offsets);
+    }
+
+    private byte[] readOffsets(String songId, String stem) {
+        String sql = "SELECT offsets FROM song_token_offsets " +
+                "WHERE song_id = ? AND stem_id = (SELECT id FROM terms WHERE term = ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, songId);
+            stmt.setString(2, stem);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getBytes("offsets") : null;
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading token offsets: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean hasOffsets(String songId) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT 1 FROM song_token_offsets WHERE song_id = ? LIMIT 1")) {
+            stmt.setString(1, songId);
+            return stmt.executeQuery().next();
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading token offsets: " + e.getMessage());
+            return true;
+        }
+    }
+
+    // songs ingested before offsets were recorded are tokenized once, from any stored copy of their lyrics
+    private void backfillOffsets(String songId) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT lyrics FROM favorites WHERE song_id = ? AND lyrics IS NOT NULL LIMIT 1")) {
+            stmt.setString(1, songId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                termRepository.indexTokenOffsets(songId, rs.getString("lyrics"));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error backfilling token offsets: " + e.getMessage());
+        }
+    }
+
+    // songs whose vectors were stored before the index existed get their postings on first lookup
+    private void backfillFavorites(String username) {
+        backfill("SELECT st.song_id, st.vector FROM favorites f JOIN song_terms st ON st.song_id = f.song_id " +
+                "WHERE f.username = ? AND NOT EXISTS (SELECT 1 FROM song_stems ss WHERE ss.song_id = f.song_id)",
+                List.of(username));
+    }
+
+    private void backfillSongs(Collection<String> songIds, String placeholders) {
+        backfill("SELECT st.song_id, st.vector FROM song_terms st WHERE st.song_id IN (" + placeholders + ") " +
+                "AND NOT EXISTS (SELECT 1 FROM song_stems ss WHERE ss.song_id = st.song_id)",
+                songIds);
+    }
+
+    private void backfill(String sql, Collection<String> params) {
+        Map<String, byte[]> missing = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int i = 1;
+            for (String param : params) {
+                stmt.setString(i++, param);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                missing.put(rs.getString("song_id"), rs.getBytes("vector"));
+            }
+            for (Map.Entry<String, byte[]> song : missing.entrySet()) {
+                termRepository.saveSongStems(song.getKey(), termRepository.stemVector(TermVectorCodec.decode(song.getValue())));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error backfilling stem index: " + e.getMessage());
+        }
+    }
+}
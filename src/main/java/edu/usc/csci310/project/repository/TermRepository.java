@@ -0,0 +1,419 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.IntCountMap;
+import edu.usc.csci310.project.util.LyricsTokenizer;
+import edu.usc.csci310.project.util.Stemmer;
+import edu.usc.csci310.project.util.TermVectorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global term dictionary (word <-> int id) and the per-song term-frequency vectors built from it.
+ * Lyrics are tokenized once, when a song is first favorited; everything else merges stored vectors.
+ * Stems live in the same dictionary, so a stem id is simply the term id of the stem string.
+ */
+@Repository
+public class TermRepository {
+
+    private final Connection connection;
+
+    // in-memory mirror of the terms table, loaded on first use
+    private final Map<String, Integer> termIds = new ConcurrentHashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private volatile boolean loaded;
+
+    // memoized term id -> stem id
+    private final Map<Integer, Integer> stemIds = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TermRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Returns the id of a term, assigning and persisting a new one the first time the term is seen.
+     */
+    public int idOf(String term) throws SQLException {
+        ensureLoaded();
+        Integer id = termIds.get(term);
+        if (id != null) {
+            return id;
+        }
+        registerTerms(List.of(term));
+        return termIds.get(term);
+    }
+
+    /**
+     * Assigns ids to any of the given terms that do not have one yet, in a single transaction.
+     */
+    public void registerTerms(Collection<String> candidates) throws SQLException {
+        ensureLoaded();
+        if (termIds.keySet().containsAll(candidates)) {
+            return;
+        }
+        // the connection's lock before the dictionary's, the same order as a caller inside a transaction
+        Transactions.inTransaction(connection, () -> {
+            synchronized (terms) {
+                Set<String> fresh = new LinkedHashSet<>();
+                for (String term : candidates) {
+                    if (!termIds.containsKey(term)) {
+                        fresh.add(term);
+                    }
+                }
+                if (fresh.isEmpty()) {
+                    return;
+                }
+
+                try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO terms (id, term) VALUES (?, ?)")) {
+                    int nextId = terms.size();
+                    for (String term : fresh) {
+                        stmt.setInt(1, nextId++);
+                        stmt.setString(2, term);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+
+                for (String term : fresh) {
+                    termIds.put(term, terms.size());
+                    terms.add(term);
+                }
+            }
+        });
+    }
+
+    public String termOf(int id) {
+        try {
+            ensureLoaded();
+        } catch (SQLException e) {
+            return null;
+        }
+        synchronized (terms) {
+            return id >= 0 && id < terms.size() ? terms.get(id) : null;
+        }
+    }
+
+    /**
+     * Tokenizes lyrics into a term vector, registering any new terms.
+     */
+    public TermVector vectorize(String lyrics) throws SQLException {
+        Map<String, Integer> words = new HashMap<>();
+        LyricsTokenizer.countWords(lyrics, words);
+        return vectorize(words);
+    }
+
+    private TermVector vectorize(Map<String, Integer> words) throws SQLException {
+        registerTerms(words.keySet());
+        IntCountMap counts = new IntCountMap(words.size());
+        for (Map.Entry<String, Integer> e : words.entrySet()) {
+            counts.add(termIds.get(e.getKey()), e.getValue());
+        }
+        return counts.toTermVector();
+    }
+
+    public Optional<TermVector> findSongVector(String songId) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT vector FROM song_terms WHERE song_id = ?")) {
+            stmt.setString(1, songId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return Optional.of(TermVectorCodec.decode(rs.getBytes("vector")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading song vector: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Sums the stored vectors of the given songs in one query; songs without a vector are skipped.
+     */
+    public TermVector sumSongVectors(Collection<String> songIds) {
+        if (songIds.isEmpty()) {
+            return TermVector.EMPTY;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(songIds.size(), "?"));
+        IntCountMap total = new IntCountMap(1024);
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT vector FROM song_terms WHERE song_id IN (" + placeholders + ")")) {
+            int i = 1;
+            for (String songId : songIds) {
+                stmt.setString(i++, songId);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                total.addAll(TermVectorCodec.decode(rs.getBytes("vector")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading song vectors: " + e.getMessage());
+        }
+        return total.toTermVector();
+    }
+
+    public void saveSongVector(String songId, TermVector vector) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO song_terms (song_id, vector) VALUES (?, ?)")) {
+            stmt.setString(1, songId);
+            stmt.setBytes(2, TermVectorCodec.encode(vector));
+            Transactions.update(connection, stmt::executeUpdate);
+        }
+    }
+
+    /**
+     * Stores vectors for songs whose words were already counted elsewhere (see ParallelWordMaps),
+     * registering all their words in one batch and writing the vectors in one transaction.
+     * Stem postings and offsets are left to the stem index's lazy backfill.
+     */
+    public Map<String, TermVector> saveCountedSongs(Map<String, Map<String, Integer>> wordsBySong) throws SQLException {
+        Set<String> vocabulary = new LinkedHashSet<>();
+        for (Map<String, Integer> words : wordsBySong.values()) {
+            vocabulary.addAll(words.keySet());
+        }
+        registerTerms(vocabulary);
+
+        Map<String, TermVector> vectors = new HashMap<>(wordsBySong.size() * 2);
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO song_terms (song_id, vector) VALUES (?, ?)")) {
+            for (Map.Entry<String, Map<String, Integer>> song : wordsBySong.entrySet()) {
+                TermVector vector = vectorize(song.getValue());
+                vectors.put(song.getKey(), vector);
+                stmt.setString(1, song.getKey());
+                stmt.setBytes(2, TermVectorCodec.encode(vector));
+                stmt.addBatch();
+            }
+            if (!vectors.isEmpty()) {
+                Transactions.inTransaction(connection, stmt::executeBatch);
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * Makes sure a song has a stored vector, tokenizing its lyrics only if it has none yet.
+     * Returns the song's vector, or empty if it could not be built or stored.
+     */
+    public Optional<TermVector> ensureSongVector(String songId, String lyrics) {
+        Optional<TermVector> existing = findSongVector(songId);
+        if (existing.isPresent()) {
+            return existing;
+        }
+        // one pass yields both the counts and where each word occurs
+        Map<String, Integer> words = new HashMap<>();
+        Map<String, Spans> spans = new HashMap<>();
+        LyricsTokenizer.tokenizeWithOffsets(lyrics, (token, start, end) -> {
+            words.merge(token, 1, Integer::sum);
+            spans.computeIfAbsent(token, t -> new Spans()).add(start, end);
+        });
+
+        TermVector vector;
+        try {
+            vector = vectorize(words);
+            saveSongVector(songId, vector);
+        } catch (SQLException e) {
+            System.err.println("❌ Error storing song vector: " + e.getMessage());
+            return Optional.empty();
+        }
+        try {
+            saveSongStems(songId, stemVector(vector));
+            saveTokenOffsets(songId, spans);
+        } catch (SQLException e) {
+            // the stem index backfills songs it is missing on lookup
+            System.err.println("❌ Error indexing song stems: " + e.getMessage());
+        }
+        return Optional.of(vector);
+    }
+
+    /**
+     * Returns the stem id of a term, stemming and registering the stem the first time the term is seen.
+     */
+    public int stemIdOf(int termId) throws SQLException {
+        Integer cached = stemIds.get(termId);
+        if (cached != null) {
+            return cached;
+        }
+        String term = termOf(termId);
+        int stemId = term == null ? termId : idOf(Stemmer.stem(term));
+        stemIds.put(termId, stemId);
+        return stemId;
+    }
+
+    /**
+     * Regroups a term vector by stem, e.g. "love" x2 and "loving" x1 become stem "love" x3.
+     */
+    public TermVector stemVector(TermVector vector) throws SQLException {
+        int[] ids = vector.getTermIds();
+        int[] counts = vector.getCounts();
+
+        List<String> stems = new ArrayList<>();
+        for (int id : ids) {
+            String term = stemIds.containsKey(id) ? null : termOf(id);
+            if (term != null) {
+                stems.add(Stemmer.stem(term));
+            }
+        }
+        registerTerms(stems);
+
+        IntCountMap stemCounts = new IntCountMap(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            stemCounts.add(stemIdOf(ids[i]), counts[i]);
+        }
+        return stemCounts.toTermVector();
+    }
+
+    /**
+     * Writes a song's postings into the stem index; existing postings are left as they are.
+     */
+    public void saveSongStems(String songId, TermVector stems) throws SQLException {
+        if (stems.isEmpty()) {
+            return;
+        }
+        int[] ids = stems.getTermIds();
+        int[] counts = stems.getCounts();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO song_stems (song_id, stem_id, count) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < ids.length; i++) {
+                stmt.setString(1, songId);
+                stmt.setInt(2, ids[i]);
+                stmt.setInt(3, counts[i]);
+                stmt.addBatch();
+            }
+            Transactions.inTransaction(connection, stmt::executeBatch);
+        }
+    }
+
+    /**
+     * Tokenizes lyrics and stores where each stem occurs in them, for highlighting.
+     * Used for songs whose vector was stored before offsets were recorded.
+     */
+    public void indexTokenOffsets(String songId, String lyrics) throws SQLException {
+        Map<String, Spans> spans = new HashMap<>();
+        LyricsTokenizer.tokenizeWithOffsets(lyrics, (token, start, end) ->
+                spans.computeIfAbsent(token, t -> new Spans()).add(start, end));
+        saveTokenOffsets(songId, spans);
+    }
+
+    private void saveTokenOffsets(String songId, Map<String, Spans> spans) throws SQLException {
+        if (spans.isEmpty()) {
+            return;
+        }
+        registerTerms(spans.keySet());
+        List<String> stems = new ArrayList<>(spans.size());
+        for (String word : spans.keySet()) {
+            stems.add(Stemmer.stem(word));
+        }
+        registerTerms(stems);
+
+        Map<Integer, Spans> byStem = new HashMap<>();
+        for (Map.Entry<String, Spans> entry : spans.entrySet()) {
+            byStem.computeIfAbsent(stemIdOf(termIds.get(entry.getKey())), id -> new Spans()).addAll(entry.getValue());
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO song_token_offsets (song_id, stem_id, offsets) VALUES (?, ?, ?)")) {
+            for (Map.Entry<Integer, Spans> entry : byStem.entrySet()) {
+                stmt.setString(1, songId);
+                stmt.setInt(2, entry.getKey());
+                stmt.setBytes(3, TermVectorCodec.encodeRanges(entry.getValue().sorted()));
+                stmt.addBatch();
+            }
+            Transactions.inTransaction(connection, stmt::executeBatch);
+        }
+    }
+
+    /**
+     * Expands a vector back into the word -> count map the API returns.
+     */
+    public Map<String, Integer> toWordMap(TermVector vector) {
+        int[] ids = vector.getTermIds();
+        int[] counts = vector.getCounts();
+        Map<String, Integer> wordMap = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            String term = termOf(ids[i]);
+            if (term != null) {
+                wordMap.put(term, counts[i]);
+            }
+        }
+        return wordMap;
+    }
+
+    private void ensureLoaded() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        synchronized (terms) {
+            if (loaded) {
+                return;
+            }
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT id, term FROM terms ORDER BY id");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    String term = rs.getString("term");
+                    while (terms.size() < id) {
+                        terms.add(null);
+                    }
+                    terms.add(term);
+                    termIds.put(term, id);
+                }
+            } catch (SQLException e) {
+                // a partial dictionary would hand out ids the table already has; the next call starts over
+                terms.clear();
+                termIds.clear();
+                System.err.println("❌ Error loading term dictionary: " + e.getMessage());
+                throw e;
+            }
+            loaded = true;
+        }
+    }
+
+    // growable list of [start, end) token spans
+    private static final class Spans {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int start, int end) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = start;
+            data[size++] = end;
+        }
+
+        void addAll(Spans other) {
+            for (int i = 0; i < other.size; i += 2) {
+                add(other.data[i], other.data[i + 1]);
+            }
+        }
+
+        // spans of different words under one stem interleave, so order them by start
+        int[] sorted() {
+            long[] packed = new long[size / 2];
+            for (int i = 0; i < size; i += 2) {
+                packed[i / 2] = ((long) data[i] << 32) | data[i + 1];
+            }
+            Arrays.sort(packed);
+            int[] ranges = new int[size];
+            for (int i = 0; i < packed.length; i++) {
+                ranges[2 * i] = (int) (packed[i] >>> 32);
+                ranges[2 * i + 1] = (int) packed[i];
+            }
+            return ranges;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package edu.usc.csci310.project.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Writes on the connection every repository shares. Auto-commit belongs to the connection, not to a thread,
+ * so a statement run while another thread has a transaction open becomes part of it, and is committed or
+ * rolled back with it. Every write therefore holds the connection's lock: a transaction from start to end,
+ * a single statement ({@link #update}) while it runs. A transaction started inside another on the same
+ * thread joins it.
+ *
+ * This is the only lock repositories take around the database. Anything else they lock (the term dictionary)
+ * is taken after it, never before, so a repository call made inside a transaction cannot deadlock.
+ */
+final class Transactions {
+
+    interface Work {
+        void run() throws SQLException;
+    }
+
+    interface Query<T> {
+        T run() throws SQLException;
+    }
+
+    interface Update {
+        int run() throws SQLException;
+    }
+
+    private Transactions() {
+    }
+
+    static void inTransaction(Connection connection, Work work) throws SQLException {
+        inTransaction(connection, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    static <T> T inTransaction(Connection connection, Query<T> work) throws SQLException {
+        synchronized (connection) {
+            if (!connection.getAutoCommit()) {
+                return work.run();
+            }
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run();
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollback) {
+                    e.addSuppressed(rollback);
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    // a single auto-committed statement; returns its update count
+    static int update(Connection connection, Update update) throws SQLException {
+        synchronized (connection) {
+            return update.run();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package edu.usc.csci310.project.repository;
 
 import edu.usc.csci310.project.model.User;
+import edu.usc.csci310.project.util.UsernameCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Repository;
@@ -22,12 +23,45 @@ import static edu.usc.csci310.project.util.HashUtil.hashUsername;
 @Repository
 public class UserRepository {
 
+    private static final int MAX_CACHED_USERNAMES = 10_000;
+
     private final Connection connection;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
-    @Autowired
+    // raw <-> hashed for users seen at registration, login or a lookup, so most conversions skip SQLite
+    private final UsernameCache usernames;
+
+    // owners of what is derived from a user's favorites and cloud, dropped with the account
+    private final WordMapRepository wordMapRepository;
+    private final MatchRepository matchRepository;
+    private final WordCloudRepository wordCloudRepository;
+
     public UserRepository(Connection connection) {
+        this(connection, new UsernameCache(MAX_CACHED_USERNAMES));
+    }
+
+    public UserRepository(Connection connection, UsernameCache usernames) {
+        this(connection, usernames, new WordMapRepository(connection, new MinHashRepository(connection)),
+                new MatchRepository(connection), new WordCloudRepository(connection, new TermRepository(connection)));
+    }
+
+    @Autowired
+    public UserRepository(Connection connection, WordMapRepository wordMapRepository, MatchRepository matchRepository,
+                          WordCloudRepository wordCloudRepository) {
+        this(connection, new UsernameCache(MAX_CACHED_USERNAMES), wordMapRepository, matchRepository, wordCloudRepository);
+    }
+
+    public UserRepository(Connection connection, UsernameCache usernames, WordMapRepository wordMapRepository,
+                          MatchRepository matchRepository, WordCloudRepository wordCloudRepository) {
         this.connection = connection;
+        this.usernames = usernames;
+        this.wordMapRepository = wordMapRepository;
+        this.matchRepository = matchRepository;
+        this.wordCloudRepository = wordCloudRepository;
+    }
+
+    private String hashed(String username) {
+        return usernames.hashedOf(username).orElseGet(() -> hashUsername(username));
     }
 
 
@@ -35,7 +69,7 @@ public class UserRepository {
      * Registers a new user with an encrypted username and hashed password.
      */
     public boolean registerUser(String username, String password) {
-        String hashedUsername = hashUsername(username);
+        String hashedUsername = hashed(username);
 
         String sql = "INSERT INTO users (username, raw_username, password) VALUES (?, ?, ?)";
 
@@ -43,7 +77,8 @@ public class UserRepository {
             stmt.setString(1, hashedUsername);
             stmt.setString(2, username); // raw
             stmt.setString(3, password);
-            stmt.executeUpdate();
+            Transactions.update(connection, stmt::executeUpdate);
+            usernames.put(username, hashedUsername);
             return true;
         } catch (SQLException e) {
             System.err.println("❌ Error registering user: " + e.getMessage());
@@ -53,7 +88,7 @@ public class UserRepository {
 
 
     public Optional<String> getUserPassword(String username) {
-        String hashedUsername = hashUsername(username);
+        String hashedUsername = hashed(username);
         String sql = "SELECT password FROM users WHERE username = ?";
 
         PreparedStatement stmt = null;
@@ -92,7 +127,7 @@ public class UserRepository {
      * Checks if a user exists using the hashed username.
      */
     public boolean existsByUsername(String username) {
-        String hashedUsername = hashUsername(username);
+        String hashedUsername = hashed(username); // always asks the table: registration must not trust the cache
         String sql = "SELECT 1 FROM users WHERE username = ?";
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -109,7 +144,7 @@ public class UserRepository {
      * Deletes a user by their username (using hashed username for lookup)
      */
     public boolean deleteByUsername(String username) {
-        String hashedUsername = hashUsername(username);
+        String hashedUsername = hashed(username);
         String sql = "DELETE FROM users WHERE username = ?";
 
 
@@ -117,7 +152,15 @@ public class UserRepository {
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, hashedUsername);
-            int rowsAffected = stmt.executeUpdate();
+            // the account and everything computed for it go together
+            int rowsAffected = Transactions.inTransaction(connection, () -> {
+                int deleted = stmt.executeUpdate();
+                if (deleted > 0) {
+                    deleteDerived(username);
+                }
+                return deleted;
+            });
+            usernames.remove(username);
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("❌ Error deleting user: " + e.getMessage());
@@ -125,8 +168,15 @@ public class UserRepository {
         }
     }
 
+    // all keyed by the raw username, like favorites
+    private void deleteDerived(String username) {
+        wordMapRepository.delete(username); // with its vocabulary and MinHash signature
+        matchRepository.delete(username);
+        wordCloudRepository.deleteVector(username);
+    }
+
     public Optional<User> findByUsername(String username) {
-        String hashedUsername = hashUsername(username);
+        String hashedUsername = hashed(username);
         String sql = "SELECT * FROM users WHERE username = ?";
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -142,6 +192,7 @@ public class UserRepository {
                 boolean locked = rs.getBoolean("account_locked");
                 java.sql.Timestamp lockTimeStamp = rs.getTimestamp("lock_time");
                 LocalDateTime lockTime = lockTimeStamp != null ? lockTimeStamp.toLocalDateTime() : null;
+                usernames.put(username, hashedUsername); // a login goes through here
 
                 return Optional.of(new User(hashedUsername, password, attempts, locked, lockTime));
             }
@@ -177,7 +228,7 @@ public class UserRepository {
             }
             stmt.setString(5, user.getUsername());
 
-            int updated = stmt.executeUpdate();
+            int updated = Transactions.update(connection, stmt::executeUpdate);
             return updated > 0;
         } catch (SQLException e) {
             System.err.println("❌ Error updating user: " + e.getMessage());
@@ -202,6 +253,10 @@ public class UserRepository {
     }
 
     public Optional<String> getHashedUsernameFromRaw(String rawUsername) {
+        Optional<String> cached = usernames.hashedOf(rawUsername);
+        if (cached.isPresent()) {
+            return cached;
+        }
         String sql = "SELECT username FROM users WHERE raw_username = ?";
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -211,7 +266,9 @@ public class UserRepository {
             stmt.setString(1, rawUsername);
             rs = stmt.executeQuery();
             if (rs.next()) {
-                return Optional.of(rs.getString("username"));
+                String hashedUsername = rs.getString("username");
+                usernames.put(rawUsername, hashedUsername);
+                return Optional.of(hashedUsername);
             }
         } catch (SQLException e) {
             System.err.println("❌ Error mapping raw to hashed username: " + e.getMessage());
@@ -233,6 +290,10 @@ public class UserRepository {
 
 
     public Optional<String> getRawUsernameFromHashed(String hashedUsername) {
+        Optional<String> cached = usernames.rawOf(hashedUsername);
+        if (cached.isPresent()) {
+            return cached;
+        }
         String sql = "SELECT raw_username FROM users WHERE username = ?";
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -242,7 +303,9 @@ public class UserRepository {
             stmt.setString(1, hashedUsername);
             rs = stmt.executeQuery();
             if (rs.next()) {
-                return Optional.of(rs.getString("raw_username"));
+                String rawUsername = rs.getString("raw_username");
+                usernames.put(rawUsername, hashedUsername);
+                return Optional.of(rawUsername);
             }
         } catch (SQLException e) {
             System.err.println("❌ Error getting raw username: " + e.getMessage());
@@ -262,7 +325,7 @@ public class UserRepository {
         return Optional.empty();
     }
     public boolean isFavoritesPrivate(String username) {
-        String hashedUsername = hashUsername(username);
+        String hashedUsername = hashed(username);
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT favorites_private FROM users WHERE username = ?")) {
             stmt.setString(1, hashedUsername); // ✅ Use hashed username
@@ -275,12 +338,12 @@ public class UserRepository {
 
 
     public void updateFavoritesPrivacy(String username, boolean isPrivate) {
-        String hashedUsername = hashUsername(username); // ✅ Add this
+        String hashedUsername = hashed(username); // ✅ Add this
         try (PreparedStatement stmt = connection.prepareStatement(
                 "UPDATE users SET favorites_private = ? WHERE username = ?")) {
             stmt.setBoolean(1, isPrivate);
             stmt.setString(2, hashedUsername); // ✅ Use hashed
-            stmt.executeUpdate();
+            Transactions.update(connection, stmt::executeUpdate);
         } catch (SQLException e) {
             throw new RuntimeException("Error updating privacy setting", e);
         }
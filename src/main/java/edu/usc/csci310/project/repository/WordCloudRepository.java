@@ -0,0 +1,228 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.IntCountMap;
+import edu.usc.csci310.project.util.TermVectorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The songs a user has put in their word cloud, and the cloud's aggregate term vector
+ * (the sum of those songs' vectors) kept in wordcloud_vectors and updated by delta.
+ * A missing aggregate row means "not materialized yet", not "empty".
+ */
+@Repository
+public class WordCloudRepository {
+
+    private final Connection connection;
+    private final TermRepository termRepository;
+
+    @Autowired
+    public WordCloudRepository(Connection connection, TermRepository termRepository) {
+        this.connection = connection;
+        this.termRepository = termRepository;
+    }
+
+    /**
+     * Adds a song to the user's cloud. Returns false if it was already there or could not be stored.
+     */
+    public boolean addSong(String username, String songId, String title, String url, String imageUrl, String releaseDate, String artistName, String lyrics) {
+        String sql = "INSERT OR IGNORE INTO wordcloud (username, song_id, title, url, image_url, release_date, artist_name, lyrics) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            stmt.setString(2, songId);
+            stmt.setString(3, title);
+            stmt.setString(4, url);
+            stmt.setString(5, imageUrl);
+            stmt.setString(6, releaseDate);
+            stmt.setString(7, artistName);
+            stmt.setString(8, lyrics);
+            if (Transactions.update(connection, stmt::executeUpdate) == 0) {
+                return false;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error adding to word cloud: " + e.getMessage());
+            return false;
+        }
+
+        Optional<TermVector> songVector = termRepository.ensureSongVector(songId, lyrics); // ✅ shared with favorites
+        if (songVector.isEmpty()) {
+            deleteVector(username);
+        } else if (!applyDelta(username, songVector.get(), 1)) {
+            rebuildVector(username);
+        }
+        return true;
+    }
+
+    /**
+     * The songs in a user's cloud, in the order they were added (rank 1 first).
+     */
+    public List<FavoriteSong> getSongs(String username) {
+        List<FavoriteSong> songs = new ArrayList<>();
+        String sql = "SELECT song_id, title, url, image_url, release_date, artist_name, lyrics FROM wordcloud " +
+                "WHERE username = ? ORDER BY id ASC";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                songs.add(new FavoriteSong(username, rs.getString("song_id"), rs.getString("title"),
+                        rs.getString("url"), rs.getString("image_url"), rs.getString("release_date"),
+                        rs.getString("artist_name"), rs.getString("lyrics"), songs.size() + 1));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving word cloud: " + e.getMessage());
+        }
+        return songs;
+    }
+
+    /**
+     * Removes a song from the user's cloud.
+     */
+    public boolean removeSong(String username, String songId) {
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM wordcloud WHERE username = ? AND song_id = ?")) {
+            stmt.setString(1, username);
+            stmt.setString(2, songId);
+            if (Transactions.update(connection, stmt::executeUpdate) == 0) {
+                return false;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error removing from word cloud: " + e.getMessage());
+            return false;
+        }
+
+        Optional<TermVector> songVector = termRepository.findSongVector(songId);
+        if (songVector.isEmpty() || !applyDelta(username, songVector.get(), -1)) {
+            deleteVector(username);
+        }
+        return true;
+    }
+
+    /**
+     * Empties the user's cloud. Returns the number of songs removed.
+     */
+    public int clear(String username) {
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM wordcloud WHERE username = ?")) {
+            stmt.setString(1, username);
+            int removed = Transactions.update(connection, stmt::executeUpdate);
+            deleteVector(username);
+            return removed;
+        } catch (SQLException e) {
+            System.err.println("❌ Error clearing word cloud: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * The cloud's aggregate term vector, rebuilt from its songs and materialized if it is missing.
+     */
+    public TermVector getCloudVector(String username) {
+        Optional<TermVector> stored = findVector(username);
+        return stored.isPresent() ? stored.get() : rebuildVector(username);
+    }
+
+    private TermVector rebuildVector(String username) {
+        String sql = "SELECT w.song_id, st.vector, CASE WHEN st.vector IS NULL THEN w.lyrics END AS lyrics " +
+                "FROM wordcloud w LEFT JOIN song_terms st ON st.song_id = w.song_id WHERE w.username = ?";
+        IntCountMap total = new IntCountMap(1024);
+        Map<String, String> missing = new LinkedHashMap<>();
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                byte[] vector = rs.getBytes("vector");
+                if (vector != null) {
+                    total.addAll(TermVectorCodec.decode(vector));
+                } else {
+                    missing.put(rs.getString("song_id"), rs.getString("lyrics"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error rebuilding word cloud vector: " + e.getMessage());
+            return TermVector.EMPTY;
+        }
+
+        boolean complete = true;
+        for (Map.Entry<String, String> song : missing.entrySet()) {
+            Optional<TermVector> vector = termRepository.ensureSongVector(song.getKey(), song.getValue());
+            if (vector.isPresent()) {
+                total.addAll(vector.get());
+            } else {
+                complete = false;
+            }
+        }
+
+        TermVector cloudVector = total.toTermVector();
+        if (complete) {
+            saveVector(username, cloudVector);
+        }
+        return cloudVector;
+    }
+
+    private Optional<TermVector> findVector(String username) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT vector FROM wordcloud_vectors WHERE username = ?")) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return Optional.of(TermVectorCodec.decode(rs.getBytes("vector")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading word cloud vector: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private void saveVector(String username, TermVector vector) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR REPLACE INTO wordcloud_vectors (username, vector) VALUES (?, ?)")) {
+            stmt.setString(1, username);
+            stmt.setBytes(2, TermVectorCodec.encode(vector));
+            Transactions.update(connection, stmt::executeUpdate);
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving word cloud vector: " + e.getMessage());
+        }
+    }
+
+    // false when there is no materialized vector to update; the next read rebuilds it
+    private boolean applyDelta(String username, TermVector delta, int sign) {
+        try {
+            return Transactions.inTransaction(connection, () -> {
+                Optional<TermVector> current = findVector(username);
+                if (current.isEmpty()) {
+                    return false;
+                }
+                saveVector(username, sign > 0 ? current.get().plus(delta) : current.get().minus(delta));
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ Error updating word cloud vector: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Drops the cloud's materialized vector; the next read rebuilds it from the cloud's songs.
+     */
+    public void deleteVector(String username) {
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM wordcloud_vectors WHERE username = ?")) {
+            stmt.setString(1, username);
+            Transactions.update(connection, stmt::executeUpdate);
+        } catch (SQLException e) {
+            System.err.println("❌ Error deleting word cloud vector: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.TermBitmaps;
+import edu.usc.csci310.project.util.TermVectorCodec;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Materialized per-user word maps: the sum of the term vectors of a user's favorites,
+ * kept up to date by delta as favorites are added and removed, and each map's vocabulary (its distinct
+ * term ids) as a Roaring bitmap in user_vocabularies for exact Jaccard without decoding the counts.
+ * A missing row means "not materialized yet", not "empty".
+ * Every write also re-signs the user in MinHashRepository, so the LSH index follows their words.
+ */
+@Repository
+public class WordMapRepository {
+
+    private final Connection connection;
+    private final MinHashRepository minHashRepository;
+
+    @Autowired
+    public WordMapRepository(Connection connection, MinHashRepository minHashRepository) {
+        this.connection = connection;
+        this.minHashRepository = minHashRepository;
+    }
+
+    public Optional<TermVector> find(String username) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT vector FROM user_wordmaps WHERE username = ?")) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return Optional.of(TermVectorCodec.decode(rs.getBytes("vector")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading word map: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    public Optional<RoaringBitmap> findVocabulary(String username) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT bitmap FROM user_vocabularies WHERE username = ?")) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return Optional.of(TermBitmaps.decode(rs.getBytes("bitmap")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading vocabulary: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Visits the vocabulary of every user with favorites who has not made them private, except {@code excluded},
+     * in username order. Privacy is filtered in the query, so private vocabularies never leave the database.
+     * Users whose word map is not materialized yet are visited with a null bitmap.
+     */
+    public void forEachPublicVocabulary(String excluded, BiConsumer<String, RoaringBitmap> visitor) {
+        readPublicVocabularies("AND u.raw_username <> ? ", excluded, visitor);
+    }
+
+    /**
+     * Like {@link #forEachPublicVocabulary(String, BiConsumer)} with nobody excluded, for scoring everyone in one pass.
+     */
+    public void forEachPublicVocabulary(BiConsumer<String, RoaringBitmap> visitor) {
+        readPublicVocabularies("", null, visitor);
+    }
+
+    private void readPublicVocabularies(String exclusion, String excluded, BiConsumer<String, RoaringBitmap> visitor) {
+        String sql = "SELECT u.raw_username, uv.bitmap FROM users u " +
+                "LEFT JOIN user_vocabularies uv ON uv.username = u.raw_username " +
+                "WHERE COALESCE(u.favorites_private, 0) = 0 " + exclusion +
+                "AND EXISTS (SELECT 1 FROM favorites f WHERE f.username = u.raw_username) " +
+                "ORDER BY u.raw_username";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            if (excluded != null) {
+                stmt.setString(1, excluded);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                byte[] bitmap = rs.getBytes("bitmap");
+                visitor.accept(rs.getString("raw_username"), bitmap == null ? null : TermBitmaps.decode(bitmap));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading public vocabularies: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Visits the word map of every user with favorites who has not made them private, except {@code excluded},
+     * in username order, with the same privacy filtering as {@link #forEachPublicVocabulary}.
+     * Users whose map is not materialized yet are visited with a null vector.
+     */
+    public void forEachPublicWordMap(String excluded, BiConsumer<String, TermVector> visitor) {
+        String sql = "SELECT u.raw_username, uw.vector FROM users u " +
+                "LEFT JOIN user_wordmaps uw ON uw.username = u.raw_username " +
+                "WHERE COALESCE(u.favorites_private, 0) = 0 AND u.raw_username <> ? " +
+                "AND EXISTS (SELECT 1 FROM favorites f WHERE f.username = u.raw_username) " +
+                "ORDER BY u.raw_username";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, excluded);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                byte[] vector = rs.getBytes("vector");
+                visitor.accept(rs.getString("raw_username"), vector == null ? null : TermVectorCodec.decode(vector));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading public word maps: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Visits every stored vocabulary of a registered user, private or not. For server-side bookkeeping only.
+     */
+    public void forEachVocabulary(BiConsumer<String, RoaringBitmap> visitor) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT uv.username, uv.bitmap FROM user_vocabularies uv " +
+                "JOIN users u ON u.raw_username = uv.username")) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                visitor.accept(rs.getString("username"), TermBitmaps.decode(rs.getBytes("bitmap")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error reading vocabularies: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the user is one forEachPublicVocabulary would visit: registered, public, and with favorites.
+     */
+    public boolean isPublicWithFavorites(String username) {
+        String sql = "SELECT 1 FROM users u WHERE u.raw_username = ? AND COALESCE(u.favorites_private, 0) = 0 " +
+                "AND EXISTS (SELECT 1 FROM favorites f WHERE f.username = u.raw_username)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            return stmt.executeQuery().next();
+        } catch (SQLException e) {
+            System.err.println("❌ Error checking match visibility: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void save(String username, TermVector vector) {
+        saveAll(Map.of(username, vector));
+    }
+
+    /**
+     * Saves word maps and their vocabulary bitmaps in one transaction; many at once for bulk rebuilds.
+     */
+    public void saveAll(Map<String, TermVector> vectors) {
+        if (vectors.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement saveMap = connection.prepareStatement(
+                "INSERT OR REPLACE INTO user_wordmaps (username, vector) VALUES (?, ?)");
+             PreparedStatement saveVocabulary = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO user_vocabularies (username, bitmap) VALUES (?, ?)")) {
+            Transactions.inTransaction(connection, () -> {
+                for (Map.Entry<String, TermVector> entry : vectors.entrySet()) {
+                    saveMap.setString(1, entry.getKey());
+                    saveMap.setBytes(2, TermVectorCodec.encode(entry.getValue()));
+                    saveMap.addBatch();
+                    saveVocabulary.setString(1, entry.getKey());
+                    saveVocabulary.setBytes(2, TermBitmaps.encode(TermBitmaps.of(entry.getValue())));
+                    saveVocabulary.addBatch();
+                }
+                saveMap.executeBatch();
+                saveVocabulary.executeBatch();
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving word maps: " + e.getMessage());
+            return;
+        }
+        minHashRepository.saveAll(vectors);
+    }
+
+    /**
+     * Stores the vocabulary bitmap of every word map saved before bitmaps existed. Returns how many were stored.
+     */
+    public int indexMissingVocabularies() {
+        String sql = "SELECT uw.username, uw.vector FROM user_wordmaps uw " +
+                "WHERE NOT EXISTS (SELECT 1 FROM user_vocabularies uv WHERE uv.username = uw.username)";
+        Map<String, RoaringBitmap> missing = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                missing.put(rs.getString("username"), TermBitmaps.of(TermVectorCodec.decode(rs.getBytes("vector"))));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error finding word maps without vocabularies: " + e.getMessage());
+            return 0;
+        }
+        // a map saved since the scan already stored its own, newer bitmap
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO user_vocabularies (username, bitmap) VALUES (?, ?)")) {
+            for (Map.Entry<String, RoaringBitmap> entry : missing.entrySet()) {
+                stmt.setString(1, entry.getKey());
+                stmt.setBytes(2, TermBitmaps.encode(entry.getValue()));
+                stmt.addBatch();
+            }
+            Transactions.inTransaction(connection, stmt::executeBatch);
+        } catch (SQLException e) {
+            System.err.println("❌ Error saving vocabularies: " + e.getMessage());
+            return 0;
+        }
+        return missing.size();
+    }
+
+    /**
+     * Adds (sign = 1) or subtracts (sign = -1) a song vector from a materialized word map.
+     * Returns false when the user has no materialized word map to update.
+     */
+    public boolean applyDelta(String username, TermVector delta, int sign) {
+        try {
+            return Transactions.inTransaction(connection, () -> {
+                Optional<TermVector> current = find(username);
+                if (current.isEmpty()) {
+                    return false;
+                }
+                save(username, sign > 0 ? current.get().plus(delta) : current.get().minus(delta));
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ Error updating word map: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void delete(String username) {
+        try (PreparedStatement deleteMap = connection.prepareStatement("DELETE FROM user_wordmaps WHERE username = ?");
+             PreparedStatement deleteVocabulary = connection.prepareStatement("DELETE FROM user_vocabularies WHERE username = ?")) {
+            deleteMap.setString(1, username);
+            deleteVocabulary.setString(1, username);
+            Transactions.inTransaction(connection, () -> {
+                deleteMap.executeUpdate();
+                deleteVocabulary.executeUpdate();
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ Error deleting word map: " + e.getMessage());
+        }
+        // a stale signature would keep matching on words the user no longer has
+        minHashRepository.delete(username);
+    }
+}
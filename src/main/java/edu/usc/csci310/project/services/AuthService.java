@@ -1,7 +1,10 @@
 package edu.usc.csci310.project.services;
 
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
 import edu.usc.csci310.project.model.User;
 import edu.usc.csci310.project.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -12,13 +15,20 @@ import java.util.Optional;
 @Service
 public class AuthService {
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     private static final int MAX_FAILED_ATTEMPTS = 3;
     private static final int LOCK_DURATION_SECONDS = 30;
 
     public AuthService(UserRepository userRepository) {
+        this(userRepository, event -> { });
+    }
+
+    @Autowired
+    public AuthService(UserRepository userRepository, ApplicationEventPublisher events) {
         this.userRepository = userRepository;
+        this.events = events;
     }
 
     public String registerUser(String username, String password) {
@@ -92,6 +102,7 @@ public class AuthService {
             boolean deleted = userRepository.deleteByUsername(username);
             if (deleted) {
                 System.out.println("✅ User deleted successfully: " + username);
+                events.publishEvent(new FavoritesChangedEvent(username));
                 return true;
             } else {
                 System.err.println("❌ User not found for deletion: " + username);
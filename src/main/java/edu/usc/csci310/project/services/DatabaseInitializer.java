@@ -55,6 +55,8 @@ public class DatabaseInitializer {
                     "rank INTEGER NOT NULL, " +
                     "UNIQUE (username, song_id))";
             stmt.executeUpdate(createFavoritesTableSQL);
+            // song -> fans lookups (mutual friends, song overlap) instead of a full scan
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_favorites_song_id ON favorites (song_id)");
             System.out.println("✅ Favorites table created or already exists.");
 
             //stmt.executeUpdate("DROP TABLE IF EXISTS wordcloud");
@@ -72,8 +74,58 @@ public class DatabaseInitializer {
                     "lyrics TEXT, " +
                     "UNIQUE (username, song_id))";
             stmt.executeUpdate(createWordCloudTableSQL);
+            // Aggregate term vector of each user's word cloud, maintained by delta like user_wordmaps
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS wordcloud_vectors (" +
+                    "username TEXT PRIMARY KEY, " +
+                    "vector BLOB NOT NULL)");
             System.out.println("✅ Word Cloud table created or already exists.");
 
+            // Global term dictionary and per-song term-frequency vectors (varint BLOBs)
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS terms (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "term TEXT UNIQUE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS song_terms (" +
+                    "song_id TEXT PRIMARY KEY, " +
+                    "vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS user_wordmaps (" +
+                    "username TEXT PRIMARY KEY, " +
+                    "vector BLOB NOT NULL)");
+            // Distinct term ids of each user's word map as a serialized Roaring bitmap
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS user_vocabularies (" +
+                    "username TEXT PRIMARY KEY, " +
+                    "bitmap BLOB NOT NULL)");
+            // Inverted index: stem (a term id) -> songs containing it, with occurrence counts
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS song_stems (" +
+                    "song_id TEXT NOT NULL, " +
+                    "stem_id INTEGER NOT NULL, " +
+                    "count INTEGER NOT NULL, " +
+                    "PRIMARY KEY (song_id, stem_id))");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_song_stems_stem ON song_stems (stem_id, count)");
+            // Where each stem occurs in a song's lyrics, as varint-encoded [start, end) ranges
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS song_token_offsets (" +
+                    "song_id TEXT NOT NULL, " +
+                    "stem_id INTEGER NOT NULL, " +
+                    "offsets BLOB NOT NULL, " +
+                    "PRIMARY KEY (song_id, stem_id))");
+            // MinHash signature of each user's word set, and the LSH band buckets it hashes to
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS user_minhash (" +
+                    "username TEXT PRIMARY KEY, " +
+                    "signature BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS minhash_buckets (" +
+                    "band INTEGER NOT NULL, " +
+                    "bucket INTEGER NOT NULL, " +
+                    "username TEXT NOT NULL, " +
+                    "PRIMARY KEY (band, bucket, username))");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_minhash_buckets_username ON minhash_buckets (username)");
+            // Each user's current soulmate and enemy, patched as other users' favorites change
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS user_matches (" +
+                    "username TEXT PRIMARY KEY, " +
+                    "soulmate TEXT, " +
+                    "soulmate_score REAL NOT NULL, " +
+                    "enemy TEXT, " +
+                    "enemy_score REAL NOT NULL)");
+            System.out.println("✅ Term vector tables created or already exist.");
+
         } catch (SQLException e) {
             System.err.println("❌ Database initialization error: " + e.getMessage());
             throw new RuntimeException("Error initializing the database", e);
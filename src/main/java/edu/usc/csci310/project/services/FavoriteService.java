@@ -1,27 +1,46 @@
 package edu.usc.csci310.project.services;
 
+import edu.usc.csci310.project.model.Comparison;
 import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
+import edu.usc.csci310.project.model.TermVector;
 import edu.usc.csci310.project.repository.FavoriteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class FavoriteService {
 
     private final FavoriteRepository favoriteRepository;
+    private final ApplicationEventPublisher events;
 
-    @Autowired
     public FavoriteService(FavoriteRepository favoriteRepository) {
+        this(favoriteRepository, event -> { });
+    }
+
+    @Autowired
+    public FavoriteService(FavoriteRepository favoriteRepository, ApplicationEventPublisher events) {
         this.favoriteRepository = favoriteRepository;
+        this.events = events;
     }
 
     /**
      * Adds a song to the user's favorites.
      */
     public boolean addFavorite(String username, String songId, String title, String url, String imageUrl, String releaseDate, String artistName, String lyrics) {
-        return favoriteRepository.addFavorite(username, songId, title, url, imageUrl, releaseDate, artistName, lyrics);
+        boolean added = favoriteRepository.addFavorite(username, songId, title, url, imageUrl, releaseDate, artistName, lyrics);
+        if (added) {
+            events.publishEvent(new FavoritesChangedEvent(username));
+        }
+        return added;
     }
 
     /**
@@ -31,11 +50,40 @@ public class FavoriteService {
         return favoriteRepository.getFavorites(username);
     }
 
+    /**
+     * Word -> count map over all of a user's favorites.
+     */
+    public Map<String, Integer> getWordMap(String username) {
+        return favoriteRepository.getWordMap(username);
+    }
+
+    /**
+     * The same word map keyed by global term id.
+     */
+    public TermVector getWordVector(String username) {
+        return favoriteRepository.getWordVector(username);
+    }
+
     /**
      * Removes a song from a user's favorites.
      */
     public boolean removeFavorite(String username, String songId) {
-        return favoriteRepository.removeFavorite(username, songId);
+        boolean removed = favoriteRepository.removeFavorite(username, songId);
+        if (removed) {
+            events.publishEvent(new FavoritesChangedEvent(username));
+        }
+        return removed;
+    }
+
+    /**
+     * The requester's favorites merged with those of {@code usernames} and ranked by how many of them
+     * favorited each song. Duplicates and the requester's own name are dropped from {@code usernames}.
+     */
+    public Comparison compare(String requester, List<String> usernames) {
+        Set<String> compared = new LinkedHashSet<>();
+        compared.add(requester);
+        compared.addAll(usernames);
+        return favoriteRepository.compareFavorites(requester, new ArrayList<>(compared));
     }
 
     public boolean swapRanks(String username, int rank1, int rank2) {
@@ -46,5 +94,12 @@ public class FavoriteService {
         return favoriteRepository.getAllUsersWithFavorites();
     }
 
+    /**
+     * Visits each user's favorites and word map in username order, one user at a time.
+     */
+    public void forEachUserWordMap(String after, Integer limit, FavoriteRepository.UserWordMapVisitor visitor) throws IOException {
+        favoriteRepository.forEachUserWordMap(after, limit, visitor);
+    }
+
 
 }
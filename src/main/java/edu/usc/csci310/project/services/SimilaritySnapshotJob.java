@@ -0,0 +1,49 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.model.SimilaritySnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the soulmate snapshot off the request path: incrementally on a fixed delay (only when favorites
+ * changed), and from scratch on a cron schedule. Both run on the scheduler thread, one at a time.
+ */
+@Component
+public class SimilaritySnapshotJob {
+
+    private final SoulmateService soulmateService;
+    private final boolean enabled;
+
+    @Autowired
+    public SimilaritySnapshotJob(SoulmateService soulmateService,
+                                 @Value("${soulmate.snapshot.enabled:true}") boolean enabled) {
+        this.soulmateService = soulmateService;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(initialDelayString = "${soulmate.snapshot.initial-delay-ms:60000}",
+            fixedDelayString = "${soulmate.snapshot.interval-ms:60000}")
+    public void rebuildIncremental() {
+        if (enabled) {
+            rebuild(false);
+        }
+    }
+
+    @Scheduled(cron = "${soulmate.snapshot.full-cron:0 0 4 * * *}")
+    public void rebuildFull() {
+        if (enabled) {
+            rebuild(true);
+        }
+    }
+
+    private void rebuild(boolean full) {
+        long before = soulmateService.snapshotBuiltAt();
+        SimilaritySnapshot snapshot = soulmateService.rebuildSnapshot(full);
+        if (snapshot.getBuiltAt() != before) {
+            System.out.println("✅ Rebuilt soulmate snapshot (" + (full ? "full" : "incremental") + ") for "
+                    + snapshot.size() + " users in " + snapshot.getBuildMillis() + " ms");
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.repository.FavoriteRepository;
+import edu.usc.csci310.project.repository.WordMapRepository;
+import edu.usc.csci310.project.util.IntCountMap;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory inverted index from song id to the public users who favorited it, as Roaring bitmaps of user ids.
+ *
+ * Similarity here is Jaccard over favorited song sets. Scoring a user walks the bitmaps of their own songs
+ * only, so it touches exactly the users who share at least one song with them; everybody else scores 0
+ * without being looked at. Built from the favorites table on first use and kept current from
+ * {@link FavoritesChangedEvent}s (adds, removes, privacy changes and deleted accounts all publish one).
+ */
+@Component
+public class SongOverlapIndex {
+
+    private static final int[] NO_SONGS = new int[0];
+
+    private final FavoriteRepository favoriteRepository;
+    private final WordMapRepository wordMapRepository;
+
+    private final Map<String, Integer> songIds = new HashMap<>();
+    private final List<RoaringBitmap> listeners = new ArrayList<>();   // song id -> user ids
+    private final Map<String, Integer> userIds = new HashMap<>();
+    private final List<String> usernames = new ArrayList<>();          // user id -> username
+    private final List<int[]> songsOf = new ArrayList<>();             // user id -> song ids, empty unless public
+    private final TreeSet<String> publicUsers = new TreeSet<>();
+    private boolean built;
+
+    @Autowired
+    public SongOverlapIndex(FavoriteRepository favoriteRepository, WordMapRepository wordMapRepository) {
+        this.favoriteRepository = favoriteRepository;
+        this.wordMapRepository = wordMapRepository;
+    }
+
+    @EventListener
+    public synchronized void onFavoritesChanged(FavoritesChangedEvent event) {
+        // before the first build there is nothing to patch; the build reads the current favorites
+        if (built) {
+            String username = event.getUsername();
+            index(username, wordMapRepository.isPublicWithFavorites(username)
+                    ? favoriteRepository.findSongIds(username) : List.of());
+        }
+    }
+
+    /**
+     * Song-set Jaccard between {@code username} and every public user sharing at least one song with them,
+     * themselves excluded. Works for private users too: their own songs are read from the favorites table.
+     */
+    public synchronized Map<String, Double> similarities(String username) {
+        ensureBuilt();
+        int[] mine = songsOf(username);
+        IntCountMap shared = new IntCountMap(64);
+        for (int song : mine) {
+            if (song >= 0) {
+                listeners.get(song).forEach((int user) -> shared.add(user, 1));
+            }
+        }
+
+        Integer self = userIds.get(username);
+        TermVector counts = shared.toTermVector();
+        int[] users = counts.getTermIds();
+        int[] sharedSongs = counts.getCounts();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (int i = 0; i < users.length; i++) {
+            if (self == null || users[i] != self) {
+                int union = mine.length + songsOf.get(users[i]).length - sharedSongs[i];
+                scores.put(usernames.get(users[i]), sharedSongs[i] / (double) union);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * The alphabetically first public user not in {@code excluded}, or null. Stops at the first hit, so it
+     * looks at no more than {@code excluded.size() + 1} names.
+     */
+    public synchronized String firstPublicUserNotIn(Set<String> excluded) {
+        ensureBuilt();
+        for (String username : publicUsers) {
+            if (!excluded.contains(username)) {
+                return username;
+            }
+        }
+        return null;
+    }
+
+    public synchronized int publicUserCount() {
+        ensureBuilt();
+        return publicUsers.size();
+    }
+
+    public synchronized boolean isPublic(String username) {
+        ensureBuilt();
+        return publicUsers.contains(username);
+    }
+
+    // public users in username order
+    public synchronized List<String> publicUsers() {
+        ensureBuilt();
+        return new ArrayList<>(publicUsers);
+    }
+
+    private int[] songsOf(String username) {
+        Integer user = userIds.get(username);
+        if (user != null && publicUsers.contains(username)) {
+            return songsOf.get(user);
+        }
+        // not indexed (private): songs no public user has are -1, they only count towards the union
+        List<String> songs = favoriteRepository.findSongIds(username);
+        int[] ids = new int[songs.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = songIds.getOrDefault(songs.get(i), -1);
+        }
+        return ids;
+    }
+
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        Map<String, List<String>> favorites = new LinkedHashMap<>();
+        favoriteRepository.forEachPublicFavorite((username, songId) ->
+                favorites.computeIfAbsent(username, u -> new ArrayList<>()).add(songId));
+        favorites.forEach(this::index);
+        built = true;
+    }
+
+    private void index(String username, List<String> songs) {
+        Integer user = userIds.get(username);
+        if (user == null) {
+            user = usernames.size();
+            userIds.put(username, user);
+            usernames.add(username);
+            songsOf.add(NO_SONGS);
+        }
+        for (int song : songsOf.get(user)) {
+            listeners.get(song).remove(user);
+        }
+
+        int[] ids = new int[songs.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = songId(songs.get(i));
+            listeners.get(ids[i]).add(user);
+        }
+        songsOf.set(user, ids);
+        if (ids.length > 0) {
+            publicUsers.add(username);
+        } else {
+            publicUsers.remove(username);
+        }
+    }
+
+    private int songId(String songId) {
+        Integer id = songIds.get(songId);
+        if (id == null) {
+            id = listeners.size();
+            songIds.put(songId, id);
+            listeners.add(new RoaringBitmap());
+        }
+        return id;
+    }
+}
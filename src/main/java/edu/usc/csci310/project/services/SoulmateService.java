@@ -0,0 +1,703 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
+import edu.usc.csci310.project.model.LyricalMatch;
+import edu.usc.csci310.project.model.MatchPage;
+import edu.usc.csci310.project.model.MatchRow;
+import edu.usc.csci310.project.model.RankedMatch;
+import edu.usc.csci310.project.model.SimilarityMetric;
+import edu.usc.csci310.project.model.SimilaritySnapshot;
+import edu.usc.csci310.project.model.SoulmateResult;
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.model.WeightedTermVector;
+import edu.usc.csci310.project.repository.MatchRepository;
+import edu.usc.csci310.project.repository.MinHashRepository;
+import edu.usc.csci310.project.repository.UserRepository;
+import edu.usc.csci310.project.repository.WordMapRepository;
+import edu.usc.csci310.project.util.LruCache;
+import edu.usc.csci310.project.util.MinHash;
+import edu.usc.csci310.project.util.TermBitmaps;
+import edu.usc.csci310.project.util.TfIdfWeighting;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Finds a user's lyrical soulmate and enemy on the server: the public users whose word sets are the most
+ * and the least similar (Jaccard over distinct words) to theirs. Only the two matches leave the server.
+ * Every exact score is computed on vocabulary bitmaps (see {@link TermBitmaps}).
+ *
+ * Each user's best and worst match is materialized in user_matches and kept current as favorites change
+ * (see {@link #refresh}), so a lookup, mutual flags included, does not rescan anybody. Changes are not applied
+ * on the request path: they are queued and folded in by a background job ({@link #rebuildSnapshot}), which
+ * publishes the rows as an immutable {@link SimilaritySnapshot} that lookups read without locking.
+ */
+@Service
+public class SoulmateService {
+
+    private static final int MAX_CACHED_RANKINGS = 32;
+
+    // best first; ties go to the alphabetically first username, as for the soulmate and enemy
+    private static final Comparator<Scored> MOST_SIMILAR =
+            Comparator.comparingDouble((Scored scored) -> scored.score).reversed().thenComparing(scored -> scored.username);
+    private static final Comparator<Scored> LEAST_SIMILAR =
+            Comparator.comparingDouble((Scored scored) -> scored.score).thenComparing(scored -> scored.username);
+
+    private final FavoriteService favoriteService;
+    private final WordMapRepository wordMapRepository;
+    private final MinHashRepository minHashRepository;
+    private final MatchRepository matchRepository;
+    private final SongOverlapIndex songIndex;
+    private final UserRepository userRepository;
+    private volatile TfIdfWeighting weighting;
+
+    // bumped on every favorites change: anyone's change can move anyone else's ranking
+    private final AtomicLong favoritesVersion = new AtomicLong();
+
+    // published by the background job; replaced whole, never modified
+    private final AtomicReference<SimilaritySnapshot> snapshot = new AtomicReference<>(SimilaritySnapshot.EMPTY);
+
+    // users whose favorites changed since the last build -> when they first did (epoch millis)
+    private final Map<String, Long> pendingChanges = new ConcurrentHashMap<>();
+
+    // users no longer shown to others (gone private, out of favorites or deleted) -> favorites version when they
+    // were; until a build reflects that, rows naming them are recomputed on read instead of served from the snapshot
+    private final Map<String, Long> withdrawn = new ConcurrentHashMap<>();
+
+    // users read before any build covered them; computed on the request path, stored by the next build
+    private final Set<String> uncovered = ConcurrentHashMap.newKeySet();
+
+    // "version/metric/username" -> every candidate's score; a change bumps the version, so entries never go stale
+    // (a scan that overlaps a change is stored under the version it started from and is never served again)
+    private final LruCache<String, Scored[]> rankings = new LruCache<>(MAX_CACHED_RANKINGS);
+
+    @Autowired
+    public SoulmateService(FavoriteService favoriteService, WordMapRepository wordMapRepository,
+                           MinHashRepository minHashRepository, MatchRepository matchRepository,
+                           SongOverlapIndex songIndex, UserRepository userRepository) {
+        this.favoriteService = favoriteService;
+        this.wordMapRepository = wordMapRepository;
+        this.minHashRepository = minHashRepository;
+        this.matchRepository = matchRepository;
+        this.songIndex = songIndex;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Whether {@code username} has an account. Nothing is computed or stored for names that do not:
+     * the API takes any name, and a stored row would turn it into a user for every later scan.
+     */
+    public boolean isKnownUser(String username) {
+        return userRepository.getHashedUsernameFromRaw(username).isPresent();
+    }
+
+    /**
+     * Empty when there is no other public user with favorites to compare against.
+     * Ties go to the alphabetically first username.
+     * Reads the materialized rows, so once they exist this is three map lookups: the soulmate is mutual
+     * unless someone is closer to them than the requester is (their own best score is higher), and the enemy
+     * likewise unless someone is farther from them. Rows come from the current snapshot, without locking,
+     * except rows naming a user who has gone private or been deleted since it was built, which are rescanned;
+     * users it does not cover yet are read from user_matches, or computed without storing and left for the
+     * next build, so a read never waits on one.
+     */
+    public Optional<SoulmateResult> findMatches(String username) {
+        if (!isKnownUser(username)) {
+            return Optional.empty();
+        }
+        SimilaritySnapshot current = snapshot.get();
+        MatchRow mine = rowOf(current, username);
+        if (mine.isEmpty()) {
+            return Optional.empty();
+        }
+        MatchRow soulmates = rowOf(current, mine.getSoulmate());
+        MatchRow enemies = rowOf(current, mine.getEnemy());
+        boolean soulmateMutual = soulmates.isEmpty() || soulmates.getSoulmateScore() <= mine.getSoulmateScore();
+        boolean enemyMutual = enemies.isEmpty() || enemies.getEnemyScore() >= mine.getEnemyScore();
+
+        return Optional.of(new SoulmateResult(
+                new LyricalMatch(mine.getSoulmate(), mine.getSoulmateScore(), soulmateMutual),
+                new LyricalMatch(mine.getEnemy(), mine.getEnemyScore(), enemyMutual)));
+    }
+
+    public Optional<SoulmateResult> findMatches(String username, SimilarityMetric metric) {
+        if (!isKnownUser(username)) {
+            return Optional.empty();
+        }
+        return switch (metric) {
+            case JACCARD -> findMatches(username);
+            case COSINE -> findCosineMatches(username);
+            case SONGS -> findSongMatches(username);
+        };
+    }
+
+    /**
+     * Soulmate and enemy by cosine of TF-IDF weighted word maps, scanned on request (the materialized rows are
+     * Jaccard). The requester's vector is scattered into a dense array once and each candidate is scored by a
+     * gather over its own ids; the mutual checks do the same from the soulmate's and enemy's side in one more pass.
+     */
+    private Optional<SoulmateResult> findCosineMatches(String username) {
+        TfIdfWeighting weights = weighting();
+        float[] mine = weights.weigh(favoriteService.getWordVector(username)).toDense();
+        Candidate<WeightedTermVector> soulmate = new Candidate<>();
+        Candidate<WeightedTermVector> enemy = new Candidate<>();
+
+        forEachWeightedCandidate(username, weights, (other, vector) -> {
+            double score = vector.dot(mine);
+            if (soulmate.username == null || score > soulmate.score
+                    || (score == soulmate.score && other.compareTo(soulmate.username) < 0)) {
+                soulmate.set(other, vector, score);
+            }
+            if (enemy.username == null || score < enemy.score
+                    || (score == enemy.score && other.compareTo(enemy.username) < 0)) {
+                enemy.set(other, vector, score);
+            }
+        });
+        if (soulmate.username == null) {
+            return Optional.empty();
+        }
+
+        // cosine is symmetric too, so the same rule as for the rows: mutual unless someone is closer (farther)
+        float[] soulmates = soulmate.value.toDense();
+        float[] enemies = enemy.value.toDense();
+        boolean[] mutual = {true, true};
+        forEachWeightedCandidate(username, weights, (other, vector) -> {
+            if (!other.equals(soulmate.username) && vector.dot(soulmates) > soulmate.score) {
+                mutual[0] = false;
+            }
+            if (!other.equals(enemy.username) && vector.dot(enemies) < enemy.score) {
+                mutual[1] = false;
+            }
+        });
+
+        return Optional.of(new SoulmateResult(
+                new LyricalMatch(soulmate.username, soulmate.score, mutual[0]),
+                new LyricalMatch(enemy.username, enemy.score, mutual[1])));
+    }
+
+    /**
+     * One page of the requester's ranking of every public user, most or least similar first. The first page
+     * scores everybody once and caches the scores for the current favorites version; each page, the first
+     * included, is then picked with a heap of {@code limit} entries, so deep lists are never sorted whole.
+     * The cursor is the last (score, username) seen, so pages stay consistent if the ranking changes between
+     * requests: nobody is shown twice, though users who moved ahead of the cursor are not shown.
+     *
+     * @throws IllegalArgumentException if {@code after} is not a cursor this method returned
+     */
+    public MatchPage rank(String username, SimilarityMetric metric, boolean mostSimilar, String after, int limit) {
+        Comparator<Scored> order = mostSimilar ? MOST_SIMILAR : LEAST_SIMILAR;
+        Scored cursor = after == null ? null : decodeCursor(after);
+        if (!isKnownUser(username)) {
+            return new MatchPage(List.of(), null);
+        }
+
+        // worst of the current page sits at the head
+        PriorityQueue<Scored> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        int skipped = 0;
+        int remaining = 0;
+        for (Scored scored : scoresOf(username, metric)) {
+            if (cursor != null && order.compare(scored, cursor) <= 0) {
+                skipped++;
+                continue;
+            }
+            remaining++;
+            if (heap.size() < limit) {
+                heap.add(scored);
+            } else if (order.compare(scored, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(scored);
+            }
+        }
+
+        List<Scored> page = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            page.add(heap.poll());
+        }
+        Collections.reverse(page);
+        List<RankedMatch> matches = new ArrayList<>(page.size());
+        for (Scored scored : page) {
+            matches.add(new RankedMatch(skipped + matches.size() + 1, scored.username, scored.score));
+        }
+        String next = remaining > limit ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new MatchPage(matches, next);
+    }
+
+    private Scored[] scoresOf(String username, SimilarityMetric metric) {
+        String key = favoritesVersion.get() + "/" + metric + "/" + username;
+        Scored[] scores = rankings.get(key);
+        if (scores == null) {
+            List<Scored> scored = new ArrayList<>();
+            if (metric == SimilarityMetric.COSINE) {
+                TfIdfWeighting weights = weighting();
+                float[] mine = weights.weigh(favoriteService.getWordVector(username)).toDense();
+                forEachWeightedCandidate(username, weights, (other, vector) -> scored.add(new Scored(other, vector.dot(mine))));
+            } else if (metric == SimilarityMetric.SONGS) {
+                Map<String, Double> shared = songIndex.similarities(username);
+                for (String other : songIndex.publicUsers()) {
+                    if (!other.equals(username)) {
+                        scored.add(new Scored(other, shared.getOrDefault(other, 0.0)));
+                    }
+                }
+            } else {
+                RoaringBitmap mine = TermBitmaps.of(favoriteService.getWordVector(username));
+                forEachCandidate(username, (other, vocabulary) ->
+                        scored.add(new Scored(other, TermBitmaps.jaccard(mine, vocabulary))));
+            }
+            scores = scored.toArray(new Scored[0]);
+            rankings.put(key, scores);
+        }
+        return scores;
+    }
+
+    // opaque to clients: the exact bits of the score and the username, base64url
+    static String encodeCursor(Scored scored) {
+        String cursor = Long.toHexString(Double.doubleToLongBits(scored.score)) + ":" + scored.username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Scored decodeCursor(String cursor) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int colon = decoded.indexOf(':');
+        if (colon < 1) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return new Scored(decoded.substring(colon + 1),
+                Double.longBitsToDouble(Long.parseUnsignedLong(decoded.substring(0, colon), 16)));
+    }
+
+    /**
+     * Soulmate and enemy by overlap of favorited song sets, from {@link SongOverlapIndex}: only users who share
+     * a song with the requester (and, for the mutual flags, with the soulmate or enemy) are scored. Everybody
+     * else is at 0, so the enemy is the first of them by name, and so is the soulmate when nobody shares a song.
+     */
+    private Optional<SoulmateResult> findSongMatches(String username) {
+        Map<String, Double> mine = songIndex.similarities(username);
+        Candidate<Void> soulmate = new Candidate<>();
+        Candidate<Void> enemy = new Candidate<>();
+        mine.forEach((other, score) -> {
+            if (soulmate.username == null || score > soulmate.score
+                    || (score == soulmate.score && other.compareTo(soulmate.username) < 0)) {
+                soulmate.set(other, null, score);
+            }
+            if (enemy.username == null || score < enemy.score
+                    || (score == enemy.score && other.compareTo(enemy.username) < 0)) {
+                enemy.set(other, null, score);
+            }
+        });
+        // every score in `mine` is positive; anyone outside it scores 0
+        Set<String> scored = new HashSet<>(mine.keySet());
+        scored.add(username);
+        String unshared = songIndex.firstPublicUserNotIn(scored);
+        if (unshared != null) {
+            enemy.set(unshared, null, 0);
+            if (soulmate.username == null) {
+                soulmate.set(unshared, null, 0);
+            }
+        }
+        if (soulmate.username == null) {
+            return Optional.empty();
+        }
+
+        boolean soulmateMutual = true;
+        for (Map.Entry<String, Double> theirs : songIndex.similarities(soulmate.username).entrySet()) {
+            if (!theirs.getKey().equals(username) && theirs.getValue() > soulmate.score) {
+                soulmateMutual = false;
+                break;
+            }
+        }
+        boolean enemyMutual = enemy.score == 0 || isFarthestFrom(enemy.username, username, enemy.score);
+
+        return Optional.of(new SoulmateResult(
+                new LyricalMatch(soulmate.username, soulmate.score, soulmateMutual),
+                new LyricalMatch(enemy.username, enemy.score, enemyMutual)));
+    }
+
+    // nobody but `username` scores below `score` against `enemy`, counting the users who share no song with them
+    private boolean isFarthestFrom(String enemy, String username, double score) {
+        Map<String, Double> theirs = songIndex.similarities(enemy);
+        int others = songIndex.publicUserCount() - 1 - (songIndex.isPublic(username) ? 1 : 0);
+        int sharing = theirs.size() - (theirs.containsKey(username) ? 1 : 0);
+        if (others > sharing) {
+            return false;
+        }
+        for (Map.Entry<String, Double> entry : theirs.entrySet()) {
+            if (!entry.getKey().equals(username) && entry.getValue() < score) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // queued for the next snapshot build rather than applied here, so a favorite change never waits on a rescan;
+    // only a user leaving everyone else's results takes effect at once (see rowOf)
+    @EventListener
+    public void onFavoritesChanged(FavoritesChangedEvent event) {
+        String username = event.getUsername();
+        // queued before the version moves, so a build that has seen this version has drained the change too
+        pendingChanges.putIfAbsent(username, System.currentTimeMillis());
+        long version = favoritesVersion.incrementAndGet();
+        weighting = null;
+        if (wordMapRepository.isPublicWithFavorites(username)) {
+            withdrawn.remove(username);
+        } else {
+            withdrawn.put(username, version);
+        }
+    }
+
+    /**
+     * Builds a complete snapshot of every stored user's soulmate and enemy and publishes it with one reference
+     * swap. Incremental: users whose favorites changed since the last build are folded into the stored rows
+     * ({@link #refresh}) and users without a row get one, including those read since the last build; with none
+     * of either and a snapshot already published this does nothing. Full: every row is recomputed from scratch, which also repairs any drift in the stored rows.
+     * Scoring many users reads every public vocabulary into memory once rather than once per user.
+     */
+    public synchronized SimilaritySnapshot rebuildSnapshot(boolean full) {
+        long start = System.nanoTime();
+        long version = favoritesVersion.get();
+        List<String> changed = new ArrayList<>();
+        for (String username : pendingChanges.keySet()) {
+            if (pendingChanges.remove(username) != null) {
+                changed.add(username);
+            }
+        }
+        List<String> requested = new ArrayList<>();
+        for (String username : uncovered) {
+            if (uncovered.remove(username)) {
+                requested.add(username);
+            }
+        }
+        if (!full && changed.isEmpty() && requested.isEmpty() && snapshot.get().isBuilt()) {
+            return snapshot.get();
+        }
+
+        // everyone with a stored word map, private users included: they can ask for their own matches
+        Map<String, RoaringBitmap> vocabularies = new LinkedHashMap<>();
+        wordMapRepository.forEachVocabulary(vocabularies::put);
+        for (String username : requested) {
+            if (!vocabularies.containsKey(username)) {
+                vocabularies.put(username, vocabulary(username));
+            }
+        }
+
+        Map<String, MatchRow> rows;
+        if (full) {
+            rows = computeAll(vocabularies);
+            matchRepository.replaceAll(rows.values());
+        } else {
+            for (String username : changed) {
+                refresh(username);
+            }
+            rows = matchRepository.findAll();
+            Map<String, RoaringBitmap> missing = new LinkedHashMap<>(vocabularies);
+            missing.keySet().removeAll(rows.keySet());
+            Map<String, MatchRow> added = computeAll(missing);
+            matchRepository.saveAll(added.values());
+            rows.putAll(added);
+        }
+
+        SimilaritySnapshot built = new SimilaritySnapshot(rows, full, System.currentTimeMillis(),
+                (System.nanoTime() - start) / 1_000_000);
+        snapshot.set(built);
+        withdrawn.values().removeIf(since -> since <= version);
+        return built;
+    }
+
+    public long snapshotBuiltAt() {
+        return snapshot.get().getBuiltAt();
+    }
+
+    /**
+     * How current the published snapshot is: when and how it was built, how long that took, and how many
+     * favorite changes it does not reflect yet, the oldest of them {@code stalenessMillis} ago.
+     */
+    public Map<String, Object> snapshotStats() {
+        SimilaritySnapshot current = snapshot.get();
+        long now = System.currentTimeMillis();
+        long oldestChange = pendingChanges.values().stream().mapToLong(Long::longValue).min().orElse(now);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("built", current.isBuilt());
+        stats.put("mode", current.isFull() ? "full" : "incremental");
+        stats.put("users", current.size());
+        stats.put("builtAt", current.getBuiltAt());
+        stats.put("buildMillis", current.getBuildMillis());
+        stats.put("ageMillis", current.isBuilt() ? now - current.getBuiltAt() : 0);
+        stats.put("pendingChanges", pendingChanges.size());
+        stats.put("stalenessMillis", now - oldestChange);
+        return stats;
+    }
+
+    /**
+     * Brings the materialized rows up to date after {@code username}'s favorites (or visibility) changed.
+     * Rows whose best or worst match was them and is no longer certain to be are rescanned; every other row
+     * is patched with the one new score. Their own row is dropped and recomputed when next asked for, and
+     * rows nobody has asked for yet stay uncomputed.
+     */
+    public synchronized void refresh(String username) {
+        Map<String, MatchRow> rows = matchRepository.findAll();
+        rows.remove(username);
+        matchRepository.delete(username);
+
+        List<MatchRow> patched = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        if (!wordMapRepository.isPublicWithFavorites(username)) {
+            for (MatchRow row : rows.values()) {
+                if (username.equals(row.getSoulmate()) || username.equals(row.getEnemy())) {
+                    stale.add(row.getUsername());
+                }
+            }
+        } else {
+            RoaringBitmap changed = TermBitmaps.of(favoriteService.getWordVector(username));
+            forEachVocabulary(rows.keySet(), (owner, vocabulary) ->
+                    patch(rows.get(owner), username, TermBitmaps.jaccard(changed, vocabulary), patched, stale));
+        }
+
+        for (String owner : stale) {
+            patched.add(compute(owner));
+        }
+        matchRepository.saveAll(patched);
+    }
+
+    // the row owner's similarity to the changed user is now `score`; keep the row if that cannot move its extremes
+    private static void patch(MatchRow row, String changed, double score, List<MatchRow> patched, List<String> stale) {
+        String soulmate = row.getSoulmate();
+        double soulmateScore = row.getSoulmateScore();
+        String enemy = row.getEnemy();
+        double enemyScore = row.getEnemyScore();
+
+        if (changed.equals(soulmate)) {
+            if (score < soulmateScore) {
+                stale.add(row.getUsername());
+                return;
+            }
+            soulmateScore = score;
+        } else if (soulmate == null || score > soulmateScore || (score == soulmateScore && changed.compareTo(soulmate) < 0)) {
+            soulmate = changed;
+            soulmateScore = score;
+        }
+        if (changed.equals(enemy)) {
+            if (score > enemyScore) {
+                stale.add(row.getUsername());
+                return;
+            }
+            enemyScore = score;
+        } else if (enemy == null || score < enemyScore || (score == enemyScore && changed.compareTo(enemy) < 0)) {
+            enemy = changed;
+            enemyScore = score;
+        }
+
+        if (!Objects.equals(soulmate, row.getSoulmate()) || soulmateScore != row.getSoulmateScore()
+                || !Objects.equals(enemy, row.getEnemy()) || enemyScore != row.getEnemyScore()) {
+            patched.add(new MatchRow(row.getUsername(), soulmate, soulmateScore, enemy, enemyScore));
+        }
+    }
+
+    // a row naming a withdrawn user is rescanned, so nobody is shown them again while the next build is pending
+    private MatchRow rowOf(SimilaritySnapshot current, String username) {
+        MatchRow row = current.find(username).orElseGet(() -> matchesOf(username));
+        if (isWithdrawn(row.getSoulmate()) || isWithdrawn(row.getEnemy())) {
+            return compute(username);
+        }
+        return row;
+    }
+
+    private boolean isWithdrawn(String username) {
+        return username != null && withdrawn.containsKey(username);
+    }
+
+    // not stored here: a row computed outside the build could miss a refresh running alongside it
+    private MatchRow matchesOf(String username) {
+        Optional<MatchRow> stored = matchRepository.find(username);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        if (!isKnownUser(username)) {
+            return new MatchRow(username, null, 0, null, 0);
+        }
+        uncovered.add(username);
+        return compute(username);
+    }
+
+    // one full scan over the public users
+    private MatchRow compute(String username) {
+        return extremes(username, TermBitmaps.of(favoriteService.getWordVector(username)),
+                visitor -> forEachCandidate(username, visitor));
+    }
+
+    // the rows of many users against public vocabularies held in memory
+    private Map<String, MatchRow> computeAll(Map<String, RoaringBitmap> vocabularies) {
+        Map<String, MatchRow> rows = new LinkedHashMap<>();
+        if (vocabularies.isEmpty()) {
+            return rows;
+        }
+        Map<String, RoaringBitmap> publics = new LinkedHashMap<>();
+        wordMapRepository.forEachPublicVocabulary(publics::put);
+        publics.replaceAll((other, vocabulary) -> vocabulary != null ? vocabulary : vocabulary(other));
+
+        vocabularies.forEach((username, mine) -> rows.put(username, extremes(username, mine,
+                visitor -> publics.forEach((other, vocabulary) -> {
+                    if (!other.equals(username)) {
+                        visitor.accept(other, vocabulary);
+                    }
+                }))));
+        return rows;
+    }
+
+    private static MatchRow extremes(String username, RoaringBitmap mine,
+                                     Consumer<BiConsumer<String, RoaringBitmap>> candidates) {
+        Candidate<RoaringBitmap> soulmate = new Candidate<>();
+        Candidate<RoaringBitmap> enemy = new Candidate<>();
+
+        candidates.accept((other, vocabulary) -> {
+            double score = TermBitmaps.jaccard(mine, vocabulary);
+            if (soulmate.username == null || score > soulmate.score
+                    || (score == soulmate.score && other.compareTo(soulmate.username) < 0)) {
+                soulmate.set(other, vocabulary, score);
+            }
+            if (enemy.username == null || score < enemy.score
+                    || (score == enemy.score && other.compareTo(enemy.username) < 0)) {
+                enemy.set(other, vocabulary, score);
+            }
+        });
+        return new MatchRow(username, soulmate.username, soulmate.score, enemy.username, enemy.score);
+    }
+
+    /**
+     * The soulmate alone, found through the LSH index instead of a scan: users sharing a band bucket with the
+     * requester's MinHash signature are re-ranked by exact Jaccard. The mutual flag is checked the same way,
+     * against the soulmate's own candidates. A very close match can be missed (see MinHashRecallBenchmark);
+     * when nobody collides at all this falls back to the exact scan.
+     */
+    public Optional<LyricalMatch> findSoulmateApproximate(String username) {
+        if (!isKnownUser(username)) {
+            return Optional.empty();
+        }
+        TermVector words = favoriteService.getWordVector(username);
+        RoaringBitmap mine = TermBitmaps.of(words);
+        Candidate<RoaringBitmap> soulmate = new Candidate<>();
+        for (String other : minHashRepository.findCandidates(username, MinHash.signature(words))) {
+            RoaringBitmap vocabulary = vocabulary(other);
+            double score = TermBitmaps.jaccard(mine, vocabulary);
+            // candidates come in username order, so ties keep the alphabetically first
+            if (soulmate.username == null || score > soulmate.score) {
+                soulmate.set(other, vocabulary, score);
+            }
+        }
+        if (soulmate.username == null) {
+            return findMatches(username).map(SoulmateResult::getSoulmate);
+        }
+
+        int[] signature = minHashRepository.findSignature(soulmate.username)
+                .orElseGet(() -> MinHash.signature(favoriteService.getWordVector(soulmate.username)));
+        boolean mutual = true;
+        for (String other : minHashRepository.findCandidates(soulmate.username, signature)) {
+            if (!other.equals(username) && TermBitmaps.jaccard(soulmate.value, vocabulary(other)) > soulmate.score) {
+                mutual = false;
+                break;
+            }
+        }
+        return Optional.of(new LyricalMatch(soulmate.username, soulmate.score, mutual));
+    }
+
+    // word maps that are not materialized yet are built (and stored) after the scan
+    private void forEachCandidate(String username, BiConsumer<String, RoaringBitmap> visitor) {
+        List<String> missing = new ArrayList<>();
+        wordMapRepository.forEachPublicVocabulary(username, (other, vocabulary) -> {
+            if (vocabulary == null) {
+                missing.add(other);
+            } else {
+                visitor.accept(other, vocabulary);
+            }
+        });
+        for (String other : missing) {
+            visitor.accept(other, TermBitmaps.of(favoriteService.getWordVector(other)));
+        }
+    }
+
+    private void forEachWeightedCandidate(String username, TfIdfWeighting weights,
+                                          BiConsumer<String, WeightedTermVector> visitor) {
+        List<String> missing = new ArrayList<>();
+        wordMapRepository.forEachPublicWordMap(username, (other, vector) -> {
+            if (vector == null) {
+                missing.add(other);
+            } else {
+                visitor.accept(other, weights.weigh(vector));
+            }
+        });
+        for (String other : missing) {
+            visitor.accept(other, weights.weigh(favoriteService.getWordVector(other)));
+        }
+    }
+
+    // document frequencies over every stored vocabulary; dropped whenever favorites change and rebuilt on demand
+    private TfIdfWeighting weighting() {
+        TfIdfWeighting current = weighting;
+        if (current == null) {
+            TfIdfWeighting.Builder builder = TfIdfWeighting.builder();
+            wordMapRepository.forEachVocabulary((owner, vocabulary) -> builder.add(vocabulary));
+            current = builder.build();
+            weighting = current;
+        }
+        return current;
+    }
+
+    // vocabularies of the given users, reading the stored ones in one pass and building any that are missing
+    private void forEachVocabulary(Set<String> usernames, BiConsumer<String, RoaringBitmap> visitor) {
+        Set<String> missing = new HashSet<>(usernames);
+        wordMapRepository.forEachVocabulary((owner, vocabulary) -> {
+            if (missing.remove(owner)) {
+                visitor.accept(owner, vocabulary);
+            }
+        });
+        for (String owner : missing) {
+            visitor.accept(owner, vocabulary(owner));
+        }
+    }
+
+    private RoaringBitmap vocabulary(String username) {
+        return wordMapRepository.findVocabulary(username)
+                .orElseGet(() -> TermBitmaps.of(favoriteService.getWordVector(username)));
+    }
+
+    static final class Scored {
+        private final String username;
+        private final double score;
+
+        Scored(String username, double score) {
+            this.username = username;
+            this.score = score;
+        }
+    }
+
+    private static final class Candidate<V> {
+        private String username;
+        private V value;
+        private double score;
+
+        private void set(String username, V value, double score) {
+            this.username = username;
+            this.value = value;
+            this.score = score;
+        }
+    }
+}
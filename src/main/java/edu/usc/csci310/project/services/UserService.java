@@ -1,14 +1,24 @@
 package edu.usc.csci310.project.services;
 
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
 import edu.usc.csci310.project.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
 
     public UserService(UserRepository userRepository) {
+        this(userRepository, event -> { });
+    }
+
+    @Autowired
+    public UserService(UserRepository userRepository, ApplicationEventPublisher events) {
         this.userRepository = userRepository;
+        this.events = events;
     }
 
     public boolean isFavoritesPrivate(String username) {
@@ -17,5 +27,6 @@ public class UserService {
 
     public void setFavoritesPrivacy(String username, boolean isPrivate) {
         userRepository.updateFavoritesPrivacy(username, isPrivate);
+        events.publishEvent(new FavoritesChangedEvent(username));
     }
 }
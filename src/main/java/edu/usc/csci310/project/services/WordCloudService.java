@@ -0,0 +1,243 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.HighlightRanges;
+import edu.usc.csci310.project.model.RenderedCloud;
+import edu.usc.csci310.project.model.SongOccurrence;
+import edu.usc.csci310.project.model.StemGroup;
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.model.WeightedWord;
+import edu.usc.csci310.project.model.WordCloud;
+import edu.usc.csci310.project.repository.StemIndexRepository;
+import edu.usc.csci310.project.repository.TermRepository;
+import edu.usc.csci310.project.repository.WordCloudRepository;
+import edu.usc.csci310.project.util.HashUtil;
+import edu.usc.csci310.project.util.LruCache;
+import edu.usc.csci310.project.util.Stemmer;
+import edu.usc.csci310.project.util.TermVectorCodec;
+import edu.usc.csci310.project.util.WordCloudLayout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Word clouds built on the server, so clients only receive the words they will draw.
+ */
+@Service
+public class WordCloudService {
+
+    // highest count first, ties broken alphabetically so the output is deterministic
+    static final Comparator<Map.Entry<String, Integer>> RANKING =
+            Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private static final int MAX_CACHED_CLOUDS = 256;
+    private static final int MAX_CACHED_SVGS = 128;
+
+    private final FavoriteService favoriteService;
+    private final TermRepository termRepository;
+    private final StemIndexRepository stemIndexRepository;
+    private final WordCloudRepository wordCloudRepository;
+
+    // username -> saved cloud, dropped whenever that user's cloud changes
+    private final LruCache<String, SavedCloud> savedClouds = new LruCache<>(MAX_CACHED_CLOUDS);
+
+    // bumped by every cloud change, so a read that loaded before one can tell its copy may be stale
+    private final AtomicLong cloudChanges = new AtomicLong();
+
+    // "version/k/stem/WxH" -> rendered SVG; a changed word map has a new version, so entries never go stale
+    private final LruCache<String, RenderedCloud> renderedClouds = new LruCache<>(MAX_CACHED_SVGS);
+
+    @Autowired
+    public WordCloudService(FavoriteService favoriteService, TermRepository termRepository,
+                            StemIndexRepository stemIndexRepository, WordCloudRepository wordCloudRepository) {
+        this.favoriteService = favoriteService;
+        this.termRepository = termRepository;
+        this.stemIndexRepository = stemIndexRepository;
+        this.wordCloudRepository = wordCloudRepository;
+    }
+
+    /**
+     * A user's saved cloud with its k top words. Repeat visits are served from memory until the cloud changes.
+     */
+    public WordCloud getSavedCloud(String username, int k, boolean stemmed) {
+        SavedCloud cloud = savedClouds.get(username);
+        if (cloud == null) {
+            long version = cloudChanges.get();
+            cloud = new SavedCloud(wordCloudRepository.getSongs(username),
+                    termRepository.toWordMap(wordCloudRepository.getCloudVector(username)));
+            savedClouds.put(username, cloud);
+            if (cloudChanges.get() != version) {
+                // a change landed while loading and its invalidation may have run before our put
+                savedClouds.remove(username, cloud);
+            }
+        }
+        return new WordCloud(username, cloud.songs, stemmed ? topStems(cloud.wordMap, k) : topK(cloud.wordMap, k));
+    }
+
+    /**
+     * Adds a song to a user's saved cloud; false if it was already in it.
+     */
+    public boolean addToCloud(FavoriteSong song) {
+        boolean added = wordCloudRepository.addSong(song.getUsername(), song.getSongId(), song.getTitle(), song.getUrl(),
+                song.getImageUrl(), song.getReleaseDate(), song.getArtistName(), song.getLyrics());
+        invalidate(song.getUsername());
+        return added;
+    }
+
+    public boolean removeFromCloud(String username, String songId) {
+        boolean removed = wordCloudRepository.removeSong(username, songId);
+        invalidate(username);
+        return removed;
+    }
+
+    public int clearCloud(String username) {
+        int removed = wordCloudRepository.clear(username);
+        invalidate(username);
+        return removed;
+    }
+
+    // after the write: a read still loading either sees the bump or has its put removed here
+    private void invalidate(String username) {
+        cloudChanges.incrementAndGet();
+        savedClouds.remove(username);
+    }
+
+    /**
+     * The k most frequent words across a user's favorites, optionally grouped by stem.
+     */
+    public List<WeightedWord> topWordsForUser(String username, int k, boolean stemmed) {
+        Map<String, Integer> wordMap = favoriteService.getWordMap(username);
+        return stemmed ? topStems(wordMap, k) : topK(wordMap, k);
+    }
+
+    /**
+     * The k most frequent words across the given songs, optionally grouped by stem.
+     * Songs that were never favorited have no stored vector and are skipped.
+     */
+    public List<WeightedWord> topWordsForSongs(Collection<String> songIds, int k, boolean stemmed) {
+        Map<String, Integer> wordMap = termRepository.toWordMap(termRepository.sumSongVectors(new LinkedHashSet<>(songIds)));
+        return stemmed ? topStems(wordMap, k) : topK(wordMap, k);
+    }
+
+    /**
+     * A user's favorite songs containing the word's stem, most occurrences first.
+     */
+    public List<SongOccurrence> songsForWord(String username, String word) {
+        return stemIndexRepository.findFavoriteSongs(username, Stemmer.stem(word.toLowerCase()));
+    }
+
+    /**
+     * Songs of the given set containing the word's stem, most occurrences first.
+     */
+    public List<SongOccurrence> songsForWord(Collection<String> songIds, String word) {
+        return stemIndexRepository.findSongs(new LinkedHashSet<>(songIds), Stemmer.stem(word.toLowerCase()));
+    }
+
+    /**
+     * Where the word's stem occurs in a song's lyrics, so the client can highlight without re-tokenizing.
+     */
+    public HighlightRanges highlights(String songId, String word) {
+        String stem = Stemmer.stem(word.toLowerCase());
+        return new HighlightRanges(songId, stem, stemIndexRepository.findHighlightRanges(songId, stem));
+    }
+
+    /**
+     * A user's word cloud (over their favorites, or their saved cloud) laid out and rendered to SVG.
+     * The word map's version is a hash of its vector, so a repeat request for an unchanged map and canvas
+     * costs one vector read and no layout.
+     */
+    public RenderedCloud renderSvg(String username, boolean saved, int k, boolean stemmed, int width, int height) {
+        TermVector vector = saved ? wordCloudRepository.getCloudVector(username) : favoriteService.getWordVector(username);
+        String version = HashUtil.contentHash(TermVectorCodec.encode(vector)).substring(0, 32);
+        String key = version + "/" + k + "/" + (stemmed ? "stem" : "word") + "/" + width + "x" + height;
+
+        RenderedCloud rendered = renderedClouds.get(key);
+        if (rendered == null) {
+            Map<String, Integer> wordMap = termRepository.toWordMap(vector);
+            List<WeightedWord> words = stemmed ? topStems(wordMap, k) : topK(wordMap, k);
+            rendered = new RenderedCloud("\"" + key.replace('/', '-') + "\"", WordCloudLayout.renderSvg(words, width, height));
+            renderedClouds.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    static List<WeightedWord> topK(Map<String, Integer> wordMap, int k) {
+        List<Map.Entry<String, Integer>> top = select(wordMap, k);
+        List<WeightedWord> words = new ArrayList<>(top.size());
+        for (Map.Entry<String, Integer> entry : top) {
+            words.add(new WeightedWord(entry.getKey(), entry.getValue(), weight(top, entry.getValue())));
+        }
+        return words;
+    }
+
+    /**
+     * Like {@link #topK} but over stem-grouped counts, each stem shown as its most frequent word.
+     */
+    static List<WeightedWord> topStems(Map<String, Integer> wordMap, int k) {
+        Map<String, StemGroup> groups = StemGroup.group(wordMap);
+        Map<String, Integer> stemCounts = new HashMap<>(groups.size() * 2);
+        groups.forEach((stem, group) -> stemCounts.put(stem, group.getCount()));
+
+        List<Map.Entry<String, Integer>> top = select(stemCounts, k);
+        List<WeightedWord> words = new ArrayList<>(top.size());
+        for (Map.Entry<String, Integer> entry : top) {
+            StemGroup group = groups.get(entry.getKey());
+            words.add(new WeightedWord(group.getSurfaceForm(), group.getCount(), weight(top, group.getCount()), group.getStem()));
+        }
+        return words;
+    }
+
+    /**
+     * Selects the k best-ranked entries with a min-heap of size k (O(n log k), no full sort of the vocabulary).
+     */
+    static List<Map.Entry<String, Integer>> select(Map<String, Integer> counts, int k) {
+        if (k < 1 || counts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // worst of the current top k sits at the head
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(Math.min(k, counts.size()) + 1, RANKING.reversed());
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (RANKING.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            top.add(heap.poll());
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    // min-max normalized over the selected entries, which are sorted by descending count
+    private static double weight(List<Map.Entry<String, Integer>> top, int count) {
+        int max = top.get(0).getValue();
+        int min = top.get(top.size() - 1).getValue();
+        return max == min ? 1.0 : (count - min) / (double) (max - min);
+    }
+
+    private static final class SavedCloud {
+        private final List<FavoriteSong> songs;
+        private final Map<String, Integer> wordMap;
+
+        private SavedCloud(List<FavoriteSong> songs, Map<String, Integer> wordMap) {
+            this.songs = Collections.unmodifiableList(songs);
+            this.wordMap = wordMap;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.repository.FavoriteRepository;
+import edu.usc.csci310.project.repository.MinHashRepository;
+import edu.usc.csci310.project.repository.WordMapRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bulk, parallel materialization of word maps that are not stored yet, so a cold start does not leave
+ * each user's first read to rebuild their map one at a time. Maps stored before vocabulary bitmaps and
+ * MinHash signatures existed get theirs on startup as well.
+ */
+@Service
+public class WordMapBuildService {
+
+    private final FavoriteRepository favoriteRepository;
+    private final WordMapRepository wordMapRepository;
+    private final MinHashRepository minHashRepository;
+    private final int parallelism;
+    private final boolean buildOnStartup;
+
+    @Autowired
+    public WordMapBuildService(FavoriteRepository favoriteRepository,
+                               WordMapRepository wordMapRepository,
+                               MinHashRepository minHashRepository,
+                               @Value("${wordmaps.build-parallelism:0}") int parallelism,
+                               @Value("${wordmaps.build-on-startup:true}") boolean buildOnStartup) {
+        this.favoriteRepository = favoriteRepository;
+        this.wordMapRepository = wordMapRepository;
+        this.minHashRepository = minHashRepository;
+        // 0 (the default) means one thread per core
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.buildOnStartup = buildOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (buildOnStartup) {
+            buildMissing();
+            int indexed = wordMapRepository.indexMissingVocabularies();
+            if (indexed > 0) {
+                System.out.println("✅ Stored " + indexed + " vocabulary bitmaps");
+            }
+            int signed = minHashRepository.indexMissing();
+            if (signed > 0) {
+                System.out.println("✅ Signed " + signed + " word maps for LSH");
+            }
+        }
+    }
+
+    /**
+     * Builds every missing word map on a dedicated pool. Returns how many were built.
+     */
+    public int buildMissing() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            int built = favoriteRepository.rebuildMissingWordMaps(pool);
+            if (built > 0) {
+                System.out.println("✅ Built " + built + " word maps on " + parallelism + " threads in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+            return built;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+}
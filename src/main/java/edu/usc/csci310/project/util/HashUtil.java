@@ -10,16 +10,38 @@ public class HashUtil {
         throw new UnsupportedOperationException("Utility class");
     }
     public static String hashUsername(String username) {
+        return sha256Hex(username, "Error hashing username");
+    }
+
+    /**
+     * Stable SHA-256 hex digest of a response body, used as a strong ETag value.
+     */
+    public static String contentHash(String content) {
+        return sha256Hex(content, "Error hashing content");
+    }
+
+    /**
+     * Same digest over raw bytes, e.g. an encoded term vector.
+     */
+    public static String contentHash(byte[] content) {
+        return sha256Hex(content, "Error hashing content");
+    }
+
+    private static String sha256Hex(String input, String errorMessage) {
+        return sha256Hex(input.getBytes(StandardCharsets.UTF_8), errorMessage);
+    }
+
+    private static String sha256Hex(byte[] input, String errorMessage) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(username.getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest(input);
             StringBuilder hexString = new StringBuilder();
             for (byte b : hash) {
                 hexString.append(String.format("%02x", b));
             }
             return hexString.toString();
         } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error hashing username", e);
+            throw new RuntimeException(errorMessage, e);
         }
     }
 }
@@ -0,0 +1,112 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int -> int count map for accumulating term ids without boxing.
+ *
+ * Keys are term ids and must be non-negative; slots hold the key and its count side by side in one
+ * int array and collisions probe linearly. Used to sum many vectors at once, after which the result
+ * is frozen into a {@link TermVector}.
+ */
+public class IntCountMap {
+
+    private static final int EMPTY = -1;
+
+    private int[] slots;
+    private int size;
+
+    public IntCountMap() {
+        this(16);
+    }
+
+    public IntCountMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        slots = new int[capacity * 2];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    public void add(int key, int delta) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative: " + key);
+        }
+        int slot = find(slots, key);
+        if (slots[slot] == EMPTY) {
+            slots[slot] = key;
+            slots[slot + 1] = delta;
+            if (++size * 2 > slots.length / 2) {
+                grow();
+            }
+        } else {
+            slots[slot + 1] += delta;
+        }
+    }
+
+    public void addAll(TermVector vector) {
+        int[] ids = vector.getTermIds();
+        int[] counts = vector.getCounts();
+        for (int i = 0; i < ids.length; i++) {
+            add(ids[i], counts[i]);
+        }
+    }
+
+    public int get(int key) {
+        int slot = find(slots, key);
+        return slots[slot] == EMPTY ? 0 : slots[slot + 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The accumulated counts as a vector sorted by id; keys whose count is not positive are left out.
+     */
+    public TermVector toTermVector() {
+        int[] ids = new int[size];
+        int n = 0;
+        for (int i = 0; i < slots.length; i += 2) {
+            if (slots[i] != EMPTY && slots[i + 1] > 0) {
+                ids[n++] = slots[i];
+            }
+        }
+        ids = Arrays.copyOf(ids, n);
+        Arrays.sort(ids);
+
+        int[] counts = new int[n];
+        for (int i = 0; i < n; i++) {
+            counts[i] = get(ids[i]);
+        }
+        return new TermVector(ids, counts);
+    }
+
+    private static int find(int[] slots, int key) {
+        int mask = slots.length / 2 - 1;
+        int index = mix(key) & mask;
+        while (slots[index * 2] != EMPTY && slots[index * 2] != key) {
+            index = (index + 1) & mask;
+        }
+        return index * 2;
+    }
+
+    // spread sequential ids so neighbours don't form long probe runs
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        int[] old = slots;
+        slots = new int[old.length * 2];
+        Arrays.fill(slots, EMPTY);
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != EMPTY) {
+                int slot = find(slots, old[i]);
+                slots[slot] = old[i];
+                slots[slot + 1] = old[i + 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package edu.usc.csci310.project.util;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded map for sharing between request threads: once {@code capacity} entries are held, each new one
+ * pushes out the least recently used. Keys are spread over up to 16 segments, each an access-ordered
+ * LinkedHashMap with its own lock and its own share of the capacity, so lookups of different keys seldom
+ * wait on each other. Caches too small to split keep one segment and are exactly LRU; larger ones evict
+ * from the segment that overflowed, which is LRU within that segment only.
+ */
+public final class LruCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final Segment<K, V>[] segments;
+
+    public LruCache(int capacity) {
+        this(capacity, (key, value) -> { });
+    }
+
+    /**
+     * @param onEviction called with every entry pushed out by a {@link #put}, after its segment is unlocked
+     *                   (not for {@link #remove}s)
+     */
+    @SuppressWarnings("unchecked")
+    public LruCache(int capacity, BiConsumer<? super K, ? super V> onEviction) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int count = 1;
+        while (count < MAX_SEGMENTS && capacity / (count * 2) >= MIN_SEGMENT_CAPACITY) {
+            count *= 2;
+        }
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(capacity / count + (i < capacity % count ? 1 : 0), onEviction);
+        }
+    }
+
+    // null when absent; a hit counts as a use
+    public V get(K key) {
+        return segmentFor(key).get(key);
+    }
+
+    // the previous value, or null
+    public V put(K key, V value) {
+        return segmentFor(key).put(key, value);
+    }
+
+    public V remove(K key) {
+        return segmentFor(key).remove(key);
+    }
+
+    // only while key still maps to value
+    public boolean remove(K key, V value) {
+        return segmentFor(key).remove(key, value);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class Segment<K, V> {
+        private final int capacity;
+        private final BiConsumer<? super K, ? super V> onEviction;
+        private final LinkedHashMap<K, V> entries;
+        private Map.Entry<K, V> evicted;   // set by removeEldestEntry, handed to onEviction by put
+
+        private Segment(int capacity, BiConsumer<? super K, ? super V> onEviction) {
+            this.capacity = capacity;
+            this.onEviction = onEviction;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    if (size() > Segment.this.capacity) {
+                        evicted = new AbstractMap.SimpleImmutableEntry<>(eldest);
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized V get(K key) {
+            return entries.get(key);
+        }
+
+        private V put(K key, V value) {
+            V previous;
+            Map.Entry<K, V> out;
+            synchronized (this) {
+                previous = entries.put(key, value);
+                out = evicted;
+                evicted = null;
+            }
+            if (out != null) {
+                onEviction.accept(out.getKey(), out.getValue());
+            }
+            return previous;
+        }
+
+        private synchronized V remove(K key) {
+            return entries.remove(key);
+        }
+
+        private synchronized boolean remove(K key, V value) {
+            return entries.remove(key, value);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+}
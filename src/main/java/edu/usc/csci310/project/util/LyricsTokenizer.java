@@ -0,0 +1,106 @@
+package edu.usc.csci310.project.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass lyrics tokenizer used for word maps.
+ *
+ * Equivalent to {@code toLowerCase().replaceAll("[^a-zA-Z\\s]", "").split("\\s+")} followed by a
+ * stop-word filter, but without copying the lyrics: characters are lowercased and filtered inline
+ * and each word is handed to the caller as soon as its boundary is seen. Empty words are never emitted.
+ */
+public class LyricsTokenizer {
+
+    public static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "a", "to", "of", "in", "is", "it", "you", "that", "on", "for", "with",
+            "as", "was", "are", "but", "be", "at", "by", "this", "have", "or", "an", "not", "we"
+    );
+
+    private LyricsTokenizer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Receives a token together with its span in the original lyrics.
+     */
+    @FunctionalInterface
+    public interface TokenSink {
+        void accept(String token, int start, int end);
+    }
+
+    /**
+     * Emits every non stop-word token of {@code lyrics} in order.
+     */
+    public static void tokenize(String lyrics, Consumer<String> sink) {
+        tokenizeWithOffsets(lyrics, (token, start, end) -> sink.accept(token));
+    }
+
+    /**
+     * Like {@link #tokenize(String, Consumer)}, also passing each token's span in {@code lyrics}: from its
+     * first to just past its last kept character, so "don't" spans all five characters.
+     */
+    public static void tokenizeWithOffsets(String lyrics, TokenSink sink) {
+        if (lyrics == null) {
+            return;
+        }
+
+        char[] word = new char[32];
+        int length = 0;
+        int start = 0;
+        int end = 0;
+        for (int i = 0, n = lyrics.length(); i < n; i++) {
+            char c = lyrics.charAt(i);
+            char lower;
+            if (c >= 'a' && c <= 'z') {
+                lower = c;
+            } else if (c >= 'A' && c <= 'Z') {
+                lower = (char) (c + ('a' - 'A'));
+            } else if (isWhitespace(c)) {
+                emit(word, length, start, end, sink);
+                length = 0;
+                continue;
+            } else if (c > 0x7f && (lower = Character.toLowerCase(c)) >= 'a' && lower <= 'z') {
+                // e.g. the Kelvin sign, which lowercases to a plain 'k'
+            } else {
+                // punctuation, digits, accents: dropped, so "don't" becomes "dont"
+                continue;
+            }
+
+            if (length == word.length) {
+                char[] grown = new char[length * 2];
+                System.arraycopy(word, 0, grown, 0, length);
+                word = grown;
+            }
+            if (length == 0) {
+                start = i;
+            }
+            word[length++] = lower;
+            end = i + 1;
+        }
+        emit(word, length, start, end, sink);
+    }
+
+    /**
+     * Adds the word counts of {@code lyrics} to {@code counts}.
+     */
+    public static void countWords(String lyrics, Map<String, Integer> counts) {
+        tokenize(lyrics, word -> counts.merge(word, 1, Integer::sum));
+    }
+
+    private static void emit(char[] word, int length, int start, int end, TokenSink sink) {
+        if (length == 0) {
+            return;
+        }
+        String token = new String(word, 0, length);
+        if (!STOP_WORDS.contains(token)) {
+            sink.accept(token, start, end);
+        }
+    }
+
+    // same set as the regex \s class
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+}
@@ -0,0 +1,109 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures of word sets (the distinct term ids of a word map) and their LSH band keys.
+ *
+ * The fraction of equal signature slots estimates Jaccard similarity. For candidate search the signature is
+ * cut into {@link #BANDS} bands of {@link #ROWS} slots; two users whose signatures agree on every slot of at
+ * least one band land in the same bucket, which happens with probability 1 - (1 - J^ROWS)^BANDS.
+ * With 64 bands of 4 rows that is ~40% at J = 0.3, ~80% at J = 0.4 and ~98% at J = 0.5: lyrics share a lot of
+ * common words, so lower thresholds make nearly everyone a candidate (see MinHashRecallBenchmark).
+ *
+ * The hash functions come from a fixed seed, so stored signatures stay comparable across restarts.
+ */
+public final class MinHash {
+
+    public static final int BANDS = 64;
+    public static final int ROWS = 4;
+    public static final int NUM_HASHES = BANDS * ROWS;
+
+    private static final long[] MULTIPLIERS = new long[NUM_HASHES];
+    private static final long[] OFFSETS = new long[NUM_HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_310L);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Signature of a vector's term set; counts do not matter. An empty set has every slot at Integer.MAX_VALUE.
+     */
+    public static int[] signature(TermVector vector) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int termId : vector.getTermIds()) {
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int h = hash(termId, i);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Fraction of slots on which two signatures agree, an unbiased estimate of Jaccard similarity.
+     */
+    public static double estimate(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return equal / (double) NUM_HASHES;
+    }
+
+    /**
+     * One bucket key per band; equal keys in the same band mean the band's slots (almost certainly) agree.
+     */
+    public static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long h = band;
+            for (int row = 0; row < ROWS; row++) {
+                h = mix(h * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = h;
+        }
+        return keys;
+    }
+
+    public static byte[] encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    public static int[] decode(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    private static int hash(int termId, int i) {
+        // non-negative so that "no term" (MAX_VALUE) never beats a real one
+        return (int) (mix(termId * MULTIPLIERS[i] + OFFSETS[i]) >>> 33);
+    }
+
+    // finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,118 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join building blocks for materializing many word maps at once (cold starts, bulk rebuilds).
+ *
+ * Work is split by index range down to {@link #LEAF_SIZE} items; each leaf counts into maps it owns,
+ * so nothing is shared or locked while tokenizing, and partial results are merged as tasks join.
+ * Dictionary lookups and writes stay on the caller's thread since they go through the one connection.
+ */
+public final class ParallelWordMaps {
+
+    static final int LEAF_SIZE = 8;
+
+    private ParallelWordMaps() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Tokenizes each song's lyrics into its own word -> count map, in parallel on {@code pool}.
+     */
+    public static Map<String, Map<String, Integer>> countSongs(Map<String, String> lyricsBySong, ForkJoinPool pool) {
+        List<Map.Entry<String, String>> songs = new ArrayList<>(lyricsBySong.entrySet());
+        return pool.invoke(new CountSongs(songs, 0, songs.size()));
+    }
+
+    /**
+     * Sums each user's song vectors into one vector per user, in parallel on {@code pool}.
+     * A user is never split across tasks, so merging is only a matter of combining disjoint result maps.
+     */
+    public static Map<String, TermVector> sumByUser(Map<String, List<TermVector>> vectorsByUser, ForkJoinPool pool) {
+        List<Map.Entry<String, List<TermVector>>> users = new ArrayList<>(vectorsByUser.entrySet());
+        return pool.invoke(new SumByUser(users, 0, users.size()));
+    }
+
+    private static final class CountSongs extends RecursiveTask<Map<String, Map<String, Integer>>> {
+
+        private final List<Map.Entry<String, String>> songs;
+        private final int from;
+        private final int to;
+
+        private CountSongs(List<Map.Entry<String, String>> songs, int from, int to) {
+            this.songs = songs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<String, Map<String, Integer>> compute() {
+            if (to - from <= LEAF_SIZE) {
+                Map<String, Map<String, Integer>> counted = new HashMap<>((to - from) * 2);
+                for (int i = from; i < to; i++) {
+                    Map<String, Integer> words = new HashMap<>();
+                    LyricsTokenizer.countWords(songs.get(i).getValue(), words);
+                    counted.put(songs.get(i).getKey(), words);
+                }
+                return counted;
+            }
+            int mid = (from + to) >>> 1;
+            CountSongs left = new CountSongs(songs, from, mid);
+            left.fork();
+            Map<String, Map<String, Integer>> right = new CountSongs(songs, mid, to).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    private static final class SumByUser extends RecursiveTask<Map<String, TermVector>> {
+
+        private final List<Map.Entry<String, List<TermVector>>> users;
+        private final int from;
+        private final int to;
+
+        private SumByUser(List<Map.Entry<String, List<TermVector>>> users, int from, int to) {
+            this.users = users;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<String, TermVector> compute() {
+            if (to - from <= LEAF_SIZE) {
+                Map<String, TermVector> summed = new HashMap<>((to - from) * 2);
+                for (int i = from; i < to; i++) {
+                    List<TermVector> vectors = users.get(i).getValue();
+                    IntCountMap total = new IntCountMap(1024);
+                    for (TermVector vector : vectors) {
+                        total.addAll(vector);
+                    }
+                    summed.put(users.get(i).getKey(), total.toTermVector());
+                }
+                return summed;
+            }
+            int mid = (from + to) >>> 1;
+            SumByUser left = new SumByUser(users, from, mid);
+            left.fork();
+            Map<String, TermVector> right = new SumByUser(users, mid, to).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    // keys are disjoint between sibling tasks, so the larger map simply absorbs the smaller
+    private static <V> Map<String, V> merge(Map<String, V> a, Map<String, V> b) {
+        if (a.size() < b.size()) {
+            b.putAll(a);
+            return b;
+        }
+        a.putAll(b);
+        return a;
+    }
+}
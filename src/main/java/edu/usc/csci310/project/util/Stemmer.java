@@ -0,0 +1,42 @@
+package edu.usc.csci310.project.util;
+
+import opennlp.tools.stemmer.snowball.SnowballStemmer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Porter2 (Snowball English) stemming, the same algorithm the word cloud panel used in the browser.
+ *
+ * Lyrics reuse a small vocabulary over and over, so every word is stemmed once and the result is
+ * memoized. Snowball stemmers keep per-call state, hence one instance per thread.
+ */
+public class Stemmer {
+
+    // lyric vocabularies stay far below this; past it new words are stemmed without being remembered
+    static final int MAX_MEMOIZED = 200_000;
+
+    private static final Map<String, String> STEMS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<SnowballStemmer> STEMMER =
+            ThreadLocal.withInitial(() -> new SnowballStemmer(SnowballStemmer.ALGORITHM.ENGLISH));
+
+    private Stemmer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static String stem(String word) {
+        String stem = STEMS.get(word);
+        if (stem != null) {
+            return stem;
+        }
+        stem = STEMMER.get().stem(word).toString();
+        if (STEMS.size() < MAX_MEMOIZED) {
+            STEMS.putIfAbsent(word, stem);
+        }
+        return stem;
+    }
+
+    static int memoizedCount() {
+        return STEMS.size();
+    }
+}
@@ -0,0 +1,59 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A user's vocabulary (the distinct term ids of their word map) as a Roaring bitmap, and exact Jaccard on it.
+ *
+ * Term ids are dense and allocated in first-seen order, so common words cluster in the low containers where
+ * they become 8 KB bitsets; intersecting those is an AND plus a popcount per 64 ids instead of a merge over
+ * two sorted arrays. Sparse tails stay as small sorted arrays.
+ */
+public final class TermBitmaps {
+
+    private TermBitmaps() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static RoaringBitmap of(TermVector vector) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        int[] ids = vector.getTermIds();
+        bitmap.addN(ids, 0, ids.length);
+        bitmap.runOptimize();
+        return bitmap;
+    }
+
+    /**
+     * |A and B| / |A or B| from cardinalities alone; nothing is materialized. 0 when both are empty,
+     * the same as {@link TermVector#jaccard}.
+     */
+    public static double jaccard(RoaringBitmap a, RoaringBitmap b) {
+        int shared = RoaringBitmap.andCardinality(a, b);
+        int union = a.getCardinality() + b.getCardinality() - shared;
+        return union == 0 ? 0 : shared / (double) union;
+    }
+
+    public static byte[] encode(RoaringBitmap bitmap) {
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buffer);
+        return buffer.array();
+    }
+
+    public static RoaringBitmap decode(byte[] bytes) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        if (bytes == null || bytes.length == 0) {
+            return bitmap;
+        }
+        try {
+            bitmap.deserialize(ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt term bitmap", e);
+        }
+        return bitmap;
+    }
+}
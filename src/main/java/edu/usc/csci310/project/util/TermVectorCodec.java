@@ -0,0 +1,99 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Compact BLOB form of a {@link TermVector}: the entry count, then for each term the gap from the
+ * previous term id and the count, all as unsigned LEB128 varints. Most gaps and counts fit in one byte.
+ */
+public class TermVectorCodec {
+
+    private TermVectorCodec() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static byte[] encode(TermVector vector) {
+        int[] ids = vector.getTermIds();
+        int[] counts = vector.getCounts();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + ids.length * 3);
+
+        writeVarint(out, ids.length);
+        int previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            writeVarint(out, ids[i] - previous);
+            writeVarint(out, counts[i]);
+            previous = ids[i];
+        }
+        return out.toByteArray();
+    }
+
+    public static TermVector decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return TermVector.EMPTY;
+        }
+        int[] position = {0};
+        int n = readVarint(bytes, position);
+        int[] ids = new int[n];
+        int[] counts = new int[n];
+        int previous = 0;
+        for (int i = 0; i < n; i++) {
+            previous += readVarint(bytes, position);
+            ids[i] = previous;
+            counts[i] = readVarint(bytes, position);
+        }
+        return new TermVector(ids, counts);
+    }
+
+    /**
+     * Encodes ascending, non-overlapping [start, end) ranges given flat as start0, end0, start1, end1, ...
+     * as varints of each range's gap from the previous end and its length.
+     */
+    public static byte[] encodeRanges(int[] ranges) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + ranges.length);
+        writeVarint(out, ranges.length / 2);
+        int previousEnd = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            writeVarint(out, ranges[i] - previousEnd);
+            writeVarint(out, ranges[i + 1] - ranges[i]);
+            previousEnd = ranges[i + 1];
+        }
+        return out.toByteArray();
+    }
+
+    public static int[] decodeRanges(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new int[0];
+        }
+        int[] position = {0};
+        int[] ranges = new int[readVarint(bytes, position) * 2];
+        int previousEnd = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            ranges[i] = previousEnd + readVarint(bytes, position);
+            ranges[i + 1] = ranges[i] + readVarint(bytes, position);
+            previousEnd = ranges[i + 1];
+        }
+        return ranges;
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(byte[] bytes, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,98 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.model.WeightedTermVector;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+
+/**
+ * TF-IDF weights over users' word maps, with each user's word map as one document.
+ *
+ * tf is sublinear (1 + ln count) so a chorus repeated forty times does not drown out everything else, and
+ * idf is smoothed, ln((1 + N) / (1 + df)) + 1, so a word everybody uses still weighs a little and a term
+ * that no counted user has (a brand-new word) does not divide by zero. Vectors come out L2-normalized.
+ */
+public final class TfIdfWeighting {
+
+    // 1 + ln(count) for the counts nearly every word has; weighing runs once per candidate per cosine scan
+    private static final double[] TF = new double[64];
+
+    static {
+        for (int count = 1; count < TF.length; count++) {
+            TF[count] = 1 + Math.log(count);
+        }
+    }
+
+    private final double[] idfs;
+    private final double unseenIdf;
+    private final int documents;
+
+    public TfIdfWeighting(int[] documentFrequencies, int documents) {
+        this.documents = documents;
+        this.idfs = new double[documentFrequencies.length];
+        for (int termId = 0; termId < idfs.length; termId++) {
+            idfs[termId] = Math.log((1.0 + documents) / (1.0 + documentFrequencies[termId])) + 1;
+        }
+        this.unseenIdf = Math.log(1.0 + documents) + 1;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public double idf(int termId) {
+        return termId < idfs.length ? idfs[termId] : unseenIdf;
+    }
+
+    public WeightedTermVector weigh(TermVector vector) {
+        int[] ids = vector.getTermIds();
+        int[] counts = vector.getCounts();
+        float[] weights = new float[ids.length];
+        double norm = 0;
+        for (int i = 0; i < ids.length; i++) {
+            double tf = counts[i] < TF.length ? TF[counts[i]] : 1 + Math.log(counts[i]);
+            double w = tf * idf(ids[i]);
+            weights[i] = (float) w;
+            norm += w * w;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] *= scale;
+            }
+        }
+        return new WeightedTermVector(ids, weights);
+    }
+
+    /**
+     * Counts, for every term id, how many of the added vocabularies contain it.
+     */
+    public static final class Builder {
+
+        private int[] documentFrequencies = new int[1024];
+        private int documents;
+
+        private Builder() {
+        }
+
+        public Builder add(RoaringBitmap vocabulary) {
+            documents++;
+            if (!vocabulary.isEmpty() && vocabulary.last() >= documentFrequencies.length) {
+                documentFrequencies = Arrays.copyOf(documentFrequencies,
+                        Math.max(documentFrequencies.length * 2, vocabulary.last() + 1));
+            }
+            int[] df = documentFrequencies;
+            vocabulary.forEach((int termId) -> df[termId]++);
+            return this;
+        }
+
+        public TfIdfWeighting build() {
+            return new TfIdfWeighting(documentFrequencies, documents);
+        }
+    }
+}
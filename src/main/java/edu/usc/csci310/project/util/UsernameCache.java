@@ -0,0 +1,63 @@
+package edu.usc.csci310.project.util;
+
+import java.util.Optional;
+
+/**
+ * Raw username <-> hashed username for registered users, least recently used first out once
+ * {@code capacity} users are cached. Both directions are {@link LruCache}s, so concurrent lookups do not
+ * queue behind one lock. The raw -> hashed side decides what is cached: a reverse entry is only served
+ * while it still agrees with it, so a lookup either way never returns half of a pair that was replaced,
+ * evicted or removed.
+ *
+ * Only pairs known to be in the users table belong here: a hit also answers "does this user exist",
+ * which is why entries are added on registration and login and removed when the account is deleted.
+ */
+public final class UsernameCache {
+
+    private final LruCache<String, String> hashedByRaw;
+    private final LruCache<String, String> rawByHashed;
+
+    public UsernameCache(int capacity) {
+        rawByHashed = new LruCache<>(capacity);
+        hashedByRaw = new LruCache<>(capacity, (raw, hashed) -> rawByHashed.remove(hashed, raw));
+    }
+
+    public void put(String rawUsername, String hashedUsername) {
+        String previousHashed = hashedByRaw.put(rawUsername, hashedUsername);
+        if (previousHashed != null && !previousHashed.equals(hashedUsername)) {
+            rawByHashed.remove(previousHashed, rawUsername);
+        }
+        String previousRaw = rawByHashed.put(hashedUsername, rawUsername);
+        if (previousRaw != null && !previousRaw.equals(rawUsername)) {
+            hashedByRaw.remove(previousRaw, hashedUsername);
+        }
+    }
+
+    public Optional<String> hashedOf(String rawUsername) {
+        return Optional.ofNullable(hashedByRaw.get(rawUsername));
+    }
+
+    public Optional<String> rawOf(String hashedUsername) {
+        String raw = rawByHashed.get(hashedUsername);
+        if (raw == null) {
+            return Optional.empty();
+        }
+        // the forward lookup also counts as a use of the pair
+        if (!hashedUsername.equals(hashedByRaw.get(raw))) {
+            rawByHashed.remove(hashedUsername, raw); // left behind by a replace or eviction racing with put
+            return Optional.empty();
+        }
+        return Optional.of(raw);
+    }
+
+    public void remove(String rawUsername) {
+        String hashed = hashedByRaw.remove(rawUsername);
+        if (hashed != null) {
+            rawByHashed.remove(hashed, rawUsername);
+        }
+    }
+
+    public int size() {
+        return hashedByRaw.size();
+    }
+}
@@ -0,0 +1,120 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.WeightedWord;
+
+import java.util.List;
+
+/**
+ * Lays a word cloud out on the server and renders it as SVG.
+ *
+ * Words are placed in the order given (highest count first) along an Archimedean spiral from the centre,
+ * each at the first position where its bounding box does not overlap anything placed so far; words that
+ * never fit are dropped. Occupancy is tracked on a coarse grid so a collision test only touches the cells
+ * under the candidate box. Nothing is random and sin, cos and exp are StrictMath, so the same words and canvas
+ * give the same bytes on every JVM.
+ */
+public final class WordCloudLayout {
+
+    // same range and sigmoid the React panel used
+    static final int MIN_FONT_SIZE = 12;
+    static final int MAX_FONT_SIZE = 48;
+
+    private static final int CELL = 4;
+    private static final int PADDING = 2;
+    private static final double CHAR_WIDTH = 0.6;   // average glyph advance of a sans-serif font, in ems
+    private static final double ANGLE_STEP = 0.1;
+    private static final double MAX_ARC_STEP = 2 * CELL;  // keeps outer turns of the spiral from skipping gaps
+    private static final double SPIRAL_GAP = 1.5;   // pixels the spiral moves outwards per radian
+    private static final String[] PALETTE = {"#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd", "#8c564b"};
+
+    private WordCloudLayout() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static String renderSvg(List<WeightedWord> words, int width, int height) {
+        int cols = (width + CELL - 1) / CELL;
+        int rows = (height + CELL - 1) / CELL;
+        boolean[] occupied = new boolean[cols * rows];
+        // the spiral is stretched horizontally by width / height, so its radius is measured against the height
+        double maxRadius = height / Math.sqrt(2);
+
+        StringBuilder svg = new StringBuilder(128 + words.size() * 96);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height)
+                .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height)
+                .append("\" font-family=\"sans-serif\" text-anchor=\"middle\" dominant-baseline=\"central\">");
+
+        int placedCount = 0;
+        for (WeightedWord word : words) {
+            int size = fontSize(word.getWeight());
+            int boxWidth = (int) Math.ceil(word.getWord().length() * size * CHAR_WIDTH) + 2 * PADDING;
+            int boxHeight = size + 2 * PADDING;
+            if (boxWidth > width || boxHeight > height) {
+                continue;
+            }
+
+            double theta = 0;
+            for (double r = 0; r <= maxRadius; r = SPIRAL_GAP * theta) {
+                int cx = (int) Math.round(width / 2.0 + r * StrictMath.cos(theta) * width / height);
+                int cy = (int) Math.round(height / 2.0 + r * StrictMath.sin(theta));
+                int left = cx - boxWidth / 2;
+                int top = cy - boxHeight / 2;
+                boolean inside = left >= 0 && top >= 0 && left + boxWidth <= width && top + boxHeight <= height;
+                if (inside && fits(occupied, cols, left, top, boxWidth, boxHeight)) {
+                    mark(occupied, cols, left, top, boxWidth, boxHeight);
+                    svg.append("<text x=\"").append(cx).append("\" y=\"").append(cy)
+                            .append("\" font-size=\"").append(size)
+                            .append("\" fill=\"").append(PALETTE[placedCount % PALETTE.length]).append("\">")
+                            .append(escape(word.getWord())).append("</text>");
+                    placedCount++;
+                    break;
+                }
+                theta += r > 0 ? Math.min(ANGLE_STEP, MAX_ARC_STEP / r) : ANGLE_STEP;
+            }
+        }
+        return svg.append("</svg>").toString();
+    }
+
+    /**
+     * Font size for a min-max normalized weight, squashed through a sigmoid so mid-frequency words stay readable.
+     */
+    static int fontSize(double weight) {
+        double smooth = 1 / (1 + StrictMath.exp(-5 * (weight - 0.5)));
+        return (int) Math.round(MIN_FONT_SIZE + smooth * (MAX_FONT_SIZE - MIN_FONT_SIZE));
+    }
+
+    private static boolean fits(boolean[] occupied, int cols, int left, int top, int w, int h) {
+        for (int row = top / CELL, lastRow = (top + h - 1) / CELL; row <= lastRow; row++) {
+            for (int col = left / CELL, lastCol = (left + w - 1) / CELL; col <= lastCol; col++) {
+                if (occupied[row * cols + col]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void mark(boolean[] occupied, int cols, int left, int top, int w, int h) {
+        for (int row = top / CELL, lastRow = (top + h - 1) / CELL; row <= lastRow; row++) {
+            for (int col = left / CELL, lastCol = (left + w - 1) / CELL; col <= lastCol; col++) {
+                occupied[row * cols + col] = true;
+            }
+        }
+    }
+
+    private static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&apos;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package edu.usc.csci310.project.benchmark;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.model.WeightedTermVector;
+import edu.usc.csci310.project.util.IntCountMap;
+import edu.usc.csci310.project.util.TermBitmaps;
+import edu.usc.csci310.project.util.TfIdfWeighting;
+import org.openjdk.jmh.annotations.*;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full soulmate scan (one user against {@code users} others) per operation, by Jaccard on Roaring bitmaps
+ * and by TF-IDF cosine: a sparse merge of two sorted id arrays, a gather against the requester's dense vector,
+ * and the gather with each candidate weighed on the fly, which is what SoulmateService does per request.
+ *
+ * Users draw term ids from a pool of synthetic lyric words, so the id distribution is the same Zipf-like one
+ * as the other benchmarks without generating text for 100k users.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class CosineBenchmark {
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"1000"})
+    public int wordsPerUser;
+
+    private TermVector[] vectors;
+    private RoaringBitmap[] bitmaps;
+    private WeightedTermVector[] weighted;
+    private TfIdfWeighting weighting;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<String, Integer> dictionary = new HashMap<>();
+        int[] pool = new int[1 << 18];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = dictionary.computeIfAbsent(SyntheticLyrics.word(random).toLowerCase(), w -> dictionary.size());
+        }
+
+        vectors = new TermVector[users + 1];
+        bitmaps = new RoaringBitmap[users + 1];
+        TfIdfWeighting.Builder builder = TfIdfWeighting.builder();
+        for (int u = 0; u <= users; u++) {
+            IntCountMap counts = new IntCountMap(512);
+            for (int i = 0; i < wordsPerUser; i++) {
+                counts.add(pool[random.nextInt(pool.length)], 1);
+            }
+            vectors[u] = counts.toTermVector();
+            bitmaps[u] = TermBitmaps.of(vectors[u]);
+            builder.add(bitmaps[u]);
+        }
+        weighting = builder.build();
+        weighted = new WeightedTermVector[users + 1];
+        for (int u = 0; u <= users; u++) {
+            weighted[u] = weighting.weigh(vectors[u]);
+        }
+    }
+
+    @Benchmark
+    public double jaccardRoaring() {
+        RoaringBitmap mine = bitmaps[0];
+        double best = 0;
+        for (int u = 1; u <= users; u++) {
+            best = Math.max(best, TermBitmaps.jaccard(mine, bitmaps[u]));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double cosineSparseMerge() {
+        WeightedTermVector mine = weighted[0];
+        double best = 0;
+        for (int u = 1; u <= users; u++) {
+            best = Math.max(best, mine.cosine(weighted[u]));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double cosineDenseGather() {
+        float[] mine = weighted[0].toDense();
+        double best = 0;
+        for (int u = 1; u <= users; u++) {
+            best = Math.max(best, weighted[u].dot(mine));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double cosineWeighAndGather() {
+        float[] mine = weighting.weigh(vectors[0]).toDense();
+        double best = 0;
+        for (int u = 1; u <= users; u++) {
+            best = Math.max(best, weighting.weigh(vectors[u]).dot(mine));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,101 @@
+package edu.usc.csci310.project.benchmark;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.IntCountMap;
+import edu.usc.csci310.project.util.TermBitmaps;
+import org.openjdk.jmh.annotations.*;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One soulmate scan's worth of exact Jaccard scores (one user against {@code users} others):
+ * HashSet of words vs sorted term-id arrays ({@link TermVector#jaccard}) vs Roaring bitmaps ({@link TermBitmaps}).
+ * Term ids are handed out in first-seen order over synthetic lyrics, the way the terms table allocates them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JaccardBenchmark {
+
+    @Param({"500", "4000"})
+    public int wordsPerUser;
+
+    @Param({"1000"})
+    public int users;
+
+    private List<Set<String>> wordSets;
+    private List<TermVector> vectors;
+    private List<RoaringBitmap> bitmaps;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<String, Integer> dictionary = new HashMap<>();
+        wordSets = new ArrayList<>(users + 1);
+        vectors = new ArrayList<>(users + 1);
+        bitmaps = new ArrayList<>(users + 1);
+        for (int u = 0; u <= users; u++) {
+            Set<String> words = new HashSet<>();
+            IntCountMap counts = new IntCountMap(wordsPerUser);
+            for (int i = 0; i < wordsPerUser; i++) {
+                String word = SyntheticLyrics.word(random).toLowerCase();
+                words.add(word);
+                counts.add(dictionary.computeIfAbsent(word, w -> dictionary.size()), 1);
+            }
+            TermVector vector = counts.toTermVector();
+            wordSets.add(words);
+            vectors.add(vector);
+            bitmaps.add(TermBitmaps.of(vector));
+        }
+    }
+
+    @Benchmark
+    public double hashSetOfWords() {
+        Set<String> mine = wordSets.get(0);
+        double best = 0;
+        for (int u = 1; u <= users; u++) {
+            Set<String> other = wordSets.get(u);
+            Set<String> small = mine.size() <= other.size() ? mine : other;
+            Set<String> large = small == mine ? other : mine;
+            int shared = 0;
+            for (String word : small) {
+                if (large.contains(word)) {
+                    shared++;
+                }
+            }
+            best = Math.max(best, shared / (double) (mine.size() + other.size() - shared));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double sortedTermIds() {
+        TermVector mine = vectors.get(0);
+        double best = 0;
+        for (int u = 1; u <= users; u++) {
+            best = Math.max(best, mine.jaccard(vectors.get(u)));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double roaringPopcount() {
+        RoaringBitmap mine = bitmaps.get(0);
+        double best = 0;
+        for (int u = 1; u <= users; u++) {
+            best = Math.max(best, TermBitmaps.jaccard(mine, bitmaps.get(u)));
+        }
+        return best;
+    }
+}
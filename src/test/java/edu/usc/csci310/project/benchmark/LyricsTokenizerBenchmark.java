@@ -0,0 +1,56 @@
+package edu.usc.csci310.project.benchmark;
+
+import edu.usc.csci310.project.util.LyricsTokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word-map build over a user's favorites: the old regex pipeline vs {@link LyricsTokenizer}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LyricsTokenizerBenchmark {
+
+    private static final List<String> OLD_STOP_WORDS = List.copyOf(LyricsTokenizer.STOP_WORDS);
+
+    @Param({"25"})
+    public int songs;
+
+    private List<String> corpus;
+
+    @Setup
+    public void setUp() {
+        corpus = SyntheticLyrics.songs(songs, 42);
+    }
+
+    @Benchmark
+    public Map<String, Integer> regexSplitListLookup() {
+        Map<String, Integer> wordFreq = new HashMap<>();
+        for (String lyrics : corpus) {
+            String cleaned = lyrics.toLowerCase().replaceAll("[^a-zA-Z\\s]", "");
+            for (String word : cleaned.split("\\s+")) {
+                if (!OLD_STOP_WORDS.contains(word)) {
+                    wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
+                }
+            }
+        }
+        return wordFreq;
+    }
+
+    @Benchmark
+    public Map<String, Integer> singlePassTokenizer() {
+        Map<String, Integer> wordFreq = new HashMap<>();
+        for (String lyrics : corpus) {
+            LyricsTokenizer.countWords(lyrics, wordFreq);
+        }
+        return wordFreq;
+    }
+}
@@ -0,0 +1,123 @@
+package edu.usc.csci310.project.benchmark;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.IntCountMap;
+import edu.usc.csci310.project.util.LyricsTokenizer;
+import edu.usc.csci310.project.util.MinHash;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Recall of the MinHash/LSH soulmate search against the exact Jaccard scan, on synthetic users.
+ *
+ * Songs are split into genres and each user favorites mostly from one genre, so there are real neighbours
+ * to find among a shared background of common words. For a sample of users it compares the exact best
+ * match with the best exact-scored LSH candidate and reports recall@1, the LSH pick's score relative to the
+ * exact one, how much of the population the candidates were, and the time per query of both searches. This is a plain main because recall is not a
+ * timing; arguments are the number of users and of sampled queries (defaults 5,000 and 500).
+ */
+public final class MinHashRecallBenchmark {
+
+    private static final int SONGS = 4000;
+    private static final int GENRES = 40;
+    private static final int FAVORITES_PER_USER = 12;
+
+    private MinHashRecallBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        List<TermVector> songs = songVectors();
+        Random random = new Random(7);
+        TermVector[] users = new TermVector[userCount];
+        int[][] signatures = new int[userCount][];
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        for (int u = 0; u < userCount; u++) {
+            int genre = random.nextInt(GENRES);
+            IntCountMap words = new IntCountMap(1024);
+            for (int i = 0; i < FAVORITES_PER_USER; i++) {
+                // 80% from the user's genre, the rest from anywhere
+                int song = random.nextInt(5) < 4
+                        ? genre + GENRES * random.nextInt(SONGS / GENRES)
+                        : random.nextInt(SONGS);
+                words.addAll(songs.get(song));
+            }
+            users[u] = words.toTermVector();
+            signatures[u] = MinHash.signature(users[u]);
+            for (long key : MinHash.bandKeys(signatures[u])) {
+                buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(u);
+            }
+        }
+
+        int hits = 0;
+        double scoreRatio = 0;
+        long candidates = 0;
+        long exactNanos = 0;
+        long lshNanos = 0;
+        for (int q = 0; q < queries; q++) {
+            int me = random.nextInt(userCount);
+
+            long start = System.nanoTime();
+            double exact = -1;
+            for (int other = 0; other < userCount; other++) {
+                if (other != me) {
+                    exact = Math.max(exact, users[me].jaccard(users[other]));
+                }
+            }
+            exactNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            boolean[] seen = new boolean[userCount];
+            seen[me] = true;
+            double approximate = -1;
+            for (long key : MinHash.bandKeys(signatures[me])) {
+                for (int other : buckets.get(key)) {
+                    if (!seen[other]) {
+                        seen[other] = true;
+                        candidates++;
+                        approximate = Math.max(approximate, users[me].jaccard(users[other]));
+                    }
+                }
+            }
+            lshNanos += System.nanoTime() - start;
+
+            // a different user with the same score is as good a soulmate
+            if (approximate == exact) {
+                hits++;
+            }
+            scoreRatio += exact > 0 ? Math.max(approximate, 0) / exact : 1;
+        }
+
+        System.out.printf("%,d users, %,d queries, %d bands x %d rows%n", userCount, queries, MinHash.BANDS, MinHash.ROWS);
+        System.out.printf("recall@1                 %6.1f%%%n", 100.0 * hits / queries);
+        System.out.printf("match score vs exact     %6.1f%%%n", 100.0 * scoreRatio / queries);
+        System.out.printf("candidates per query     %6.1f%% of users%n", 100.0 * candidates / queries / (userCount - 1));
+        System.out.printf("exact scan               %8.2f ms/query%n", exactNanos / 1e6 / queries);
+        System.out.printf("LSH + exact re-rank      %8.2f ms/query%n", lshNanos / 1e6 / queries);
+    }
+
+    private static List<TermVector> songVectors() {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<TermVector> vectors = new ArrayList<>(SONGS);
+        List<String> lyrics = SyntheticLyrics.songs(SONGS, 42);
+        for (int s = 0; s < SONGS; s++) {
+            // each genre leans on its own slice of invented words on top of the shared hot list
+            Random random = new Random(s);
+            StringBuilder text = new StringBuilder(lyrics.get(s));
+            for (int i = 0; i < 120; i++) {
+                text.append(' ').append(SyntheticLyrics.tailWord(s % GENRES * 400 + random.nextInt(400)));
+            }
+            IntCountMap counts = new IntCountMap(256);
+            LyricsTokenizer.tokenize(text.toString(),
+                    word -> counts.add(dictionary.computeIfAbsent(word, w -> dictionary.size()), 1));
+            vectors.add(counts.toTermVector());
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,82 @@
+package edu.usc.csci310.project.benchmark;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.IntCountMap;
+import edu.usc.csci310.project.util.ParallelWordMaps;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold build of every user's word map (the same phases as FavoriteRepository.rebuildMissingWordMaps,
+ * with an in-memory dictionary standing in for the terms table) at different pool sizes.
+ * One operation builds all users' maps; multiply by users * songsPerUser for songs per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelWordMapBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int threads;
+
+    @Param({"200"})
+    public int users;
+
+    @Param({"25"})
+    public int songsPerUser;
+
+    private Map<String, String> lyricsBySong;
+    private Map<String, List<String>> songsByUser;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        List<String> corpus = SyntheticLyrics.songs(users * songsPerUser, 42);
+        lyricsBySong = new LinkedHashMap<>();
+        songsByUser = new LinkedHashMap<>();
+        for (int i = 0; i < corpus.size(); i++) {
+            lyricsBySong.put("song" + i, corpus.get(i));
+            songsByUser.computeIfAbsent("user" + (i % users), u -> new ArrayList<>()).add("song" + i);
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, TermVector> buildAllWordMaps() {
+        Map<String, Map<String, Integer>> counted = ParallelWordMaps.countSongs(lyricsBySong, pool);
+
+        // single-threaded, like registering terms through the one connection
+        Map<String, Integer> dictionary = new HashMap<>();
+        Map<String, TermVector> songVectors = new HashMap<>(counted.size() * 2);
+        counted.forEach((songId, words) -> {
+            IntCountMap counts = new IntCountMap(words.size());
+            words.forEach((word, count) -> counts.add(dictionary.computeIfAbsent(word, w -> dictionary.size()), count));
+            songVectors.put(songId, counts.toTermVector());
+        });
+
+        Map<String, List<TermVector>> vectorsByUser = new LinkedHashMap<>(songsByUser.size() * 2);
+        songsByUser.forEach((user, songIds) -> {
+            List<TermVector> vectors = new ArrayList<>(songIds.size());
+            for (String songId : songIds) {
+                vectors.add(songVectors.get(songId));
+            }
+            vectorsByUser.put(user, vectors);
+        });
+        return ParallelWordMaps.sumByUser(vectorsByUser, pool);
+    }
+}
@@ -0,0 +1,72 @@
+package edu.usc.csci310.project.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Lyrics-shaped text for benchmarks: section headers, mixed case, contractions, punctuation and a
+ * Zipf-like word distribution over a few thousand words, so hot words repeat the way choruses do.
+ */
+final class SyntheticLyrics {
+
+    private static final String[] COMMON = (
+            "I you the me my love and to a it in your oh we baby yeah don't know i'm be on all so like " +
+            "that just no can got what now heart night feel never time come go way down up tonight say " +
+            "want need let one right out back girl boy away more make dance over life world still " +
+            "dream fire light eyes home gonna wanna hold tell everything nothing rain sky alone forever"
+    ).split(" ");
+
+    private SyntheticLyrics() {
+    }
+
+    static List<String> songs(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> songs = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            songs.add(song(random, 250 + random.nextInt(250)));
+        }
+        return songs;
+    }
+
+    static String song(Random random, int words) {
+        StringBuilder sb = new StringBuilder(words * 6);
+        sb.append("[Verse 1]\n");
+        for (int i = 1; i <= words; i++) {
+            String word = word(random);
+            sb.append(i % 8 == 1 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            if (i % 8 == 0) {
+                sb.append(random.nextInt(4) == 0 ? ",\n" : "\n");
+            } else if (i % 60 == 0) {
+                sb.append("\n\n[Chorus]\n");
+            } else {
+                sb.append(random.nextInt(20) == 0 ? "! " : " ");
+            }
+        }
+        return sb.toString();
+    }
+
+    static String word(Random random) {
+        // ~70% from the hot list, the rest from a long tail of invented words
+        if (random.nextInt(10) < 7) {
+            int i = (int) Math.min(COMMON.length - 1, Math.abs(random.nextGaussian()) * COMMON.length / 3);
+            return COMMON[i];
+        }
+        int id = (int) Math.min(4999, Math.abs(random.nextGaussian()) * 1500);
+        return tailWord(id);
+    }
+
+    static String tailWord(int id) {
+        StringBuilder sb = new StringBuilder();
+        int n = id + 1;
+        String consonants = "bcdfghjklmnprstvwz";
+        String vowels = "aeiou";
+        while (n > 0) {
+            sb.append(consonants.charAt(n % consonants.length()));
+            n /= consonants.length();
+            sb.append(vowels.charAt(n % vowels.length()));
+            n /= vowels.length();
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package edu.usc.csci310.project.benchmark;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.IntCountMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Retained heap of many users' word maps in each in-memory representation.
+ *
+ * JMH measures time, not footprint, so this is a plain main: it builds the same synthetic users once
+ * per representation and reports the heap still in use after GC. Pass the user count as the first
+ * argument (default 10,000).
+ */
+public final class WordMapMemoryBenchmark {
+
+    private static final int WORDS_PER_USER = 4000;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private WordMapMemoryBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        // the shared dictionary is paid for once, whatever the number of users
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> terms = new ArrayList<>();
+        forEachUser(users, counts -> {
+            for (String word : counts.keySet()) {
+                if (!dictionary.containsKey(word)) {
+                    dictionary.put(word, terms.size());
+                    terms.add(word);
+                }
+            }
+            return null;
+        });
+
+        long boxed = measure(users, counts -> counts);
+        long interned = measure(users, counts -> {
+            Map<String, Integer> map = new HashMap<>();
+            counts.forEach((word, count) -> map.put(terms.get(dictionary.get(word)), count));
+            return map;
+        });
+        long openAddressing = measure(users, counts -> {
+            IntCountMap map = new IntCountMap(counts.size());
+            counts.forEach((word, count) -> map.add(dictionary.get(word), count));
+            return map;
+        });
+        long parallelArrays = measure(users, counts -> {
+            IntCountMap map = new IntCountMap(counts.size());
+            counts.forEach((word, count) -> map.add(dictionary.get(word), count));
+            return map.toTermVector();
+        });
+
+        System.out.printf("%,d users, %,d words in the shared dictionary%n", users, terms.size());
+        report("HashMap<String,Integer>, per-user strings", boxed, users, boxed);
+        report("HashMap<String,Integer>, interned strings", interned, users, boxed);
+        report("IntCountMap (open addressing)", openAddressing, users, boxed);
+        report("TermVector (sorted int[] pair)", parallelArrays, users, boxed);
+    }
+
+    private static long measure(int users, Function<Map<String, Integer>, Object> representation) throws InterruptedException {
+        List<Object> retained = new ArrayList<>(users);
+        long before = usedAfterGc();
+        forEachUser(users, counts -> retained.add(representation.apply(counts)));
+        long used = usedAfterGc() - before;
+        if (retained.size() != users) {
+            throw new IllegalStateException("lost users");
+        }
+        return used;
+    }
+
+    // each user's counts come with fresh String instances, the way tokenizing lyrics produces them
+    private static void forEachUser(int users, Function<Map<String, Integer>, ?> sink) {
+        Random random = new Random(42);
+        for (int u = 0; u < users; u++) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = 0; i < WORDS_PER_USER; i++) {
+                counts.merge(new String(SyntheticLyrics.word(random).toLowerCase().toCharArray()), 1, Integer::sum);
+            }
+            sink.apply(counts);
+        }
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void report(String name, long bytes, int users, long baseline) {
+        System.out.printf("%-45s %9.1f MB %8.0f B/user %6.1fx smaller%n",
+                name, bytes / 1e6, (double) bytes / users, (double) baseline / bytes);
+    }
+}
@@ -0,0 +1,147 @@
+package edu.usc.csci310.project.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GzipCompressionFilterTest {
+
+    private CompressionStats stats;
+    private GzipCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        stats = new CompressionStats();
+        filter = new GzipCompressionFilter(stats, 64, 1);
+    }
+
+    private static FilterChain writing(String body, String eTag) {
+        return (req, res) -> {
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setContentType("application/json");
+            if (eTag != null) {
+                http.setHeader(HttpHeaders.ETAG, eTag);
+            }
+            http.setContentLength(body.length());
+            http.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static MockHttpServletRequest request(String uri, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    @Test
+    void testCompressesLargeJsonWhenGzipAccepted() throws Exception {
+        String body = "{\"lyrics\":\"" + "love ".repeat(200) + "\"}";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/favorites/alice", "gzip, deflate, br"), response, writing(body, null));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        assertTrue(response.getContentAsByteArray().length < body.length());
+        assertEquals(body, gunzip(response.getContentAsByteArray()));
+
+        Map<String, Object> snapshot = stats.snapshot();
+        assertEquals(1L, snapshot.get("responsesCompressed"));
+        assertEquals((long) body.length(), snapshot.get("bytesIn"));
+        assertTrue((Long) snapshot.get("bytesSaved") > 0);
+    }
+
+    @Test
+    void testSmallBodyIsSentIdentity() throws Exception {
+        String body = "{\"ok\":true}";
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/favorites/alice", "gzip"), response, writing(body, null));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body.length(), response.getContentLength());
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void testNoCompressionWithoutAcceptEncoding() throws Exception {
+        String body = "x".repeat(500);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/favorites/alice", null), response, writing(body, null));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void testGzipRefusedWithZeroQuality() throws Exception {
+        assertFalse(GzipCompressionFilter.acceptsGzip(request("/api/x", "gzip;q=0, identity")));
+        assertTrue(GzipCompressionFilter.acceptsGzip(request("/api/x", "br;q=1.0, *;q=0.5")));
+        assertFalse(GzipCompressionFilter.acceptsGzip(request("/api/x", "br")));
+        assertTrue(GzipCompressionFilter.acceptsGzip(request("/api/x", "*;q=0, gzip")));
+        assertFalse(GzipCompressionFilter.acceptsGzip(request("/api/x", "*, gzip;q=0")));
+        assertFalse(GzipCompressionFilter.acceptsGzip(request("/api/x", "br, *;q=0")));
+    }
+
+    @Test
+    void testCachedProxyBodyIsReplayedWithoutRecompressing() throws Exception {
+        String body = "{\"hits\":[" + "{\"id\":1},".repeat(100) + "{\"id\":2}]}";
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request("/api/genius/search", "gzip"), first, writing(body, "\"abc\""));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(request("/api/genius/search", "gzip"), second, writing(body, "\"abc\""));
+
+        assertEquals("W/\"abc\"", second.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+        assertEquals(body, gunzip(second.getContentAsByteArray()));
+
+        Map<String, Object> snapshot = stats.snapshot();
+        assertEquals(1L, snapshot.get("responsesCompressed"));
+        assertEquals(1L, snapshot.get("cachedBodiesServed"));
+    }
+
+    @Test
+    void testNonBlockingWritesAreForwardedToTheRealStream() throws Exception {
+        ServletOutputStream real = mock(ServletOutputStream.class);
+        when(real.isReady()).thenReturn(false);
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return real;
+            }
+        };
+        WriteListener listener = mock(WriteListener.class);
+
+        filter.doFilter(request("/api/favorites/alice", "gzip"), response, (req, res) -> {
+            ServletOutputStream out = res.getOutputStream();
+            out.setWriteListener(listener);
+            assertFalse(out.isReady());
+        });
+
+        verify(real).setWriteListener(listener);
+    }
+}
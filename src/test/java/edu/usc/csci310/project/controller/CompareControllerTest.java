@@ -0,0 +1,65 @@
+package edu.usc.csci310.project.controller;
+
+import edu.usc.csci310.project.model.CompareRequest;
+import edu.usc.csci310.project.model.ComparedSong;
+import edu.usc.csci310.project.model.Comparison;
+import edu.usc.csci310.project.services.FavoriteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CompareControllerTest {
+
+    private FavoriteService favoriteService;
+    private CompareController compareController;
+
+    @BeforeEach
+    void setUp() {
+        favoriteService = mock(FavoriteService.class);
+        compareController = new CompareController(favoriteService);
+    }
+
+    @Test
+    void testCompare() {
+        Comparison comparison = new Comparison(
+                List.of(new ComparedSong(1, "s1", "One", "A", "2020", List.of("ann", "me"))),
+                List.of("ghost"), List.of());
+        when(favoriteService.compare("me", List.of("ann", "ghost"))).thenReturn(comparison);
+
+        ResponseEntity<Comparison> response = compareController.compare(new CompareRequest("me", List.of("ann", "ghost")));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(comparison, response.getBody());
+    }
+
+    @Test
+    void testPrivateUserIsForbiddenWithoutSongs() {
+        Comparison comparison = new Comparison(
+                List.of(new ComparedSong(1, "s1", "One", "A", "2020", List.of("me"))),
+                List.of(), List.of("cat"));
+        when(favoriteService.compare("me", List.of("cat"))).thenReturn(comparison);
+
+        ResponseEntity<Comparison> response = compareController.compare(new CompareRequest("me", List.of("cat")));
+
+        assertEquals(403, response.getStatusCode().value());
+        assertTrue(response.getBody().getSongs().isEmpty());
+        assertEquals(List.of("cat"), response.getBody().getPrivateUsers());
+    }
+
+    @Test
+    void testBadRequests() {
+        assertEquals(400, compareController.compare(new CompareRequest(null, List.of("ann"))).getStatusCode().value());
+        assertEquals(400, compareController.compare(new CompareRequest(" ", List.of("ann"))).getStatusCode().value());
+        assertEquals(400, compareController.compare(new CompareRequest("me", null)).getStatusCode().value());
+        List<String> tooMany = new ArrayList<>(Collections.nCopies(51, "ann"));
+        assertEquals(400, compareController.compare(new CompareRequest("me", tooMany)).getStatusCode().value());
+        verifyNoInteractions(favoriteService);
+    }
+}
@@ -1,6 +1,9 @@
 package edu.usc.csci310.project.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.repository.FavoriteRepository;
 import edu.usc.csci310.project.services.FavoriteService;
 
 import edu.usc.csci310.project.services.UserService;
@@ -10,6 +13,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 
 import java.lang.reflect.Field;
 import java.util.*;
@@ -135,69 +142,72 @@ public class FavoriteControllerTest {
         assertEquals(400, response.getStatusCodeValue());
         assertEquals("❌ Failed to swap ranks.", response.getBody());
     }
+    private void streamUsers(Map<String, List<FavoriteSong>> favorites, Map<String, Map<String, Integer>> wordMaps) throws IOException {
+        doAnswer(invocation -> {
+            FavoriteRepository.UserWordMapVisitor visitor = invocation.getArgument(2);
+            for (String username : favorites.keySet()) {
+                visitor.visit(username, favorites.get(username), wordMaps.get(username));
+            }
+            return null;
+        }).when(favoriteService).forEachUserWordMap(any(), any(), any());
+    }
+
+    private static JsonNode readBody(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return new ObjectMapper().readTree(out.toByteArray());
+    }
+
     @Test
-    public void testGetAllFavoritesWordMaps() {
-        // 1. Mock data setup
+    public void testGetAllFavoritesWordMaps() throws IOException {
         String username = "testuser";
-        List<String> usernames = List.of(username);
         List<FavoriteSong> favorites = List.of(
                 new FavoriteSong(username, "song123", "Hello", "http://song.url",
                         "http://image.url", "2023-01-01", "Artist A",
                         "Love love peace peace and harmony", 1)
         );
+        streamUsers(Map.of(username, favorites), Map.of(username, Map.of("love", 2, "peace", 2, "harmony", 1)));
 
-        // 2. Mock service methods
-        when(favoriteService.getAllUsersWithFavorites()).thenReturn(usernames);
-        when(favoriteService.getFavorites(username)).thenReturn(favorites);
-
-        // 3. Call the controller
-        ResponseEntity<Map<String, Map<String, Object>>> response = favoriteController.getAllFavoritesWordMaps();
+        ResponseEntity<StreamingResponseBody> response = favoriteController.getAllFavoritesWordMaps(null, null);
 
-        // 4. Assert top-level structure
         assertEquals(200, response.getStatusCodeValue());
-        assertNotNull(response.getBody());
-        assertTrue(response.getBody().containsKey(username));
-
-        Map<String, Object> userData = response.getBody().get(username);
-
-        // 5. Assert wordMap
-        assertTrue(userData.containsKey("wordMap"));
-        Map<String, Integer> wordMap = (Map<String, Integer>) userData.get("wordMap");
-        assertEquals(2, wordMap.get("love"));      // not a stop word
-        assertEquals(2, wordMap.get("peace"));     // not a stop word
-        assertEquals(1, wordMap.get("harmony"));   // not a stop word
-        assertNull(wordMap.get("and"));            // "and" is a stop word
-
-        // 6. Assert favorites list
-        assertTrue(userData.containsKey("favorites"));
-        List<FavoriteSong> returnedFavorites = (List<FavoriteSong>) userData.get("favorites");
-        assertEquals(1, returnedFavorites.size());
-        assertEquals("song123", returnedFavorites.get(0).getSongId());
-    }
-    @Test
-    public void testGenerateWordMapSkipsBlankWords() {
-        String username = "user6";
-        // Add extra spaces to ensure a blank string gets split out (like two consecutive spaces)
-        List<FavoriteSong> favorites = List.of(
-                new FavoriteSong(username, "song6", "BlankWordTest", "", "", "", "", "love  peace   ", 1)
-        );
-
-        when(favoriteService.getAllUsersWithFavorites()).thenReturn(List.of(username));
-        when(favoriteService.getFavorites(username)).thenReturn(favorites);
+        JsonNode userData = readBody(response).get(username);
+        assertNotNull(userData);
 
-        ResponseEntity<Map<String, Map<String, Object>>> response = favoriteController.getAllFavoritesWordMaps();
-        Map<String, Map<String, Object>> body = response.getBody();
+        JsonNode wordMap = userData.get("wordMap");
+        assertEquals(2, wordMap.get("love").asInt());
+        assertEquals(2, wordMap.get("peace").asInt());
+        assertEquals(1, wordMap.get("harmony").asInt());
+        assertNull(wordMap.get("and"));
 
-        Map<String, Integer> wordMap = (Map<String, Integer>) body.get(username).get("wordMap");
-
-        // Validate real words are counted
-        assertEquals(1, wordMap.get("love"));
-        assertEquals(1, wordMap.get("peace"));
+        JsonNode returnedFavorites = userData.get("favorites");
+        assertEquals(1, returnedFavorites.size());
+        assertEquals("song123", returnedFavorites.get(0).get("songId").asText());
+        verify(favoriteService, never()).getAllUsersWithFavorites();
+        verify(favoriteService, never()).getFavorites(anyString());
+    }
 
-        // Optional: Ensure no blank entry exists
-        assertFalse(wordMap.containsKey(""));
+    @Test
+    public void testGetAllFavoritesWordMapsStreamsUsersInOrderAndPassesCursor() throws IOException {
+        Map<String, List<FavoriteSong>> favorites = new LinkedHashMap<>();
+        favorites.put("bob", List.of(new FavoriteSong("bob", "s1", "T", "", "", "", "", "", 1)));
+        favorites.put("carol", List.of(new FavoriteSong("carol", "s2", "T", "", "", "", "", "", 1)));
+        streamUsers(favorites, Map.of("bob", Map.of("love", 1), "carol", Map.of()));
+
+        ResponseEntity<StreamingResponseBody> response = favoriteController.getAllFavoritesWordMaps("alice", 2);
+        JsonNode body = readBody(response);
+
+        List<String> names = new ArrayList<>();
+        body.fieldNames().forEachRemaining(names::add);
+        assertEquals(List.of("bob", "carol"), names);
+        assertEquals(1, body.get("bob").get("wordMap").get("love").asInt());
+        verify(favoriteService).forEachUserWordMap(eq("alice"), eq(2), any());
     }
 
+    @Test
+    public void testGetAllFavoritesWordMapsRejectsNonPositiveLimit() {
+        assertEquals(400, favoriteController.getAllFavoritesWordMaps(null, 0).getStatusCodeValue());
+    }
 
     @Test
     public void testGetPrivacy_SelfRequest_PrivateTrue() {
@@ -278,36 +288,5 @@ public class FavoriteControllerTest {
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(favorites, response.getBody());
     }
-    @Test
-    public void testGenerateWordMap_AllBranches() {
-        String username = "branchUser";
-
-        List<FavoriteSong> favorites = List.of(
-                new FavoriteSong(username, "song1", "Branch Test", "", "", "", "",
-                        "uniqueword and     the   \n\t", 1)
-                // Breakdown:
-                // "uniqueword" → not stop word, not blank         ✅ INCLUDE
-                // "and"        → is stop word, not blank           ❌
-                // "the"        → is stop word, not blank           ❌
-                // "\n\t"       → not stop word, IS blank           ❌
-        );
-
-        when(favoriteService.getAllUsersWithFavorites()).thenReturn(List.of(username));
-        when(favoriteService.getFavorites(username)).thenReturn(favorites);
-
-        ResponseEntity<Map<String, Map<String, Object>>> response = favoriteController.getAllFavoritesWordMaps();
-
-        assertEquals(200, response.getStatusCodeValue());
-
-        Map<String, Object> userData = response.getBody().get(username);
-        Map<String, Integer> wordMap = (Map<String, Integer>) userData.get("wordMap");
-
-        // ✅ Assert expected outcomes
-        assertEquals(1, wordMap.get("uniqueword"));         // ✅ Case 1: (!stop && !blank)
-        assertFalse(wordMap.containsKey("and"));            // ❌ Case 2: ( stop && !blank)
-        assertFalse(wordMap.containsKey("the"));            // ❌ Case 2: again
-        assertFalse(wordMap.containsKey(""));               // ❌ Case 3: (!stop && blank)
-    }
-
 
 }
@@ -452,6 +452,53 @@ public class GeniusProxyControllerTest {
                 .andExpect(content().string(mockResponse));
     }
 
+    @Test
+    void testSearchSongs_setsETagAndAnswers304OnMatch() throws Exception {
+        String body = "{ \"response\": { \"hits\": [] } }";
+        when(restTemplate.exchange(
+                eq("https://api.genius.com/search?q=etag&page=1"),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                eq(String.class)))
+                .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
+
+        String eTag = mockMvc.perform(get("/api/genius/search").param("q", "etag"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().string(body))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/genius/search").param("q", "etag")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetArtistSongs_revalidatesUpstreamWithGeniusValidators() throws Exception {
+        String url = "https://api.genius.com/artists/777/songs?sort=popularity&per_page=50&page=1";
+        String body = "{ \"response\": { \"songs\": [1] } }";
+
+        HttpHeaders upstream = new HttpHeaders();
+        upstream.setETag("\"genius-v1\"");
+        when(restTemplate.exchange(eq(url), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(body, upstream, HttpStatus.OK))
+                .thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+
+        String eTag = mockMvc.perform(get("/api/genius/artists/777/songs"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/genius/artists/777/songs"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(body));
+
+        verify(restTemplate).exchange(eq(url), eq(HttpMethod.GET),
+                argThat((HttpEntity<?> e) -> e != null && "\"genius-v1\"".equals(e.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))),
+                eq(String.class));
+    }
+
     @Test
     void testCombinedArtists_successfulMatch() throws Exception {
         String query = "Radiohead";
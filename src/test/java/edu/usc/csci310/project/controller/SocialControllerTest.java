@@ -42,18 +42,37 @@ class SocialControllerTest {
     void testGetMutuals_found() {
         String songId = "123";
         String rawUsername = "john";
-        String hashedUsername = "abc123";
 
-        when(userRepo.getHashedUsernameFromRaw("john")).thenReturn(Optional.of(hashedUsername));
-        when(favoriteRepo.findUsernamesBySongId(songId)).thenReturn(List.of(hashedUsername, "xyz789"));
-        when(userRepo.getRawUsernameFromHashed("xyz789")).thenReturn(Optional.of("jane"));
+        when(userRepo.getHashedUsernameFromRaw("john")).thenReturn(Optional.of("abc123"));
+        when(favoriteRepo.findRawUsernamesBySongIds(List.of(songId), rawUsername))
+                .thenReturn(Map.of(songId, List.of("jane")));
 
         ResponseEntity<List<String>> response = controller.getMutuals(songId, rawUsername);
 
         assertEquals(200, response.getStatusCodeValue());
-        assertNotNull(response.getBody());
-        assertTrue(response.getBody().contains("jane"));
-        assertFalse(response.getBody().contains("john"));
+        assertEquals(List.of("jane"), response.getBody());
+        verify(userRepo, never()).getRawUsernameFromHashed(anyString());
+    }
+
+    @Test
+    void testGetMutualsForSongs() {
+        Map<String, List<String>> mutuals = Map.of("1", List.of("jane"), "2", List.of());
+        when(userRepo.getHashedUsernameFromRaw("john")).thenReturn(Optional.of("abc123"));
+        when(favoriteRepo.findRawUsernamesBySongIds(List.of("1", "2"), "john")).thenReturn(mutuals);
+
+        ResponseEntity<Map<String, List<String>>> response = controller.getMutualsForSongs(List.of("1", "2"), "john");
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertSame(mutuals, response.getBody());
+    }
+
+    @Test
+    void testGetMutualsForSongs_unknownUserOrTooManySongs() {
+        when(userRepo.getHashedUsernameFromRaw("nonexistent")).thenReturn(Optional.empty());
+
+        assertEquals(404, controller.getMutualsForSongs(List.of("1"), "nonexistent").getStatusCodeValue());
+        assertEquals(400, controller.getMutualsForSongs(Collections.nCopies(101, "1"), "john").getStatusCodeValue());
+        verifyNoInteractions(favoriteRepo);
     }
 
     @Test
@@ -0,0 +1,113 @@
+package edu.usc.csci310.project.controller;
+
+import edu.usc.csci310.project.model.LyricalMatch;
+import edu.usc.csci310.project.model.MatchPage;
+import edu.usc.csci310.project.model.RankedMatch;
+import edu.usc.csci310.project.model.SimilarityMetric;
+import edu.usc.csci310.project.model.SoulmateResult;
+import edu.usc.csci310.project.services.SoulmateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SoulmateControllerTest {
+
+    private SoulmateService soulmateService;
+    private SoulmateController soulmateController;
+
+    @BeforeEach
+    void setUp() {
+        soulmateService = mock(SoulmateService.class);
+        soulmateController = new SoulmateController(soulmateService);
+        when(soulmateService.isKnownUser(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void testUnknownUserIsNotFound() {
+        when(soulmateService.isKnownUser("ghost")).thenReturn(false);
+
+        assertEquals(404, soulmateController.getSoulmate("ghost", "jaccard").getStatusCode().value());
+        assertEquals(404, soulmateController.getRanking("ghost", "most", "jaccard", null, 10).getStatusCode().value());
+        assertEquals(404, soulmateController.getApproximateSoulmate("ghost").getStatusCode().value());
+        verify(soulmateService, never()).findMatches(anyString(), any());
+        verify(soulmateService, never()).rank(anyString(), any(), anyBoolean(), any(), anyInt());
+        verify(soulmateService, never()).findSoulmateApproximate(anyString());
+    }
+
+    @Test
+    void testGetSoulmate() {
+        SoulmateResult result = new SoulmateResult(new LyricalMatch("ann", 0.5, true), new LyricalMatch("ben", 0.1, false));
+        when(soulmateService.findMatches("me", SimilarityMetric.JACCARD)).thenReturn(Optional.of(result));
+
+        ResponseEntity<SoulmateResult> response = soulmateController.getSoulmate("me", "jaccard");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(result, response.getBody());
+    }
+
+    @Test
+    void testNoContentWhenNobodyToMatch() {
+        when(soulmateService.findMatches("me", SimilarityMetric.JACCARD)).thenReturn(Optional.empty());
+
+        assertEquals(204, soulmateController.getSoulmate("me", "jaccard").getStatusCode().value());
+    }
+
+    @Test
+    void testGetSoulmateByCosine() {
+        SoulmateResult result = new SoulmateResult(new LyricalMatch("ann", 0.7, true), new LyricalMatch("ben", 0.0, true));
+        when(soulmateService.findMatches("me", SimilarityMetric.COSINE)).thenReturn(Optional.of(result));
+
+        ResponseEntity<SoulmateResult> response = soulmateController.getSoulmate("me", "Cosine");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(result, response.getBody());
+    }
+
+    @Test
+    void testUnknownMetricIsBadRequest() {
+        assertEquals(400, soulmateController.getSoulmate("me", "euclid").getStatusCode().value());
+        verifyNoInteractions(soulmateService);
+    }
+
+    @Test
+    void testGetRanking() {
+        MatchPage page = new MatchPage(List.of(new RankedMatch(3, "ann", 0.5)), "next");
+        when(soulmateService.rank("me", SimilarityMetric.JACCARD, false, "cursor", 1)).thenReturn(page);
+
+        ResponseEntity<MatchPage> response = soulmateController.getRanking("me", "least", "jaccard", "cursor", 1);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(page, response.getBody());
+    }
+
+    @Test
+    void testRankingRejectsBadParameters() {
+        when(soulmateService.rank("me", SimilarityMetric.COSINE, true, "garbage", 10))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        assertEquals(400, soulmateController.getRanking("me", "sideways", "jaccard", null, 10).getStatusCode().value());
+        assertEquals(400, soulmateController.getRanking("me", "most", "euclid", null, 10).getStatusCode().value());
+        assertEquals(400, soulmateController.getRanking("me", "most", "jaccard", null, 0).getStatusCode().value());
+        assertEquals(400, soulmateController.getRanking("me", "most", "jaccard", null, 101).getStatusCode().value());
+        assertEquals(400, soulmateController.getRanking("me", "most", "cosine", "garbage", 10).getStatusCode().value());
+    }
+
+    @Test
+    void testGetApproximateSoulmate() {
+        LyricalMatch match = new LyricalMatch("ann", 0.5, true);
+        when(soulmateService.findSoulmateApproximate("me")).thenReturn(Optional.of(match));
+        when(soulmateService.findSoulmateApproximate("you")).thenReturn(Optional.empty());
+
+        ResponseEntity<LyricalMatch> response = soulmateController.getApproximateSoulmate("me");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(match, response.getBody());
+        assertEquals(204, soulmateController.getApproximateSoulmate("you").getStatusCode().value());
+    }
+}
@@ -0,0 +1,145 @@
+package edu.usc.csci310.project.controller;
+
+import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.HighlightRanges;
+import edu.usc.csci310.project.model.RenderedCloud;
+import edu.usc.csci310.project.model.SongOccurrence;
+import edu.usc.csci310.project.model.WeightedWord;
+import edu.usc.csci310.project.model.WordCloud;
+import edu.usc.csci310.project.services.UserService;
+import edu.usc.csci310.project.services.WordCloudService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WordCloudControllerTest {
+
+    private WordCloudService wordCloudService;
+    private UserService userService;
+    private WordCloudController wordCloudController;
+
+    @BeforeEach
+    void setUp() {
+        wordCloudService = mock(WordCloudService.class);
+        userService = mock(UserService.class);
+        wordCloudController = new WordCloudController(wordCloudService, userService);
+    }
+
+    @Test
+    void testGetTopWordsForUser() {
+        List<WeightedWord> words = List.of(new WeightedWord("love", 3, 1.0));
+        when(wordCloudService.topWordsForUser("alice", 50, false)).thenReturn(words);
+
+        ResponseEntity<?> response = wordCloudController.getTopWordsForUser("alice", "bob", 50, false);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(words, response.getBody());
+    }
+
+    @Test
+    void testPrivateFavoritesAreHiddenFromOthers() {
+        when(userService.isFavoritesPrivate("alice")).thenReturn(true);
+        when(wordCloudService.topWordsForUser("alice", 50, false)).thenReturn(List.of());
+
+        assertEquals(403, wordCloudController.getTopWordsForUser("alice", "bob", 50, false).getStatusCode().value());
+        assertEquals(403, wordCloudController.getSongsForWord("alice", "bob", "love").getStatusCode().value());
+        assertEquals(200, wordCloudController.getTopWordsForUser("alice", "alice", 50, false).getStatusCode().value());
+        assertEquals(403, wordCloudController.getSvg("alice", "bob", false, 100, false, 800, 600).getStatusCode().value());
+        verify(wordCloudService, never()).songsForWord(anyString(), anyString());
+        verify(wordCloudService, never()).renderSvg(anyString(), anyBoolean(), anyInt(), anyBoolean(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetTopWordsForSongs() {
+        List<WeightedWord> words = List.of(new WeightedWord("rain", 2, 1.0));
+        when(wordCloudService.topWordsForSongs(List.of("s1", "s2"), 10, true)).thenReturn(words);
+
+        ResponseEntity<List<WeightedWord>> response = wordCloudController.getTopWordsForSongs(List.of("s1", "s2"), 10, true);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(words, response.getBody());
+    }
+
+    @Test
+    void testRejectsOutOfRangeK() {
+        assertEquals(400, wordCloudController.getTopWordsForUser("alice", "alice", 0, false).getStatusCode().value());
+        assertEquals(400, wordCloudController.getTopWordsForSongs(List.of("s1"), 5000, false).getStatusCode().value());
+        verifyNoInteractions(wordCloudService);
+    }
+
+    @Test
+    void testGetSongsForWord() {
+        List<SongOccurrence> songs = List.of(new SongOccurrence("s1", "T", "A", 2));
+        when(wordCloudService.songsForWord("alice", "love")).thenReturn(songs);
+        when(wordCloudService.songsForWord(List.of("s1"), "love")).thenReturn(songs);
+
+        assertSame(songs, wordCloudController.getSongsForWord("alice", "alice", "love").getBody());
+        assertSame(songs, wordCloudController.getSongsForWord(List.of("s1"), "love").getBody());
+        assertEquals(400, wordCloudController.getSongsForWord("alice", "alice", " ").getStatusCode().value());
+        assertEquals(400, wordCloudController.getSongsForWord(List.of("s1"), "").getStatusCode().value());
+    }
+
+    @Test
+    void testGetHighlights() {
+        HighlightRanges highlights = new HighlightRanges("s1", "love", new int[]{0, 4});
+        when(wordCloudService.highlights("s1", "loving")).thenReturn(highlights);
+
+        assertSame(highlights, wordCloudController.getHighlights("s1", "loving").getBody());
+        assertEquals(400, wordCloudController.getHighlights("s1", "").getStatusCode().value());
+    }
+
+    @Test
+    void testGetSavedCloud() {
+        WordCloud cloud = new WordCloud("alice", List.of(), List.of(new WeightedWord("rain", 2, 1.0)));
+        when(wordCloudService.getSavedCloud("alice", 100, true)).thenReturn(cloud);
+
+        assertSame(cloud, wordCloudController.getSavedCloud("alice", 100, true).getBody());
+        assertEquals(400, wordCloudController.getSavedCloud("alice", 0, false).getStatusCode().value());
+    }
+
+    @Test
+    void testAddToSavedCloud() {
+        FavoriteSong song = new FavoriteSong("alice", "s1", "T", "u", "i", "2023", "A", "rain", 1);
+        when(wordCloudService.addToCloud(song)).thenReturn(true, false);
+
+        assertEquals(200, wordCloudController.addToSavedCloud(song).getStatusCode().value());
+        assertEquals(409, wordCloudController.addToSavedCloud(song).getStatusCode().value());
+    }
+
+    @Test
+    void testRemoveFromAndClearSavedCloud() {
+        when(wordCloudService.removeFromCloud("alice", "s1")).thenReturn(true);
+        when(wordCloudService.clearCloud("alice")).thenReturn(2);
+
+        assertEquals(200, wordCloudController.removeFromSavedCloud("alice", "s1").getStatusCode().value());
+        assertEquals(404, wordCloudController.removeFromSavedCloud("alice", "s9").getStatusCode().value());
+        assertEquals(2, wordCloudController.clearSavedCloud("alice").getBody());
+    }
+
+    @Test
+    void testGetSvg() {
+        RenderedCloud rendered = new RenderedCloud("\"abc-100-word-800x600\"", "<svg></svg>");
+        when(wordCloudService.renderSvg("alice", false, 100, false, 800, 600)).thenReturn(rendered);
+
+        ResponseEntity<String> response = wordCloudController.getSvg("alice", "alice", false, 100, false, 800, 600);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("<svg></svg>", response.getBody());
+        assertEquals("image/svg+xml", response.getHeaders().getContentType().toString());
+        assertEquals("\"abc-100-word-800x600\"", response.getHeaders().getETag());
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void testGetSvgRejectsBadSizes() {
+        assertEquals(400, wordCloudController.getSvg("alice", "alice", false, 100, false, 50, 600).getStatusCode().value());
+        assertEquals(400, wordCloudController.getSvg("alice", "alice", false, 100, false, 800, 5000).getStatusCode().value());
+        assertEquals(400, wordCloudController.getSvg("alice", "alice", false, 0, false, 800, 600).getStatusCode().value());
+        verifyNoInteractions(wordCloudService);
+    }
+}
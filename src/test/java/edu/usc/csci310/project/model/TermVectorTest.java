@@ -0,0 +1,48 @@
+package edu.usc.csci310.project.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TermVectorTest {
+
+    @Test
+    public void testFromCountsSortsAndDropsNonPositive() {
+        TermVector vector = TermVector.fromCounts(Map.of(9, 1, 2, 4, 5, 0));
+
+        assertArrayEquals(new int[]{2, 9}, vector.getTermIds());
+        assertArrayEquals(new int[]{4, 1}, vector.getCounts());
+        assertEquals(5, vector.totalCount());
+    }
+
+    @Test
+    public void testPlusAndMinus() {
+        TermVector a = TermVector.fromCounts(Map.of(1, 2, 3, 1));
+        TermVector b = TermVector.fromCounts(Map.of(2, 5, 3, 1));
+
+        TermVector sum = a.plus(b);
+        assertEquals(TermVector.fromCounts(Map.of(1, 2, 2, 5, 3, 2)), sum);
+        assertEquals(a, sum.minus(b));
+        assertTrue(a.minus(a).isEmpty());
+    }
+
+    @Test
+    public void testMismatchedArraysRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TermVector(new int[]{1}, new int[0]));
+    }
+
+    @Test
+    public void testJaccardIgnoresCounts() {
+        TermVector a = TermVector.fromCounts(Map.of(1, 5, 2, 1, 3, 1));
+        TermVector b = TermVector.fromCounts(Map.of(2, 9, 3, 1, 4, 1, 5, 1));
+
+        assertEquals(2, a.sharedTerms(b));
+        assertEquals(2.0 / 5, a.jaccard(b), 1e-12);
+        assertEquals(a.jaccard(b), b.jaccard(a));
+        assertEquals(1.0, a.jaccard(a));
+        assertEquals(0.0, TermVector.EMPTY.jaccard(TermVector.EMPTY));
+        assertEquals(0.0, a.jaccard(TermVector.EMPTY));
+    }
+}
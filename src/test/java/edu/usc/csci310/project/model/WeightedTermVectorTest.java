@@ -0,0 +1,61 @@
+package edu.usc.csci310.project.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightedTermVectorTest {
+
+    private static WeightedTermVector randomVector(Random random, int size, int range) {
+        TreeSet<Integer> ids = new TreeSet<>();
+        while (ids.size() < size) {
+            ids.add(random.nextInt(range));
+        }
+        int[] termIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        float[] weights = new float[termIds.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = random.nextFloat();
+        }
+        return new WeightedTermVector(termIds, weights);
+    }
+
+    @Test
+    public void testCosineIsTheDotProductOverSharedIds() {
+        WeightedTermVector a = new WeightedTermVector(new int[]{1, 3, 7}, new float[]{0.6f, 0.8f, 0f});
+        WeightedTermVector b = new WeightedTermVector(new int[]{3, 4, 7}, new float[]{0.5f, 0.5f, 0.5f});
+
+        assertEquals(0.8 * 0.5, a.cosine(b), 1e-6);
+        assertEquals(a.cosine(b), b.cosine(a));
+        assertEquals(0.0, a.cosine(WeightedTermVector.EMPTY));
+        assertEquals(0.0, WeightedTermVector.EMPTY.cosine(WeightedTermVector.EMPTY));
+    }
+
+    @Test
+    public void testDenseGatherMatchesSparseMergeExactly() {
+        Random random = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            WeightedTermVector a = randomVector(random, random.nextInt(400), 5000);
+            WeightedTermVector b = randomVector(random, random.nextInt(400), 5000);
+
+            assertEquals(a.cosine(b), b.dot(a.toDense()));
+            assertEquals(a.cosine(b), a.dot(b.toDense()));
+        }
+    }
+
+    @Test
+    public void testToDenseScattersWeightsByTermId() {
+        WeightedTermVector vector = new WeightedTermVector(new int[]{0, 4}, new float[]{0.25f, 0.75f});
+
+        assertArrayEquals(new float[]{0.25f, 0, 0, 0, 0.75f}, vector.toDense());
+        assertEquals(0, WeightedTermVector.EMPTY.toDense().length);
+        assertEquals(0.0, vector.dot(WeightedTermVector.EMPTY.toDense()));
+    }
+
+    @Test
+    public void testMismatchedArraysRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new WeightedTermVector(new int[]{1}, new float[0]));
+    }
+}
@@ -1,11 +1,19 @@
 package edu.usc.csci310.project.repository;
 
+import edu.usc.csci310.project.model.ComparedSong;
+import edu.usc.csci310.project.model.Comparison;
 import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.TermVectorCodec;
 import org.junit.jupiter.api.*;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -15,10 +23,19 @@ class FavoriteRepositoryTest {
     private Connection connection;
     private FavoriteRepository repository;
 
+    // wired like the beans: one term dictionary and word map store per connection
+    private static FavoriteRepository repositoryOn(Connection connection) {
+        return new FavoriteRepository(connection, new TermRepository(connection), wordMapsOn(connection));
+    }
+
+    private static WordMapRepository wordMapsOn(Connection connection) {
+        return new WordMapRepository(connection, new MinHashRepository(connection));
+    }
+
     @BeforeEach
     void setup() throws SQLException {
         connection = DriverManager.getConnection("jdbc:sqlite::memory:");
-        repository = new FavoriteRepository(connection);
+        repository = repositoryOn(connection);
 
         try (Statement stmt = connection.createStatement()) {
             stmt.executeUpdate("""
@@ -36,6 +53,17 @@ class FavoriteRepositoryTest {
                     UNIQUE (username, song_id)
                 )
             """);
+            stmt.executeUpdate("CREATE TABLE terms (id INTEGER PRIMARY KEY, term TEXT UNIQUE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE song_terms (song_id TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE song_stems (song_id TEXT NOT NULL, stem_id INTEGER NOT NULL, " +
+                    "count INTEGER NOT NULL, PRIMARY KEY (song_id, stem_id))");
+            stmt.executeUpdate("CREATE TABLE song_token_offsets (song_id TEXT NOT NULL, stem_id INTEGER NOT NULL, " +
+                    "offsets BLOB NOT NULL, PRIMARY KEY (song_id, stem_id))");
+            stmt.executeUpdate("CREATE TABLE user_wordmaps (username TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE user_vocabularies (username TEXT PRIMARY KEY, bitmap BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE user_minhash (username TEXT PRIMARY KEY, signature BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE minhash_buckets (band INTEGER NOT NULL, bucket INTEGER NOT NULL, " +
+                    "username TEXT NOT NULL, PRIMARY KEY (band, bucket, username))");
         }
     }
 
@@ -58,7 +86,7 @@ class FavoriteRepositoryTest {
     @Test
     void testAddFavoriteSQLException() throws Exception {
         Connection mockConn = mock(Connection.class);
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Insert error"));
 
         boolean result = repo.addFavorite("user", "song", "t", "u", "i", "d", "a", "l");
@@ -74,7 +102,7 @@ class FavoriteRepositoryTest {
     @Test
     void testGetFavoritesSQLException() throws Exception {
         Connection mockConn = mock(Connection.class);
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Select error"));
 
         List<FavoriteSong> result = repo.getFavorites("user");
@@ -96,7 +124,7 @@ class FavoriteRepositoryTest {
     @Test
     void testRemoveFavoriteSQLException() throws Exception {
         Connection mockConn = mock(Connection.class);
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Delete error"));
 
         boolean result = repo.removeFavorite("user", "song");
@@ -116,7 +144,7 @@ class FavoriteRepositoryTest {
         Connection mockConn = mock(Connection.class);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Swap error"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         assertFalse(repo.swapRanks("user", 1, 2));
     }
 
@@ -125,7 +153,7 @@ class FavoriteRepositoryTest {
         Connection mockConn = mock(Connection.class);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Rank error"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         boolean result = repo.addFavorite("user", "id", "t", "u", "i", "d", "a", "l");
         // Just trigger the private method and avoid exception propagation.
         assertTrue(result || !result);
@@ -134,20 +162,22 @@ class FavoriteRepositoryTest {
     @Test
     void testAutoCommitResetFailureHandled() throws Exception {
         Connection mockConn = mock(Connection.class);
+        when(mockConn.getAutoCommit()).thenReturn(true);
         doThrow(new SQLException("Reset autoCommit fail")).when(mockConn).setAutoCommit(true);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Trigger rollback"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         assertFalse(repo.swapRanks("user", 1, 2));
     }
 
     @Test
     void testRollbackFailureHandled() throws Exception {
         Connection mockConn = mock(Connection.class);
+        when(mockConn.getAutoCommit()).thenReturn(true);
         doThrow(new SQLException("Rollback fail")).when(mockConn).rollback();
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Trigger rollback"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         assertFalse(repo.swapRanks("user", 1, 2));
     }
 
@@ -156,7 +186,7 @@ class FavoriteRepositoryTest {
         Connection mockConn = mock(Connection.class);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Boom"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         // Directly call the private getNextRank method using reflection
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
@@ -176,7 +206,7 @@ class FavoriteRepositoryTest {
         when(mockStmt.executeQuery()).thenReturn(mockRs);
         when(mockRs.next()).thenReturn(false); // simulate no results
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         // Invoke getNextRank indirectly via addFavorite to ensure no exception is thrown.
         boolean result = repo.addFavorite("user", "id", "t", "u", "i", "d", "a", "l");
@@ -222,7 +252,7 @@ class FavoriteRepositoryTest {
         when(mockRs.next()).thenReturn(true);
         when(mockRs.getInt(1)).thenReturn(5);
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
         method.setAccessible(true);
@@ -244,7 +274,7 @@ class FavoriteRepositoryTest {
         // Simulate a negative value (-1); (-1 + 1 = 0, so Math.max(0, 1) should return 1)
         when(mockRs.getInt(1)).thenReturn(-1);
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
         method.setAccessible(true);
@@ -264,7 +294,7 @@ class FavoriteRepositoryTest {
         when(mockStmt.executeQuery()).thenReturn(mockRs);
         when(mockRs.next()).thenReturn(false); // simulate no results
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
         method.setAccessible(true);
@@ -281,7 +311,7 @@ class FavoriteRepositoryTest {
         // ...but throw an exception when executeQuery() is called.
         when(mockStmt.executeQuery()).thenThrow(new SQLException("Execute query error"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
         method.setAccessible(true);
         int result = (int) method.invoke(repo, "user");
@@ -300,7 +330,7 @@ class FavoriteRepositoryTest {
         when(mockRs.next()).thenReturn(true);
         when(mockRs.getInt(1)).thenReturn(2); // simulate existing max rank
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
         method.setAccessible(true);
         int result = (int) method.invoke(repo, "user");
@@ -318,7 +348,7 @@ class FavoriteRepositoryTest {
         when(mockStmt.executeQuery()).thenReturn(mockRs);
         when(mockRs.next()).thenReturn(false); // no row returned
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
         method.setAccessible(true);
@@ -342,7 +372,7 @@ class FavoriteRepositoryTest {
         // Force ResultSet.close() to throw exception
         doThrow(new SQLException("ResultSet close failed")).when(mockRs).close();
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         // Act (using reflection to access private method)
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
@@ -367,7 +397,7 @@ class FavoriteRepositoryTest {
         // Force PreparedStatement.close() to throw exception
         doThrow(new SQLException("Statement close failed")).when(mockStmt).close();
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         // Act
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
@@ -395,7 +425,7 @@ class FavoriteRepositoryTest {
         doThrow(new SQLException("ResultSet close failed")).when(mockRs).close();
         doThrow(new SQLException("Statement close failed")).when(mockStmt).close();
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
 
         // Act
         Method method = FavoriteRepository.class.getDeclaredMethod("getNextRank", String.class);
@@ -434,41 +464,81 @@ class FavoriteRepositoryTest {
         Connection mockConn = mock(Connection.class);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Boom"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         List<FavoriteSong> result = repo.findByUsername("user");
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
     @Test
-    void testFindUsernamesBySongIdReturnsUsers() throws SQLException {
-        repository.addFavorite("user1", "sharedSong", "Title", "url", "img", "2023", "Artist", "lyrics");
-        repository.addFavorite("user2", "sharedSong", "Title", "url", "img", "2023", "Artist", "lyrics");
+    void testFindRawUsernamesBySongIds() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE users (username TEXT, raw_username TEXT, favorites_private INTEGER)");
+            stmt.executeUpdate("INSERT INTO users VALUES ('h1', 'me', 0), ('h2', 'ann', 0), ('h3', 'ben', 1)");
+        }
+        repository.addFavorite("me", "s1", "Title", "url", "img", "2023", "Artist", "lyrics");
+        repository.addFavorite("ben", "s1", "Title", "url", "img", "2023", "Artist", "lyrics");
+        repository.addFavorite("ann", "s1", "Title", "url", "img", "2023", "Artist", "lyrics");
+        repository.addFavorite("ann", "s2", "Title", "url", "img", "2023", "Artist", "lyrics");
+        repository.addFavorite("deleted", "s2", "Title", "url", "img", "2023", "Artist", "lyrics");
 
-        List<String> users = repository.findUsernamesBySongId("sharedSong");
+        Map<String, List<String>> fans = repository.findRawUsernamesBySongIds(List.of("s2", "s1", "s3"), "me");
 
-        assertEquals(2, users.size());
-        assertTrue(users.contains("user1"));
-        assertTrue(users.contains("user2"));
+        assertEquals(List.of("s2", "s1", "s3"), new ArrayList<>(fans.keySet()));
+        assertEquals(List.of("ann"), fans.get("s1")); // ben's favorites are private
+        assertEquals(List.of("ann"), fans.get("s2")); // no account, no name
+        assertTrue(fans.get("s3").isEmpty());
+        assertTrue(repository.findRawUsernamesBySongIds(List.of(), "me").isEmpty());
     }
 
     @Test
-    void testFindUsernamesBySongIdSQLExceptionHandled() throws SQLException {
+    void testFindRawUsernamesBySongIdsSQLExceptionHandled() throws SQLException {
         Connection mockConn = mock(Connection.class);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Fail"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
-        List<String> result = repo.findUsernamesBySongId("song123");
+        Map<String, List<String>> fans = repositoryOn(mockConn).findRawUsernamesBySongIds(List.of("s1"), "me");
 
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertEquals(Map.of("s1", List.of()), fans);
+    }
+
+    @Test
+    void testFindSongIdsAndPublicFavorites() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE users (username TEXT, raw_username TEXT, favorites_private INTEGER)");
+            stmt.executeUpdate("INSERT INTO users VALUES ('h1', 'user1', 0), ('h2', 'user2', 1), ('h3', 'user3', NULL)");
+        }
+        repository.addFavorite("user1", "s1", "Title", "url", "img", "2023", "Artist", "lyrics");
+        repository.addFavorite("user1", "s2", "Title", "url", "img", "2023", "Artist", "lyrics");
+        repository.addFavorite("user2", "s1", "Title", "url", "img", "2023", "Artist", "lyrics");
+        repository.addFavorite("user3", "s3", "Title", "url", "img", "2023", "Artist", "lyrics");
+
+        assertEquals(Set.of("s1", "s2"), Set.copyOf(repository.findSongIds("user1")));
+        assertTrue(repository.findSongIds("nobody").isEmpty());
+
+        List<String> visited = new ArrayList<>();
+        repository.forEachPublicFavorite((username, songId) -> visited.add(username + "/" + songId));
+        assertEquals(Set.of("user1/s1", "user1/s2", "user3/s3"), Set.copyOf(visited));
+        assertEquals(3, visited.size());
+    }
+
+    @Test
+    void testFindSongIdsAndPublicFavoritesSQLExceptionHandled() throws SQLException {
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Fail"));
+        FavoriteRepository repo = repositoryOn(mockConn);
+
+        assertTrue(repo.findSongIds("user1").isEmpty());
+        List<String> visited = new ArrayList<>();
+        repo.forEachPublicFavorite((username, songId) -> visited.add(songId));
+        assertTrue(visited.isEmpty());
     }
+
     @Test
     void testGetAllUsersWithFavoritesSQLExceptionHandled() throws SQLException {
         Connection mockConn = mock(Connection.class);
         when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Fail"));
 
-        FavoriteRepository repo = new FavoriteRepository(mockConn);
+        FavoriteRepository repo = repositoryOn(mockConn);
         List<String> usernames = repo.getAllUsersWithFavorites();
 
         assertNotNull(usernames);
@@ -501,6 +571,376 @@ class FavoriteRepositoryTest {
         assertEquals("user1", usernames.get(0));
     }
 
+    @Test
+    void testAddFavoriteStoresSongVectorOnce() throws SQLException {
+        repository.addFavorite("user1", "song1", "T", "u", "i", "2023", "A", "Love love peace and harmony");
+        repository.addFavorite("user2", "song1", "T", "u", "i", "2023", "A", "Love love peace and harmony");
 
-}
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM song_terms WHERE song_id = 'song1'")) {
+            assertEquals(1, rs.getInt(1));
+        }
+        assertEquals(java.util.Map.of("love", 2, "peace", 1, "harmony", 1), repository.getWordMap("user2"));
+    }
+
+    @Test
+    void testGetWordMapMergesVectorsAndSkipsBlanksAndStopWords() {
+        repository.addFavorite("user1", "song1", "T", "u", "i", "2023", "A", "uniqueword and     the   \n\t");
+        repository.addFavorite("user1", "song2", "T", "u", "i", "2023", "A", "  love  peace   uniqueword");
+
+        java.util.Map<String, Integer> wordMap = repository.getWordMap("user1");
+
+        assertEquals(2, wordMap.get("uniqueword"));
+        assertEquals(1, wordMap.get("love"));
+        assertEquals(1, wordMap.get("peace"));
+        assertFalse(wordMap.containsKey("and"));
+        assertFalse(wordMap.containsKey("the"));
+        assertFalse(wordMap.containsKey(""));
+    }
+
+    @Test
+    void testGetWordMapBackfillsLegacyFavorites() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, lyrics, rank) " +
+                    "VALUES ('old', 'legacy', 'T', 'u', 'i', 'Hello hello world', 1)");
+        }
+
+        assertEquals(java.util.Map.of("hello", 2, "world", 1), repository.getWordMap("old"));
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM song_terms WHERE song_id = 'legacy'")) {
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testGetWordMapFallsBackToLyricsWhenVectorCannotBeStored() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE terms");
+        }
+        repository.addFavorite("user1", "song1", "T", "u", "i", "2023", "A", "Rain rain go away");
+
+        assertEquals(java.util.Map.of("rain", 2, "go", 1, "away", 1), repository.getWordMap("user1"));
+    }
+
+    @Test
+    void testGetWordMapSQLException() throws Exception {
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Select error"));
+
+        assertTrue(repositoryOn(mockConn).getWordMap("user").isEmpty());
+    }
+
+    @Test
+    void testWordMapIsMaintainedByDeltaOnAddAndRemove() {
+        WordMapRepository wordMaps = wordMapsOn(connection);
+        repository.addFavorite("user1", "song1", "T", "u", "i", "2023", "A", "sun sun moon");
+        repository.addFavorite("user1", "song2", "T", "u", "i", "2023", "A", "moon stars");
+
+        assertTrue(wordMaps.find("user1").isPresent());
+        assertEquals(java.util.Map.of("sun", 2, "moon", 2, "stars", 1), repository.getWordMap("user1"));
+
+        assertTrue(repository.removeFavorite("user1", "song1"));
+        assertEquals(java.util.Map.of("moon", 1, "stars", 1), repository.getWordMap("user1"));
+
+        assertTrue(repository.removeFavorite("user1", "song2"));
+        assertTrue(wordMaps.find("user1").get().isEmpty());
+        assertTrue(repository.getWordMap("user1").isEmpty());
+    }
+
+    @Test
+    void testGetWordMapReadsMaterializedRowWithoutScanningFavorites() throws SQLException {
+        repository.addFavorite("user1", "song1", "T", "u", "i", "2023", "A", "echo echo");
+        try (Statement stmt = connection.createStatement()) {
+            // if the read touched favorites this row would show up in the result
+            stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, lyrics, rank) " +
+                    "VALUES ('user1', 'sneaky', 'T', 'u', 'i', 'hidden', 2)");
+        }
+
+        assertEquals(java.util.Map.of("echo", 2), repository.getWordMap("user1"));
+    }
+
+    @Test
+    void testRemoveFavoriteWithoutSongVectorDropsWordMap() throws SQLException {
+        WordMapRepository wordMaps = wordMapsOn(connection);
+        repository.addFavorite("user1", "song1", "T", "u", "i", "2023", "A", "alpha beta");
+        repository.addFavorite("user1", "song2", "T", "u", "i", "2023", "A", "gamma");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM song_terms WHERE song_id = 'song2'");
+        }
+
+        assertTrue(repository.removeFavorite("user1", "song2"));
+        assertTrue(wordMaps.find("user1").isEmpty());
+        assertEquals(java.util.Map.of("alpha", 1, "beta", 1), repository.getWordMap("user1"));
+        assertTrue(wordMaps.find("user1").isPresent());
+    }
+
+    @Test
+    void testWordMapRepositorySQLExceptionsAreHandled() throws Exception {
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Word map error"));
+        WordMapRepository wordMaps = wordMapsOn(mockConn);
+
+        assertTrue(wordMaps.find("user").isEmpty());
+        assertFalse(wordMaps.applyDelta("user", edu.usc.csci310.project.model.TermVector.EMPTY, 1));
+        assertDoesNotThrow(() -> wordMaps.save("user", edu.usc.csci310.project.model.TermVector.EMPTY));
+        assertDoesNotThrow(() -> wordMaps.delete("user"));
+    }
+
+    @Test
+    void testForEachUserWordMapVisitsUsersInOrderWithRankedFavorites() throws Exception {
+        repository.addFavorite("carol", "song3", "T", "u", "i", "2023", "A", "night");
+        repository.addFavorite("alice", "song1", "T", "u", "i", "2023", "A", "day day");
+        repository.addFavorite("alice", "song2", "T", "u", "i", "2023", "A", "night");
+        repository.addFavorite("bob", "song2", "T", "u", "i", "2023", "A", "night");
+
+        List<String> visited = new java.util.ArrayList<>();
+        repository.forEachUserWordMap(null, null, (username, favorites, wordMap) -> {
+            visited.add(username);
+            if (username.equals("alice")) {
+                assertEquals(List.of("song1", "song2"), favorites.stream().map(FavoriteSong::getSongId).toList());
+                assertEquals(java.util.Map.of("day", 2, "night", 1), wordMap);
+            }
+        });
+
+        assertEquals(List.of("alice", "bob", "carol"), visited);
+    }
+
+    @Test
+    void testForEachUserWordMapPagesByUsernameCursor() throws Exception {
+        for (String user : List.of("u1", "u2", "u3", "u4")) {
+            repository.addFavorite(user, "song1", "T", "u", "i", "2023", "A", "x");
+            repository.addFavorite(user, "song2", "T", "u", "i", "2023", "A", "y");
+        }
+
+        List<String> page = new java.util.ArrayList<>();
+        repository.forEachUserWordMap("u1", 2, (username, favorites, wordMap) -> {
+            assertEquals(2, favorites.size());
+            page.add(username);
+        });
+
+        assertEquals(List.of("u2", "u3"), page);
+    }
+
+    @Test
+    void testForEachUserWordMapRebuildsMissingWordMap() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, lyrics, rank) " +
+                    "VALUES ('old', 'legacy', 'T', 'u', 'i', 'Hello hello', 1)");
+        }
+
+        java.util.Map<String, java.util.Map<String, Integer>> seen = new java.util.HashMap<>();
+        repository.forEachUserWordMap(null, null, (username, favorites, wordMap) -> seen.put(username, wordMap));
+
+        assertEquals(java.util.Map.of("old", java.util.Map.of("hello", 2)), seen);
+        assertTrue(wordMapsOn(connection).find("old").isPresent());
+    }
+
+    @Test
+    void testForEachUserWordMapSQLException() throws Exception {
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Scan error"));
+
+        List<String> visited = new java.util.ArrayList<>();
+        IOException thrown = assertThrows(IOException.class, () ->
+                repositoryOn(mockConn).forEachUserWordMap(null, null, (username, favorites, wordMap) -> visited.add(username)));
+        assertInstanceOf(SQLException.class, thrown.getCause());
+        assertTrue(visited.isEmpty());
+    }
+
+    @Test
+    void testForEachUserWordMapFailingMidScanThrows() throws Exception {
+        Connection mockConn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(mockConn.prepareStatement(anyString())).thenReturn(stmt);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true).thenThrow(new SQLException("Disk I/O error"));
+        when(rs.getString("username")).thenReturn("u1");
+        when(rs.getBytes("wordmap")).thenReturn(TermVectorCodec.encode(TermVector.EMPTY));
+
+        assertThrows(IOException.class, () ->
+                repositoryOn(mockConn).forEachUserWordMap(null, null, (username, favorites, wordMap) -> { }));
+    }
+
+    @Test
+    void testGetWordVectorMatchesWordMap() {
+        repository.addFavorite("user1", "song1", "T", "u", "i", "2023", "A", "sun moon sun");
+        repository.addFavorite("user1", "song2", "T", "u", "i", "2023", "A", "moon stars");
+        TermRepository terms = new TermRepository(connection);
+
+        edu.usc.csci310.project.model.TermVector vector = repository.getWordVector("user1");
+
+        assertEquals(repository.getWordMap("user1"), terms.toWordMap(vector));
+        assertEquals(5, vector.totalCount());
+    }
+
+    @Test
+    void testGetWordVectorRebuildsWhenNotMaterialized() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, lyrics, rank) " +
+                    "VALUES ('old', 'legacy', 'T', 'u', 'i', 'Hello hello world', 1)");
+        }
+
+        assertEquals(3, repository.getWordVector("old").totalCount());
+        assertTrue(wordMapsOn(connection).find("old").isPresent());
+    }
+
+    @Test
+    void testGetWordVectorOfANameWithoutFavoritesStoresNothing() {
+        assertTrue(repository.getWordVector("ghost").isEmpty());
+        assertTrue(repository.getWordMap("ghost").isEmpty());
+        assertTrue(wordMapsOn(connection).find("ghost").isEmpty());
+    }
+
+    @Test
+    void testRebuildMissingWordMapsMatchesPerUserRebuild() throws SQLException {
+        List<String> words = List.of("alpha", "beta", "gamma", "delta", "omega");
+        repository.addFavorite("fresh", "song1", "T", "u", "i", "2023", "A", "sun moon");
+        try (Statement stmt = connection.createStatement()) {
+            for (int i = 0; i < 30; i++) {
+                // legacy rows: no song vector and no word map, spread over enough songs to fork
+                stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, lyrics, rank) " +
+                        "VALUES ('user" + (i % 7) + "', 'legacy" + i + "', 'T', 'u', 'i', '" + words.get(i % 5) + " sun', " + (i + 1) + ")");
+            }
+            stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, lyrics, rank) " +
+                    "VALUES ('user0', 'song1', 'T', 'u', 'i', 'sun moon', 99)");
+        }
 
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+        try {
+            assertEquals(7, repository.rebuildMissingWordMaps(pool));
+            assertEquals(0, repository.rebuildMissingWordMaps(pool));
+        } finally {
+            pool.shutdown();
+        }
+
+        WordMapRepository wordMaps = wordMapsOn(connection);
+        java.util.Map<String, java.util.Map<String, Integer>> bulk = new java.util.HashMap<>();
+        for (int u = 0; u < 7; u++) {
+            assertTrue(wordMaps.find("user" + u).isPresent());
+            bulk.put("user" + u, repository.getWordMap("user" + u));
+            wordMaps.delete("user" + u);
+        }
+        for (int u = 0; u < 7; u++) {
+            assertEquals(bulk.get("user" + u), repository.getWordMap("user" + u));
+        }
+        assertEquals(java.util.Map.of("alpha", 1, "beta", 1, "gamma", 1, "delta", 1, "omega", 1, "sun", 6, "moon", 1),
+                bulk.get("user0"));
+    }
+
+    @Test
+    void testRebuildWaitsForAFavoriteAndItsDelta() throws Exception {
+        WordMapRepository wordMaps = spy(wordMapsOn(connection));
+        FavoriteRepository locked = new FavoriteRepository(connection, new TermRepository(connection), wordMaps);
+        locked.addFavorite("ann", "s1", "T", "u", "i", "2023", "A", "red blue");
+        wordMaps.delete("ann");
+        Thread reader = new Thread(() -> locked.getWordMap("ann"));
+        doAnswer(invocation -> {
+            // a read rebuilding the map while the song's row is in but its delta is not
+            reader.start();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (reader.getState() != Thread.State.BLOCKED && reader.getState() != Thread.State.TERMINATED
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(Thread.State.BLOCKED, reader.getState());
+            return invocation.callRealMethod();
+        }).when(wordMaps).applyDelta(eq("ann"), any(), eq(1));
+
+        assertTrue(locked.addFavorite("ann", "s2", "T", "u", "i", "2023", "A", "green red"));
+        reader.join();
+
+        assertEquals(Map.of("red", 2, "blue", 1, "green", 1), locked.getWordMap("ann"));
+    }
+
+    @Test
+    void testRebuildMissingWordMapsKeepsFavoritesChangedDuringTheBuild() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, lyrics, rank) VALUES " +
+                    "('ann', 'a1', 'T', 'u', 'i', 'red blue', 1), ('ann', 'a2', 'T', 'u', 'i', 'green', 2), " +
+                    "('ben', 'b1', 'T', 'u', 'i', 'red', 1), ('cat', 'c1', 'T', 'u', 'i', 'blue', 1)");
+        }
+        TermRepository terms = spy(new TermRepository(connection));
+        FavoriteRepository building = new FavoriteRepository(connection, terms, wordMapsOn(connection));
+        doAnswer(invocation -> {
+            // requests served while the maps are summed
+            building.removeFavorite("ann", "a2");
+            building.addFavorite("ben", "b2", "T", "u", "i", "2023", "A", "green");
+            return invocation.callRealMethod();
+        }).when(terms).saveCountedSongs(any());
+
+        assertEquals(1, building.rebuildMissingWordMaps(java.util.concurrent.ForkJoinPool.commonPool()));
+
+        assertEquals(java.util.Map.of("red", 1, "blue", 1), building.getWordMap("ann"));
+        assertEquals(java.util.Map.of("red", 1, "green", 1), building.getWordMap("ben"));
+        assertEquals(java.util.Map.of("blue", 1), building.getWordMap("cat"));
+    }
+
+    @Test
+    void testRebuildMissingWordMapsSQLException() throws Exception {
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Scan error"));
+
+        assertEquals(0, repositoryOn(mockConn).rebuildMissingWordMaps(java.util.concurrent.ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    void testCompareFavoritesRanksSongsByFans() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE users (username TEXT, raw_username TEXT, favorites_private INTEGER)");
+            stmt.executeUpdate("INSERT INTO users VALUES ('h1', 'me', 1), ('h2', 'ann', 0), ('h3', 'ben', NULL), " +
+                    "('h4', 'cat', 1), ('h5', 'dan', 0)");
+        }
+        repository.addFavorite("me", "s1", "One", "url", "img", "2020", "A", "lyrics");
+        repository.addFavorite("me", "s2", "Two", "url", "img", "2021", "B", "lyrics");
+        repository.addFavorite("ann", "s1", "One", "url", "img", "2020", "A", "lyrics");
+        repository.addFavorite("ann", "s3", "Three", "url", "img", "2022", "C", "lyrics");
+        repository.addFavorite("ben", "s1", "One", "url", "img", "2020", "A", "lyrics");
+        repository.addFavorite("ben", "s3", "Three", "url", "img", "2022", "C", "lyrics");
+        repository.addFavorite("cat", "s2", "Two", "url", "img", "2021", "B", "lyrics");
+        repository.addFavorite("dan", "s4", "Four", "url", "img", "2023", "D", "lyrics");
+
+        Comparison comparison = repository.compareFavorites("me", List.of("me", "ben", "ann", "cat", "ghost"));
+
+        List<ComparedSong> songs = comparison.getSongs();
+        assertEquals(List.of("s1", "s3", "s2"), songs.stream().map(ComparedSong::getSongId).toList());
+        assertEquals(List.of(1, 2, 3), songs.stream().map(ComparedSong::getRank).toList());
+        assertEquals(List.of("ann", "ben", "me"), songs.get(0).getUsers());
+        assertEquals(List.of("me"), songs.get(2).getUsers()); // cat is private, the requester is not to themselves
+        assertEquals("One", songs.get(0).getTitle());
+        assertEquals("A", songs.get(0).getArtistName());
+        assertEquals("2020", songs.get(0).getReleaseDate());
+        assertEquals(List.of("ghost"), comparison.getMissingUsers());
+        assertEquals(List.of("cat"), comparison.getPrivateUsers());
+    }
+
+    @Test
+    void testCompareFavoritesTiesShareARank() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE users (username TEXT, raw_username TEXT, favorites_private INTEGER)");
+            stmt.executeUpdate("INSERT INTO users VALUES ('h1', 'me', 0), ('h2', 'ann', 0)");
+        }
+        repository.addFavorite("me", "s1", "B side", "url", "img", "2020", "A", "lyrics");
+        repository.addFavorite("ann", "s2", "A side", "url", "img", "2020", "A", "lyrics");
+        repository.addFavorite("ann", "s3", "C side", "url", "img", "2020", "A", "lyrics");
+        repository.addFavorite("me", "s3", "C side", "url", "img", "2020", "A", "lyrics");
+
+        List<ComparedSong> songs = repository.compareFavorites("me", List.of("me", "ann")).getSongs();
+
+        assertEquals(List.of("s3", "s2", "s1"), songs.stream().map(ComparedSong::getSongId).toList());
+        assertEquals(List.of(1, 2, 2), songs.stream().map(ComparedSong::getRank).toList());
+    }
+
+    @Test
+    void testCompareFavoritesWithNobodyOrSQLException() throws SQLException {
+        assertTrue(repository.compareFavorites("me", List.of()).getSongs().isEmpty());
+
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Fail"));
+        Comparison comparison = repositoryOn(mockConn).compareFavorites("me", List.of("me"));
+
+        assertTrue(comparison.getSongs().isEmpty());
+        assertTrue(comparison.getMissingUsers().isEmpty());
+        assertTrue(comparison.getPrivateUsers().isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.MatchRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MatchRepositoryTest {
+
+    private MatchRepository matches;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE user_matches (username TEXT PRIMARY KEY, soulmate TEXT, " +
+                    "soulmate_score REAL NOT NULL, enemy TEXT, enemy_score REAL NOT NULL)");
+        }
+        matches = new MatchRepository(connection);
+    }
+
+    @Test
+    void testSaveFindAndReplace() {
+        matches.saveAll(List.of(new MatchRow("ann", "ben", 0.75, "cat", 0.1), new MatchRow("ben", null, 0, null, 0)));
+
+        MatchRow ann = matches.find("ann").orElseThrow();
+        assertEquals("ben", ann.getSoulmate());
+        assertEquals(0.75, ann.getSoulmateScore());
+        assertEquals("cat", ann.getEnemy());
+        assertEquals(0.1, ann.getEnemyScore());
+        assertTrue(matches.find("ben").orElseThrow().isEmpty());
+
+        matches.saveAll(List.of(new MatchRow("ann", "dan", 0.9, "cat", 0.1)));
+        Map<String, MatchRow> all = matches.findAll();
+        assertEquals(List.of("ann", "ben"), List.copyOf(all.keySet()));
+        assertEquals("dan", all.get("ann").getSoulmate());
+    }
+
+    @Test
+    void testReplaceAllDropsRowsNotInTheNewSet() {
+        matches.saveAll(List.of(new MatchRow("ann", "ben", 0.5, "ben", 0.5), new MatchRow("ben", "ann", 0.5, "ann", 0.5)));
+
+        matches.replaceAll(List.of(new MatchRow("cat", "ann", 0.2, "ann", 0.2)));
+
+        assertEquals(List.of("cat"), List.copyOf(matches.findAll().keySet()));
+        matches.replaceAll(List.of());
+        assertTrue(matches.findAll().isEmpty());
+    }
+
+    @Test
+    void testDelete() {
+        matches.saveAll(List.of(new MatchRow("ann", "ben", 0.5, "ben", 0.5)));
+
+        matches.delete("ann");
+
+        assertTrue(matches.find("ann").isEmpty());
+        assertTrue(matches.findAll().isEmpty());
+    }
+
+    @Test
+    void testSQLExceptionsAreSwallowed() throws SQLException {
+        Connection broken = mock(Connection.class);
+        when(broken.prepareStatement(anyString())).thenThrow(new SQLException("DB error"));
+        MatchRepository repo = new MatchRepository(broken);
+
+        assertTrue(repo.find("ann").isEmpty());
+        assertTrue(repo.findAll().isEmpty());
+        assertDoesNotThrow(() -> repo.saveAll(List.of(new MatchRow("ann", null, 0, null, 0))));
+        assertDoesNotThrow(() -> repo.replaceAll(List.of()));
+        assertDoesNotThrow(() -> repo.delete("ann"));
+    }
+}
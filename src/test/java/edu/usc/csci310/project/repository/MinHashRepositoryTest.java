@@ -0,0 +1,152 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.util.MinHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MinHashRepositoryTest {
+
+    private Connection connection;
+    private MinHashRepository minHashes;
+    private WordMapRepository wordMaps;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT UNIQUE NOT NULL, " +
+                    "raw_username TEXT UNIQUE NOT NULL, password TEXT NOT NULL, failed_login_attempts INTEGER DEFAULT 0, " +
+                    "account_locked INTEGER DEFAULT 0, lock_time TIMESTAMP DEFAULT NULL, favorites_private INTEGER DEFAULT 0)");
+            stmt.executeUpdate("CREATE TABLE favorites (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT NOT NULL, " +
+                    "song_id TEXT NOT NULL, title TEXT NOT NULL, url TEXT NOT NULL, image_url TEXT NOT NULL, " +
+                    "release_date TEXT, artist_name TEXT, lyrics TEXT, rank INTEGER NOT NULL, UNIQUE (username, song_id))");
+            stmt.executeUpdate("CREATE TABLE user_wordmaps (username TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE user_vocabularies (username TEXT PRIMARY KEY, bitmap BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE user_minhash (username TEXT PRIMARY KEY, signature BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE minhash_buckets (band INTEGER NOT NULL, bucket INTEGER NOT NULL, " +
+                    "username TEXT NOT NULL, PRIMARY KEY (band, bucket, username))");
+        }
+        minHashes = new MinHashRepository(connection);
+        wordMaps = new WordMapRepository(connection, minHashes);
+    }
+
+    private void user(String raw, boolean isPrivate) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO users (username, raw_username, password, favorites_private) VALUES ('h-" + raw +
+                    "', '" + raw + "', 'p', " + (isPrivate ? 1 : 0) + ")");
+            stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, rank) " +
+                    "VALUES ('" + raw + "', 's1', 'T', 'u', 'i', 1)");
+        }
+    }
+
+    private static TermVector range(int from, int to) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int id = from; id < to; id++) {
+            counts.put(id, 1);
+        }
+        return TermVector.fromCounts(counts);
+    }
+
+    private int bucketRows(String username) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT COUNT(*) FROM minhash_buckets WHERE username = ?")) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void testWordMapWritesMaintainSignatures() throws SQLException {
+        wordMaps.save("alice", range(0, 100));
+
+        assertArrayEquals(MinHash.signature(range(0, 100)), minHashes.findSignature("alice").orElseThrow());
+        assertEquals(MinHash.BANDS, bucketRows("alice"));
+
+        wordMaps.applyDelta("alice", range(100, 200), 1);
+        assertArrayEquals(MinHash.signature(range(0, 200)), minHashes.findSignature("alice").orElseThrow());
+        assertEquals(MinHash.BANDS, bucketRows("alice"));
+
+        wordMaps.delete("alice");
+        assertTrue(minHashes.findSignature("alice").isEmpty());
+        assertEquals(0, bucketRows("alice"));
+    }
+
+    @Test
+    void testFindCandidatesReturnsPublicCollidingUsers() throws SQLException {
+        user("alice", false);
+        user("bob", false);
+        user("carol", true);
+        user("dave", false);
+        wordMaps.save("alice", range(0, 100));
+        wordMaps.save("bob", range(0, 100));
+        wordMaps.save("carol", range(0, 100));
+        wordMaps.save("dave", range(5000, 5100));
+
+        assertEquals(List.of("bob"), minHashes.findCandidates("alice", MinHash.signature(range(0, 100))));
+        assertEquals(List.of("alice", "bob"), minHashes.findCandidates("zed", MinHash.signature(range(0, 95))));
+    }
+
+    @Test
+    void testEmptyWordSetsAreNotBucketed() throws SQLException {
+        user("alice", false);
+        user("bob", false);
+        wordMaps.saveAll(Map.of("alice", TermVector.EMPTY, "bob", TermVector.EMPTY));
+
+        assertTrue(minHashes.findSignature("bob").isPresent());
+        assertEquals(0, bucketRows("bob"));
+        assertEquals(List.of(), minHashes.findCandidates("alice", MinHash.signature(TermVector.EMPTY)));
+    }
+
+    @Test
+    void testIndexMissingSignsOldWordMaps() throws SQLException {
+        wordMaps.save("old", range(0, 10));
+        minHashes.delete("old"); // as if stored before signatures existed
+        wordMaps.save("new", range(0, 10));
+
+        assertEquals(1, minHashes.indexMissing());
+        assertArrayEquals(MinHash.signature(range(0, 10)), minHashes.findSignature("old").orElseThrow());
+        assertEquals(0, minHashes.indexMissing());
+    }
+
+    @Test
+    void testSQLExceptionsAreSwallowed() throws SQLException {
+        Connection broken = mock(Connection.class);
+        when(broken.prepareStatement(anyString())).thenThrow(new SQLException("DB error"));
+        MinHashRepository repo = new MinHashRepository(broken);
+        int[] signature = MinHash.signature(range(0, 10));
+
+        assertTrue(repo.findSignature("alice").isEmpty());
+        assertEquals(List.of(), repo.findCandidates("alice", signature));
+        assertEquals(0, repo.indexMissing());
+        assertDoesNotThrow(() -> repo.save("alice", range(0, 10)));
+        assertDoesNotThrow(() -> repo.delete("alice"));
+    }
+
+    @Test
+    void testSaveAllWritesNothingWhenBucketsCannotBeStored() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE minhash_buckets");
+        }
+
+        minHashes.saveAll(Map.of("alice", range(0, 10)));
+
+        assertTrue(minHashes.findSignature("alice").isEmpty());
+        assertTrue(connection.getAutoCommit());
+    }
+}
@@ -0,0 +1,135 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.SongOccurrence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class StemIndexRepositoryTest {
+
+    private Connection connection;
+    private FavoriteRepository favorites;
+    private StemIndexRepository index;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE favorites (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT NOT NULL, " +
+                    "song_id TEXT NOT NULL, title TEXT NOT NULL, url TEXT NOT NULL, image_url TEXT NOT NULL, " +
+                    "release_date TEXT, artist_name TEXT, lyrics TEXT, rank INTEGER NOT NULL, UNIQUE (username, song_id))");
+            stmt.executeUpdate("CREATE TABLE terms (id INTEGER PRIMARY KEY, term TEXT UNIQUE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE song_terms (song_id TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE song_stems (song_id TEXT NOT NULL, stem_id INTEGER NOT NULL, " +
+                    "count INTEGER NOT NULL, PRIMARY KEY (song_id, stem_id))");
+            stmt.executeUpdate("CREATE TABLE song_token_offsets (song_id TEXT NOT NULL, stem_id INTEGER NOT NULL, " +
+                    "offsets BLOB NOT NULL, PRIMARY KEY (song_id, stem_id))");
+            stmt.executeUpdate("CREATE TABLE user_wordmaps (username TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE user_vocabularies (username TEXT PRIMARY KEY, bitmap BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE user_minhash (username TEXT PRIMARY KEY, signature BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE minhash_buckets (band INTEGER NOT NULL, bucket INTEGER NOT NULL, " +
+                    "username TEXT NOT NULL, PRIMARY KEY (band, bucket, username))");
+        }
+        TermRepository terms = new TermRepository(connection);
+        favorites = new FavoriteRepository(connection, terms, new WordMapRepository(connection, new MinHashRepository(connection)));
+        index = new StemIndexRepository(connection, terms);
+    }
+
+    @Test
+    void testFindFavoriteSongsSortedByOccurrences() {
+        favorites.addFavorite("alice", "s1", "One", "u", "i", "2023", "A", "love me");
+        favorites.addFavorite("alice", "s2", "Two", "u", "i", "2023", "B", "loving you loved you love");
+        favorites.addFavorite("alice", "s3", "Three", "u", "i", "2023", "C", "nothing here");
+        favorites.addFavorite("bob", "s4", "Four", "u", "i", "2023", "D", "love love love love");
+
+        List<SongOccurrence> songs = index.findFavoriteSongs("alice", "love");
+
+        assertEquals(List.of("s2", "s1"), songs.stream().map(SongOccurrence::getSongId).toList());
+        assertEquals(3, songs.get(0).getCount());
+        assertEquals("Two", songs.get(0).getTitle());
+        assertEquals("B", songs.get(0).getArtistName());
+    }
+
+    @Test
+    void testRemovedFavoritesDropOutOfTheIndexView() {
+        favorites.addFavorite("alice", "s1", "One", "u", "i", "2023", "A", "night night");
+        favorites.addFavorite("alice", "s2", "Two", "u", "i", "2023", "A", "nights");
+
+        favorites.removeFavorite("alice", "s1");
+
+        assertEquals(List.of("s2"), index.findFavoriteSongs("alice", "night").stream().map(SongOccurrence::getSongId).toList());
+        assertTrue(index.findFavoriteSongs("alice", "unknownstem").isEmpty());
+    }
+
+    @Test
+    void testFindSongsRestrictsToGivenSet() {
+        favorites.addFavorite("alice", "s1", "One", "u", "i", "2023", "A", "dance dance");
+        favorites.addFavorite("alice", "s2", "Two", "u", "i", "2023", "A", "dancing");
+        favorites.addFavorite("alice", "s3", "Three", "u", "i", "2023", "A", "dancer dances danced");
+
+        List<SongOccurrence> songs = index.findSongs(List.of("s1", "s2"), "danc");
+
+        assertEquals(List.of("s1", "s2"), songs.stream().map(SongOccurrence::getSongId).toList());
+        assertNull(songs.get(0).getTitle());
+        assertTrue(index.findSongs(List.of(), "danc").isEmpty());
+    }
+
+    @Test
+    void testSongsIndexedBeforeTheIndexAreBackfilled() throws SQLException {
+        favorites.addFavorite("alice", "s1", "One", "u", "i", "2023", "A", "rain rain");
+        favorites.addFavorite("alice", "s2", "Two", "u", "i", "2023", "A", "raining");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM song_stems");
+        }
+
+        assertEquals(2, index.findFavoriteSongs("alice", "rain").size());
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM song_stems");
+        }
+        assertEquals(2, index.findSongs(List.of("s1", "s2"), "rain").size());
+    }
+
+    @Test
+    void testSQLExceptionsAreHandled() throws SQLException {
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Index error"));
+        StemIndexRepository failing = new StemIndexRepository(mockConn, new TermRepository(mockConn));
+
+        assertTrue(failing.findFavoriteSongs("alice", "love").isEmpty());
+        assertTrue(failing.findSongs(List.of("s1"), "love").isEmpty());
+        assertEquals(0, failing.findHighlightRanges("s1", "love").length);
+    }
+
+    @Test
+    void testHighlightRangesCoverEveryFormOfTheStem() {
+        String lyrics = "Love me, loving you. LOVED!";
+        favorites.addFavorite("alice", "s1", "One", "u", "i", "2023", "A", lyrics);
+
+        int[] ranges = index.findHighlightRanges("s1", "love");
+
+        assertArrayEquals(new int[]{0, 4, 9, 15, 21, 26}, ranges);
+        assertEquals("LOVED", lyrics.substring(ranges[4], ranges[5]));
+        assertEquals(0, index.findHighlightRanges("s1", "night").length);
+    }
+
+    @Test
+    void testHighlightRangesAreBackfilledForOlderSongs() throws SQLException {
+        favorites.addFavorite("alice", "s1", "One", "u", "i", "2023", "A", "rain, rain");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM song_token_offsets");
+        }
+
+        assertArrayEquals(new int[]{0, 4, 6, 10}, index.findHighlightRanges("s1", "rain"));
+        assertEquals(0, index.findHighlightRanges("unknown", "rain").length);
+    }
+}
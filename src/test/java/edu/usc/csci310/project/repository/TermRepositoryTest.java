@@ -0,0 +1,141 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.TermVector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TermRepositoryTest {
+
+    private Connection connection;
+    private TermRepository repository;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE terms (id INTEGER PRIMARY KEY, term TEXT UNIQUE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE song_terms (song_id TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE song_stems (song_id TEXT NOT NULL, stem_id INTEGER NOT NULL, " +
+                    "count INTEGER NOT NULL, PRIMARY KEY (song_id, stem_id))");
+            stmt.executeUpdate("CREATE TABLE song_token_offsets (song_id TEXT NOT NULL, stem_id INTEGER NOT NULL, " +
+                    "offsets BLOB NOT NULL, PRIMARY KEY (song_id, stem_id))");
+        }
+        repository = new TermRepository(connection);
+    }
+
+    @Test
+    void testIdsAreStableAcrossInstances() throws SQLException {
+        int love = repository.idOf("love");
+        repository.registerTerms(List.of("peace", "love", "harmony"));
+
+        TermRepository reloaded = new TermRepository(connection);
+        assertEquals(love, reloaded.idOf("love"));
+        assertEquals("harmony", reloaded.termOf(reloaded.idOf("harmony")));
+        assertNull(reloaded.termOf(99));
+    }
+
+    @Test
+    void testFailedDictionaryLoadIsRetried() throws SQLException {
+        repository.registerTerms(List.of("love", "peace"));
+        Connection flaky = spy(connection);
+        doThrow(new SQLException("database is locked")).doCallRealMethod()
+                .when(flaky).prepareStatement("SELECT id, term FROM terms ORDER BY id");
+        TermRepository reloaded = new TermRepository(flaky);
+
+        assertThrows(SQLException.class, () -> reloaded.idOf("harmony"));
+        assertEquals(2, reloaded.idOf("harmony"));
+        assertEquals(0, reloaded.idOf("love"));
+        assertEquals("peace", reloaded.termOf(1));
+    }
+
+    @Test
+    void testEnsureSongVectorTokenizesOnlyOnce() {
+        TermVector first = repository.ensureSongVector("s1", "Rain rain go away").orElseThrow();
+        TermVector second = repository.ensureSongVector("s1", "completely different lyrics").orElseThrow();
+
+        assertEquals(first, second);
+        assertEquals(Map.of("rain", 2, "go", 1, "away", 1), repository.toWordMap(first));
+    }
+
+    @Test
+    void testFailedTermInsertIsRolledBack() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE terms");
+        }
+
+        assertThrows(SQLException.class, () -> repository.idOf("love"));
+        assertTrue(connection.getAutoCommit());
+        assertEquals(Optional.empty(), repository.ensureSongVector("s1", "love"));
+    }
+
+    @Test
+    void testFindSongVectorSQLException() throws Exception {
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("fail"));
+
+        assertTrue(new TermRepository(mockConn).findSongVector("s1").isEmpty());
+    }
+
+    @Test
+    void testSumSongVectorsSkipsUnknownSongs() {
+        repository.ensureSongVector("s1", "love love night");
+        repository.ensureSongVector("s2", "night day");
+
+        TermVector sum = repository.sumSongVectors(List.of("s1", "s2", "missing"));
+
+        assertEquals(Map.of("love", 2, "night", 2, "day", 1), repository.toWordMap(sum));
+        assertTrue(repository.sumSongVectors(List.of()).isEmpty());
+    }
+
+    @Test
+    void testSumSongVectorsSQLException() throws SQLException {
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString())).thenThrow(new SQLException("Select error"));
+
+        assertTrue(new TermRepository(mockConn).sumSongVectors(List.of("s1")).isEmpty());
+    }
+
+    @Test
+    void testStemVectorGroupsFormsUnderStemTermId() throws SQLException {
+        TermVector vector = repository.vectorize("love loving loved night");
+
+        TermVector stems = repository.stemVector(vector);
+
+        assertEquals(Map.of("love", 3, "night", 1), repository.toWordMap(stems));
+        assertEquals(repository.idOf("love"), repository.stemIdOf(repository.idOf("loving")));
+    }
+
+    @Test
+    void testEnsureSongVectorIndexesStems() throws SQLException {
+        repository.ensureSongVector("s1", "Dancing dance danced tonight");
+
+        try (Statement stmt = connection.createStatement();
+             java.sql.ResultSet rs = stmt.executeQuery(
+                     "SELECT ss.count FROM song_stems ss JOIN terms t ON t.id = ss.stem_id WHERE t.term = 'danc'")) {
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testEnsureSongVectorSurvivesStemIndexFailure() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE song_stems");
+        }
+
+        assertTrue(repository.ensureSongVector("s1", "still stored").isPresent());
+        assertTrue(repository.findSongVector("s1").isPresent());
+    }
+}
@@ -0,0 +1,164 @@
+package edu.usc.csci310.project.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionsTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE t (v INTEGER)");
+        }
+    }
+
+    private void insert(int v) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO t (v) VALUES (" + v + ")");
+        }
+    }
+
+    private int count() throws SQLException {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void testCommitsAndRestoresAutoCommit() throws SQLException {
+        Transactions.inTransaction(connection, () -> {
+            insert(1);
+            insert(2);
+        });
+
+        assertEquals(2, count());
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    void testFailureRollsBackEverything() throws SQLException {
+        assertThrows(IllegalStateException.class, () -> Transactions.inTransaction(connection, () -> {
+            insert(1);
+            throw new IllegalStateException("boom");
+        }));
+        assertThrows(SQLException.class, () -> Transactions.inTransaction(connection, () -> {
+            insert(1);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("INSERT INTO missing (v) VALUES (1)");
+            }
+        }));
+
+        assertEquals(0, count());
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    void testNestedTransactionJoinsTheOuterOne() throws SQLException {
+        assertThrows(SQLException.class, () -> Transactions.inTransaction(connection, () -> {
+            Transactions.inTransaction(connection, () -> insert(1));
+            assertFalse(connection.getAutoCommit());
+            throw new SQLException("outer fails after the inner one finished");
+        }));
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    void testTransactionsOnOneConnectionDoNotOverlap() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread first = new Thread(() -> {
+            try {
+                Transactions.inTransaction(connection, () -> {
+                    insert(1);
+                    started.countDown();
+                    try {
+                        finish.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        AtomicBoolean secondRan = new AtomicBoolean();
+        Thread second = new Thread(() -> {
+            try {
+                Transactions.inTransaction(connection, () -> secondRan.set(true));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        first.start();
+        started.await();
+        second.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (second.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Thread.State.BLOCKED, second.getState());
+        assertFalse(secondRan.get());
+
+        finish.countDown();
+        first.join();
+        second.join();
+        assertTrue(secondRan.get());
+        assertEquals(1, count());
+    }
+
+    @Test
+    void testSingleUpdateIsNotRolledBackWithAnotherThreadsTransaction() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread failing = new Thread(() -> assertThrows(SQLException.class, () ->
+                Transactions.inTransaction(connection, () -> {
+                    insert(1);
+                    started.countDown();
+                    try {
+                        finish.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new SQLException("rolled back");
+                })));
+        Thread single = new Thread(() -> {
+            try (Statement stmt = connection.createStatement()) {
+                Transactions.update(connection, () -> stmt.executeUpdate("INSERT INTO t (v) VALUES (2)"));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        failing.start();
+        started.await();
+        single.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (single.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Thread.State.BLOCKED, single.getState());
+
+        finish.countDown();
+        failing.join();
+        single.join();
+        assertEquals(1, count());
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("SELECT v FROM t")) {
+            assertEquals(2, rs.getInt(1));
+        }
+    }
+}
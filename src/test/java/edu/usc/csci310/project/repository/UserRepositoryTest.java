@@ -1,6 +1,8 @@
 package edu.usc.csci310.project.repository;
 
 import edu.usc.csci310.project.model.User;
+import edu.usc.csci310.project.util.HashUtil;
+import edu.usc.csci310.project.util.UsernameCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -86,6 +88,28 @@ class UserRepositoryTest {
         assertTrue(userRepository.deleteByUsername("user"));
     }
 
+    @Test
+    void testDeleteUserDropsDerivedData() throws Exception {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+
+        assertTrue(userRepository.deleteByUsername("user"));
+        for (String table : List.of("user_wordmaps", "user_vocabularies", "user_minhash", "minhash_buckets",
+                "user_matches", "wordcloud_vectors")) {
+            verify(mockConnection).prepareStatement("DELETE FROM " + table + " WHERE username = ?");
+        }
+        verify(mockStatement, atLeastOnce()).setString(1, "user");
+    }
+
+    @Test
+    void testDeleteMissingUserKeepsDerivedData() throws Exception {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(0);
+
+        assertFalse(userRepository.deleteByUsername("user"));
+        verify(mockConnection, never()).prepareStatement("DELETE FROM user_wordmaps WHERE username = ?");
+    }
+
     @Test
     void testDeleteUserSQLException() throws Exception {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Delete fail"));
@@ -548,5 +572,50 @@ class UserRepositoryTest {
         // ✅ Branch: exception thrown
     }
 
+    @Test
+    void testUsernameLookupsAreCachedAfterTheFirstQuery() throws Exception {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getString("username")).thenReturn("h-ann");
+
+        assertEquals(Optional.of("h-ann"), userRepository.getHashedUsernameFromRaw("ann"));
+        assertEquals(Optional.of("h-ann"), userRepository.getHashedUsernameFromRaw("ann"));
+        assertEquals(Optional.of("ann"), userRepository.getRawUsernameFromHashed("h-ann"));
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+    }
+
+    @Test
+    void testRegistrationAndLoginFillTheCache() throws Exception {
+        UsernameCache cache = new UsernameCache(10);
+        UserRepository repository = new UserRepository(mockConnection, cache);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+
+        assertTrue(repository.registerUser("ann", "pass"));
+        assertTrue(repository.findByUsername("ben").isPresent());
+
+        assertEquals(Optional.of(HashUtil.hashUsername("ann")), cache.hashedOf("ann"));
+        assertEquals(Optional.of("ben"), cache.rawOf(HashUtil.hashUsername("ben")));
+    }
+
+    @Test
+    void testDeleteInvalidatesTheCache() throws Exception {
+        UsernameCache cache = new UsernameCache(10);
+        cache.put("ann", "h-ann");
+        UserRepository repository = new UserRepository(mockConnection, cache);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
 
+        assertTrue(repository.deleteByUsername("ann"));
+        verify(mockStatement).setString(1, "h-ann");
+
+        assertTrue(cache.hashedOf("ann").isEmpty());
+        assertTrue(repository.getHashedUsernameFromRaw("ann").isEmpty());
+        assertTrue(repository.getRawUsernameFromHashed("h-ann").isEmpty());
+    }
 }
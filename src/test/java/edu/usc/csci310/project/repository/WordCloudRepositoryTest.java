@@ -0,0 +1,123 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.FavoriteSong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class WordCloudRepositoryTest {
+
+    private Connection connection;
+    private TermRepository terms;
+    private WordCloudRepository clouds;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE wordcloud (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT NOT NULL, " +
+                    "song_id TEXT NOT NULL, title TEXT NOT NULL, url TEXT NOT NULL, image_url TEXT NOT NULL, " +
+                    "release_date TEXT, artist_name TEXT, lyrics TEXT, UNIQUE (username, song_id))");
+            stmt.executeUpdate("CREATE TABLE wordcloud_vectors (username TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE terms (id INTEGER PRIMARY KEY, term TEXT UNIQUE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE song_terms (song_id TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE song_stems (song_id TEXT NOT NULL, stem_id INTEGER NOT NULL, " +
+                    "count INTEGER NOT NULL, PRIMARY KEY (song_id, stem_id))");
+            stmt.executeUpdate("CREATE TABLE song_token_offsets (song_id TEXT NOT NULL, stem_id INTEGER NOT NULL, " +
+                    "offsets BLOB NOT NULL, PRIMARY KEY (song_id, stem_id))");
+        }
+        terms = new TermRepository(connection);
+        clouds = new WordCloudRepository(connection, terms);
+    }
+
+    private boolean hasStoredVector(String username) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT 1 FROM wordcloud_vectors WHERE username = '" + username + "'");
+            return rs.next();
+        }
+    }
+
+    @Test
+    void testAddedSongsAreReturnedInInsertionOrder() {
+        assertTrue(clouds.addSong("alice", "s2", "Two", "u2", "i2", "2023", "B", "rain"));
+        assertTrue(clouds.addSong("alice", "s1", "One", "u1", "i1", "2022", "A", "sun"));
+        clouds.addSong("bob", "s3", "Three", "u3", "i3", "2021", "C", "snow");
+
+        List<FavoriteSong> songs = clouds.getSongs("alice");
+
+        assertEquals(List.of("s2", "s1"), songs.stream().map(FavoriteSong::getSongId).toList());
+        assertEquals(List.of(1, 2), songs.stream().map(FavoriteSong::getRank).toList());
+        assertEquals("Two", songs.get(0).getTitle());
+        assertEquals("rain", songs.get(0).getLyrics());
+    }
+
+    @Test
+    void testAddingTheSameSongTwiceIsRejectedAndNotCountedTwice() {
+        assertTrue(clouds.addSong("alice", "s1", "One", "u", "i", "2023", "A", "love love"));
+        assertFalse(clouds.addSong("alice", "s1", "One", "u", "i", "2023", "A", "love love"));
+
+        assertEquals(Map.of("love", 2), terms.toWordMap(clouds.getCloudVector("alice")));
+    }
+
+    @Test
+    void testAggregateVectorFollowsAddsAndRemoves() throws SQLException {
+        clouds.addSong("alice", "s1", "One", "u", "i", "2023", "A", "love the night");
+        clouds.addSong("alice", "s2", "Two", "u", "i", "2023", "B", "night and day");
+        assertTrue(hasStoredVector("alice"));
+        assertEquals(Map.of("love", 1, "night", 2, "day", 1),
+                terms.toWordMap(clouds.getCloudVector("alice")));
+
+        assertTrue(clouds.removeSong("alice", "s1"));
+        assertTrue(hasStoredVector("alice"));
+        assertEquals(Map.of("night", 1, "day", 1), terms.toWordMap(clouds.getCloudVector("alice")));
+
+        assertFalse(clouds.removeSong("alice", "s1"));
+    }
+
+    @Test
+    void testMissingAggregateIsRebuiltFromSongs() throws SQLException {
+        clouds.addSong("alice", "s1", "One", "u", "i", "2023", "A", "love love");
+        clouds.addSong("alice", "s2", "Two", "u", "i", "2023", "B", "love");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM wordcloud_vectors");
+        }
+
+        assertEquals(Map.of("love", 3), terms.toWordMap(clouds.getCloudVector("alice")));
+        assertTrue(hasStoredVector("alice"));
+    }
+
+    @Test
+    void testClearRemovesSongsAndAggregate() throws SQLException {
+        clouds.addSong("alice", "s1", "One", "u", "i", "2023", "A", "love");
+        clouds.addSong("alice", "s2", "Two", "u", "i", "2023", "B", "hate");
+
+        assertEquals(2, clouds.clear("alice"));
+
+        assertTrue(clouds.getSongs("alice").isEmpty());
+        assertEquals(0, clouds.getCloudVector("alice").size());
+    }
+
+    @Test
+    void testSqlErrorsAreSwallowed() throws SQLException {
+        Connection broken = mock(Connection.class);
+        when(broken.prepareStatement(anyString())).thenThrow(new SQLException("DB error"));
+        WordCloudRepository failing = new WordCloudRepository(broken, new TermRepository(broken));
+
+        assertFalse(failing.addSong("alice", "s1", "One", "u", "i", "2023", "A", "love"));
+        assertFalse(failing.removeSong("alice", "s1"));
+        assertEquals(0, failing.clear("alice"));
+        assertTrue(failing.getSongs("alice").isEmpty());
+        assertEquals(0, failing.getCloudVector("alice").size());
+    }
+}
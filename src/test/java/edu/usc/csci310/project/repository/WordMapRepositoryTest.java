@@ -0,0 +1,186 @@
+package edu.usc.csci310.project.repository;
+
+import edu.usc.csci310.project.model.TermVector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class WordMapRepositoryTest {
+
+    private Connection connection;
+    private WordMapRepository wordMaps;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT UNIQUE NOT NULL, " +
+                    "raw_username TEXT UNIQUE NOT NULL, password TEXT NOT NULL, failed_login_attempts INTEGER DEFAULT 0, " +
+                    "account_locked INTEGER DEFAULT 0, lock_time TIMESTAMP DEFAULT NULL, favorites_private INTEGER DEFAULT 0)");
+            stmt.executeUpdate("CREATE TABLE favorites (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT NOT NULL, " +
+                    "song_id TEXT NOT NULL, title TEXT NOT NULL, url TEXT NOT NULL, image_url TEXT NOT NULL, " +
+                    "release_date TEXT, artist_name TEXT, lyrics TEXT, rank INTEGER NOT NULL, UNIQUE (username, song_id))");
+            stmt.executeUpdate("CREATE TABLE user_wordmaps (username TEXT PRIMARY KEY, vector BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE user_vocabularies (username TEXT PRIMARY KEY, bitmap BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE user_minhash (username TEXT PRIMARY KEY, signature BLOB NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE minhash_buckets (band INTEGER NOT NULL, bucket INTEGER NOT NULL, " +
+                    "username TEXT NOT NULL, PRIMARY KEY (band, bucket, username))");
+        }
+        wordMaps = new WordMapRepository(connection, new MinHashRepository(connection));
+    }
+
+    private void user(String raw, boolean isPrivate, boolean hasFavorites) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO users (username, raw_username, password, favorites_private) VALUES ('h-" + raw +
+                    "', '" + raw + "', 'p', " + (isPrivate ? 1 : 0) + ")");
+            if (hasFavorites) {
+                stmt.executeUpdate("INSERT INTO favorites (username, song_id, title, url, image_url, rank) " +
+                        "VALUES ('" + raw + "', 's1', 'T', 'u', 'i', 1)");
+            }
+        }
+    }
+
+    @Test
+    void testForEachPublicVocabularyFiltersPrivacyInTheQuery() throws SQLException {
+        user("alice", false, true);
+        user("bob", false, true);
+        user("carol", true, true);
+        user("dave", false, false);
+        user("erin", false, true);
+        wordMaps.save("alice", TermVector.fromCounts(Map.of(1, 1)));
+        wordMaps.save("bob", TermVector.fromCounts(Map.of(2, 3)));
+        wordMaps.save("carol", TermVector.fromCounts(Map.of(3, 1)));
+
+        List<String> visited = new ArrayList<>();
+        List<RoaringBitmap> vocabularies = new ArrayList<>();
+        wordMaps.forEachPublicVocabulary("alice", (username, vocabulary) -> {
+            visited.add(username);
+            vocabularies.add(vocabulary);
+        });
+
+        assertEquals(List.of("bob", "erin"), visited);
+        assertEquals(RoaringBitmap.bitmapOf(2), vocabularies.get(0));
+        assertNull(vocabularies.get(1));
+
+        Map<String, RoaringBitmap> everyone = new TreeMap<>();
+        wordMaps.forEachPublicVocabulary(everyone::put);
+        assertEquals(List.of("alice", "bob", "erin"), List.copyOf(everyone.keySet()));
+    }
+
+    @Test
+    void testForEachPublicWordMapFiltersPrivacyInTheQuery() throws SQLException {
+        user("alice", false, true);
+        user("bob", false, true);
+        user("carol", true, true);
+        user("dave", false, false);
+        user("erin", false, true);
+        wordMaps.save("alice", TermVector.fromCounts(Map.of(1, 1)));
+        wordMaps.save("bob", TermVector.fromCounts(Map.of(2, 3)));
+        wordMaps.save("carol", TermVector.fromCounts(Map.of(3, 1)));
+
+        List<String> visited = new ArrayList<>();
+        List<TermVector> vectors = new ArrayList<>();
+        wordMaps.forEachPublicWordMap("alice", (username, vector) -> {
+            visited.add(username);
+            vectors.add(vector);
+        });
+
+        assertEquals(List.of("bob", "erin"), visited);
+        assertEquals(TermVector.fromCounts(Map.of(2, 3)), vectors.get(0));
+        assertNull(vectors.get(1));
+    }
+
+    @Test
+    void testForEachVocabularyIncludesPrivateUsers() throws SQLException {
+        user("alice", false, true);
+        user("carol", true, true);
+        wordMaps.save("alice", TermVector.fromCounts(Map.of(1, 1)));
+        wordMaps.save("carol", TermVector.fromCounts(Map.of(3, 1)));
+
+        Map<String, RoaringBitmap> visited = new TreeMap<>();
+        wordMaps.forEachVocabulary(visited::put);
+
+        assertEquals(Map.of("alice", RoaringBitmap.bitmapOf(1), "carol", RoaringBitmap.bitmapOf(3)), visited);
+    }
+
+    @Test
+    void testForEachVocabularySkipsNamesWithoutAnAccount() throws SQLException {
+        user("alice", false, true);
+        wordMaps.save("alice", TermVector.fromCounts(Map.of(1, 1)));
+        wordMaps.save("ghost", TermVector.EMPTY);
+
+        List<String> visited = new ArrayList<>();
+        wordMaps.forEachVocabulary((username, vocabulary) -> visited.add(username));
+
+        assertEquals(List.of("alice"), visited);
+    }
+
+    @Test
+    void testIsPublicWithFavorites() throws SQLException {
+        user("alice", false, true);
+        user("carol", true, true);
+        user("dave", false, false);
+
+        assertTrue(wordMaps.isPublicWithFavorites("alice"));
+        assertFalse(wordMaps.isPublicWithFavorites("carol"));
+        assertFalse(wordMaps.isPublicWithFavorites("dave"));
+        assertFalse(wordMaps.isPublicWithFavorites("nobody"));
+    }
+
+    @Test
+    void testVocabularyFollowsWordMapWrites() {
+        wordMaps.save("alice", TermVector.fromCounts(Map.of(1, 4, 70000, 1)));
+        assertEquals(RoaringBitmap.bitmapOf(1, 70000), wordMaps.findVocabulary("alice").orElseThrow());
+
+        wordMaps.applyDelta("alice", TermVector.fromCounts(Map.of(1, 4, 5, 1)), -1);
+        wordMaps.applyDelta("alice", TermVector.fromCounts(Map.of(5, 2)), 1);
+        assertEquals(RoaringBitmap.bitmapOf(5, 70000), wordMaps.findVocabulary("alice").orElseThrow());
+
+        wordMaps.delete("alice");
+        assertTrue(wordMaps.findVocabulary("alice").isEmpty());
+    }
+
+    @Test
+    void testIndexMissingVocabulariesBackfillsOldWordMaps() throws SQLException {
+        wordMaps.save("new", TermVector.fromCounts(Map.of(1, 1)));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM user_vocabularies");
+        }
+
+        assertEquals(1, wordMaps.indexMissingVocabularies());
+        assertEquals(RoaringBitmap.bitmapOf(1), wordMaps.findVocabulary("new").orElseThrow());
+        assertEquals(0, wordMaps.indexMissingVocabularies());
+    }
+
+    @Test
+    void testVocabularySQLExceptions() throws SQLException {
+        Connection broken = mock(Connection.class);
+        when(broken.prepareStatement(anyString())).thenThrow(new SQLException("DB error"));
+
+        List<String> visited = new ArrayList<>();
+        WordMapRepository repo = new WordMapRepository(broken, new MinHashRepository(broken));
+        repo.forEachPublicVocabulary("alice", (username, vocabulary) -> visited.add(username));
+        repo.forEachPublicVocabulary((username, vocabulary) -> visited.add(username));
+        assertTrue(visited.isEmpty());
+        repo.forEachPublicWordMap("alice", (username, vector) -> visited.add(username));
+        assertTrue(visited.isEmpty());
+        assertTrue(repo.findVocabulary("alice").isEmpty());
+        assertEquals(0, repo.indexMissingVocabularies());
+        repo.forEachVocabulary((username, vocabulary) -> visited.add(username));
+        assertTrue(visited.isEmpty());
+        assertFalse(repo.isPublicWithFavorites("alice"));
+    }
+}
@@ -1,16 +1,19 @@
 package edu.usc.csci310.project.services;
 
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
 import edu.usc.csci310.project.model.User;
 import edu.usc.csci310.project.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 class AuthServiceTest {
@@ -140,6 +143,20 @@ class AuthServiceTest {
         assertTrue(authService.deleteUser("john"));
     }
 
+    @Test
+    void testDeleteUserPublishesFavoritesChanged() {
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        AuthService service = new AuthService(userRepository, events);
+        when(userRepository.deleteByUsername("john")).thenReturn(true);
+
+        assertTrue(service.deleteUser("john"));
+        assertFalse(service.deleteUser("jane"));
+
+        verify(events).publishEvent(argThat((Object event) ->
+                event instanceof FavoritesChangedEvent changed && changed.getUsername().equals("john")));
+        verifyNoMoreInteractions(events);
+    }
+
     @Test
     void testDeleteUserFails() {
         when(userRepository.deleteByUsername("jane")).thenReturn(false);
@@ -1,13 +1,19 @@
 package edu.usc.csci310.project.services;
 
+import edu.usc.csci310.project.model.Comparison;
 import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
+import edu.usc.csci310.project.model.TermVector;
 import edu.usc.csci310.project.repository.FavoriteRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -88,4 +94,36 @@ class FavoriteServiceTest {
         verify(favoriteRepository).getAllUsersWithFavorites();
     }
 
+    @Test
+    void testGetWordVector() {
+        TermVector vector = new TermVector(new int[]{1, 4}, new int[]{2, 1});
+        when(favoriteRepository.getWordVector("user1")).thenReturn(vector);
+
+        assertSame(vector, favoriteService.getWordVector("user1"));
+    }
+
+    @Test
+    void testSuccessfulChangesPublishFavoritesChanged() {
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        FavoriteService service = new FavoriteService(favoriteRepository, events);
+        when(favoriteRepository.addFavorite("user1", "s1", "T", "u", "i", null, null, "l")).thenReturn(true);
+        when(favoriteRepository.removeFavorite("user1", "s1")).thenReturn(true);
+
+        service.addFavorite("user1", "s1", "T", "u", "i", null, null, "l");
+        service.removeFavorite("user1", "s1");
+        service.addFavorite("user1", "s2", "T", "u", "i", null, null, "l");  // repository said no
+        service.removeFavorite("user1", "s2");
+
+        verify(events, times(2)).publishEvent(argThat((Object event) ->
+                event instanceof FavoritesChangedEvent changed && changed.getUsername().equals("user1")));
+        verify(events, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testCompareIncludesRequesterOnce() {
+        Comparison comparison = new Comparison(List.of(), List.of(), List.of());
+        when(favoriteRepository.compareFavorites("me", List.of("me", "ann", "ben"))).thenReturn(comparison);
+
+        assertSame(comparison, favoriteService.compare("me", List.of("ann", "me", "ben", "ann")));
+    }
 }
@@ -0,0 +1,42 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.model.SimilaritySnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+class SimilaritySnapshotJobTest {
+
+    private SoulmateService soulmateService;
+
+    @BeforeEach
+    void setUp() {
+        soulmateService = mock(SoulmateService.class);
+        when(soulmateService.rebuildSnapshot(anyBoolean())).thenReturn(new SimilaritySnapshot(Map.of(), false, 1, 0));
+    }
+
+    @Test
+    void testRebuildsIncrementallyAndInFull() {
+        SimilaritySnapshotJob job = new SimilaritySnapshotJob(soulmateService, true);
+
+        job.rebuildIncremental();
+        job.rebuildFull();
+
+        verify(soulmateService).rebuildSnapshot(false);
+        verify(soulmateService).rebuildSnapshot(true);
+    }
+
+    @Test
+    void testDisabledJobDoesNothing() {
+        SimilaritySnapshotJob job = new SimilaritySnapshotJob(soulmateService, false);
+
+        job.rebuildIncremental();
+        job.rebuildFull();
+
+        verifyNoInteractions(soulmateService);
+    }
+}
@@ -0,0 +1,96 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
+import edu.usc.csci310.project.repository.FavoriteRepository;
+import edu.usc.csci310.project.repository.WordMapRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SongOverlapIndexTest {
+
+    private FavoriteRepository favoriteRepository;
+    private WordMapRepository wordMapRepository;
+    private SongOverlapIndex index;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        favoriteRepository = mock(FavoriteRepository.class);
+        wordMapRepository = mock(WordMapRepository.class);
+        doAnswer(invocation -> {
+            BiConsumer<String, String> visitor = invocation.getArgument(0);
+            new TreeMap<>(Map.of(
+                    "ann", List.of("s1", "s2"),
+                    "ben", List.of("s2", "s3"),
+                    "cat", List.of("s4"))).forEach((username, songs) -> songs.forEach(song -> visitor.accept(username, song)));
+            return null;
+        }).when(favoriteRepository).forEachPublicFavorite(any(BiConsumer.class));
+        index = new SongOverlapIndex(favoriteRepository, wordMapRepository);
+    }
+
+    @Test
+    void testSimilaritiesCoverOnlyUsersSharingASong() {
+        assertEquals(Map.of("ben", 1 / 3.0), index.similarities("ann"));
+        assertEquals(Map.of(), index.similarities("cat"));
+        assertEquals(List.of("ann", "ben", "cat"), index.publicUsers());
+        assertEquals(3, index.publicUserCount());
+        verify(favoriteRepository, times(1)).forEachPublicFavorite(any());
+    }
+
+    @Test
+    void testPrivateUsersAreScoredFromTheirOwnFavorites() {
+        when(favoriteRepository.findSongIds("me")).thenReturn(List.of("s1", "s4", "unknown"));
+
+        Map<String, Double> scores = index.similarities("me");
+
+        assertEquals(Map.of("ann", 1 / 4.0, "cat", 1 / 3.0), scores);
+        assertFalse(index.isPublic("me"));
+    }
+
+    @Test
+    void testChangesAreAppliedFromEvents() {
+        index.similarities("ann");
+        when(wordMapRepository.isPublicWithFavorites("cat")).thenReturn(true);
+        when(favoriteRepository.findSongIds("cat")).thenReturn(List.of("s1", "s4"));
+
+        index.onFavoritesChanged(new FavoritesChangedEvent("cat"));
+        assertEquals(Map.of("ben", 1 / 3.0, "cat", 1 / 3.0), index.similarities("ann"));
+
+        // made private (or deleted): out of every bitmap and of the public users
+        when(wordMapRepository.isPublicWithFavorites("ben")).thenReturn(false);
+        index.onFavoritesChanged(new FavoritesChangedEvent("ben"));
+        assertEquals(Map.of("cat", 1 / 3.0), index.similarities("ann"));
+        assertEquals(List.of("ann", "cat"), index.publicUsers());
+
+        // new user
+        when(wordMapRepository.isPublicWithFavorites("dan")).thenReturn(true);
+        when(favoriteRepository.findSongIds("dan")).thenReturn(List.of("s2"));
+        index.onFavoritesChanged(new FavoritesChangedEvent("dan"));
+        assertEquals(1 / 2.0, index.similarities("ann").get("dan"));
+    }
+
+    @Test
+    void testEventsBeforeTheFirstBuildAreLeftToTheBuild() {
+        index.onFavoritesChanged(new FavoritesChangedEvent("ann"));
+
+        verifyNoInteractions(wordMapRepository);
+        assertEquals(Map.of("ben", 1 / 3.0), index.similarities("ann"));
+    }
+
+    @Test
+    void testFirstPublicUserNotIn() {
+        assertEquals("ann", index.firstPublicUserNotIn(Set.of()));
+        assertEquals("cat", index.firstPublicUserNotIn(Set.of("ann", "ben")));
+        assertNull(index.firstPublicUserNotIn(Set.of("ann", "ben", "cat")));
+    }
+}
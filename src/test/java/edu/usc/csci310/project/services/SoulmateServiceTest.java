@@ -0,0 +1,771 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
+import edu.usc.csci310.project.model.LyricalMatch;
+import edu.usc.csci310.project.model.MatchPage;
+import edu.usc.csci310.project.model.MatchRow;
+import edu.usc.csci310.project.model.RankedMatch;
+import edu.usc.csci310.project.model.SimilarityMetric;
+import edu.usc.csci310.project.model.SimilaritySnapshot;
+import edu.usc.csci310.project.model.SoulmateResult;
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.repository.FavoriteRepository;
+import edu.usc.csci310.project.repository.MatchRepository;
+import edu.usc.csci310.project.repository.MinHashRepository;
+import edu.usc.csci310.project.repository.UserRepository;
+import edu.usc.csci310.project.repository.WordMapRepository;
+import edu.usc.csci310.project.util.TermBitmaps;
+import edu.usc.csci310.project.util.TfIdfWeighting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SoulmateServiceTest {
+
+    private FavoriteService favoriteService;
+    private WordMapRepository wordMapRepository;
+    private MinHashRepository minHashRepository;
+    private MatchRepository matchRepository;
+    private FavoriteRepository favoriteRepository;
+    private SongOverlapIndex songIndex;
+    private UserRepository userRepository;
+    private SoulmateService soulmateService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        favoriteService = mock(FavoriteService.class);
+        wordMapRepository = mock(WordMapRepository.class);
+        minHashRepository = mock(MinHashRepository.class);
+        matchRepository = newMatchRepository();
+        favoriteRepository = mock(FavoriteRepository.class);
+        songIndex = new SongOverlapIndex(favoriteRepository, wordMapRepository);
+        userRepository = mock(UserRepository.class);
+        when(userRepository.getHashedUsernameFromRaw(anyString()))
+                .thenAnswer(invocation -> Optional.of("hashed-" + invocation.getArgument(0)));
+        soulmateService = new SoulmateService(favoriteService, wordMapRepository, minHashRepository, matchRepository, songIndex, userRepository);
+    }
+
+    private static MatchRepository newMatchRepository() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE user_matches (username TEXT PRIMARY KEY, soulmate TEXT, " +
+                    "soulmate_score REAL NOT NULL, enemy TEXT, enemy_score REAL NOT NULL)");
+        }
+        return new MatchRepository(connection);
+    }
+
+    private static TermVector terms(Integer... ids) {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        for (int id : ids) {
+            counts.put(id, 1);
+        }
+        return TermVector.fromCounts(counts);
+    }
+
+    // every user in `maps` is public; a null map is one that is not materialized yet
+    @SuppressWarnings("unchecked")
+    private void publicUsers(Map<String, TermVector> maps) {
+        doAnswer(invocation -> {
+            String excluded = invocation.getArgument(0);
+            BiConsumer<String, RoaringBitmap> visitor = invocation.getArgument(1);
+            new TreeMap<>(maps).forEach((username, vector) -> {
+                if (!username.equals(excluded)) {
+                    visitor.accept(username, vector == null ? null : TermBitmaps.of(vector));
+                }
+            });
+            return null;
+        }).when(wordMapRepository).forEachPublicVocabulary(anyString(), any(BiConsumer.class));
+        doAnswer(invocation -> {
+            String excluded = invocation.getArgument(0);
+            BiConsumer<String, TermVector> visitor = invocation.getArgument(1);
+            new TreeMap<>(maps).forEach((username, vector) -> {
+                if (!username.equals(excluded)) {
+                    visitor.accept(username, vector);
+                }
+            });
+            return null;
+        }).when(wordMapRepository).forEachPublicWordMap(anyString(), any(BiConsumer.class));
+        maps.forEach((username, vector) -> {
+            if (vector != null) {
+                when(favoriteService.getWordVector(username)).thenReturn(vector);
+            }
+        });
+    }
+
+    @Test
+    void testFindsMostAndLeastSimilarWithMutualFlags() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2, 3, 4));
+        Map<String, TermVector> others = new LinkedHashMap<>();
+        others.put("ann", terms(1, 2, 3));      // 3/4 with me
+        others.put("ben", terms(1, 9));         // 1/5 with me
+        others.put("cat", terms(7, 8));         // 0 with me
+        others.put("dan", terms(7, 8, 9));      // 2/3 with cat, so cat is not mutual
+        publicUsers(others);
+
+        SoulmateResult result = soulmateService.findMatches("me").orElseThrow();
+
+        assertEquals("ann", result.getSoulmate().getUsername());
+        assertEquals(0.75, result.getSoulmate().getScore(), 1e-12);
+        assertTrue(result.getSoulmate().isMutual());
+        assertEquals("cat", result.getEnemy().getUsername());
+        assertEquals(0.0, result.getEnemy().getScore());
+        assertTrue(result.getEnemy().isMutual());
+    }
+
+    @Test
+    void testSoulmateIsNotMutualWhenSomeoneElseIsCloserToThem() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2));
+        Map<String, TermVector> others = new LinkedHashMap<>();
+        others.put("ann", terms(1, 2, 3, 4));   // 1/2 with me
+        others.put("ben", terms(1, 2, 3, 4, 5)); // 2/5 with me, 4/5 with ann
+        publicUsers(others);
+
+        SoulmateResult result = soulmateService.findMatches("me").orElseThrow();
+
+        assertEquals("ann", result.getSoulmate().getUsername());
+        assertFalse(result.getSoulmate().isMutual());
+        assertEquals("ben", result.getEnemy().getUsername());
+        assertTrue(result.getEnemy().isMutual());
+    }
+
+    @Test
+    void testTiesGoToFirstUsernameAndMissingMapsAreBuilt() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1));
+        when(favoriteService.getWordVector("aaron")).thenReturn(terms(1));
+        Map<String, TermVector> others = new LinkedHashMap<>();
+        others.put("aaron", null);
+        others.put("zed", terms(1));
+        publicUsers(others);
+
+        SoulmateResult result = soulmateService.findMatches("me").orElseThrow();
+
+        assertEquals("aaron", result.getSoulmate().getUsername());
+        assertEquals("aaron", result.getEnemy().getUsername());
+        assertEquals(1.0, result.getSoulmate().getScore());
+    }
+
+    @Test
+    void testEmptyWhenNobodyToCompareAgainst() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1));
+        publicUsers(Map.of());
+
+        assertEquals(Optional.empty(), soulmateService.findMatches("me"));
+    }
+
+    // document frequencies for TF-IDF come from every stored vocabulary, public or not
+    @SuppressWarnings("unchecked")
+    private void vocabularies(Map<String, TermVector> maps) {
+        doAnswer(invocation -> {
+            BiConsumer<String, RoaringBitmap> visitor = invocation.getArgument(0);
+            new TreeMap<>(maps).forEach((username, vector) -> visitor.accept(username, TermBitmaps.of(vector)));
+            return null;
+        }).when(wordMapRepository).forEachVocabulary(any(BiConsumer.class));
+    }
+
+    @Test
+    void testCosineFavorsSharedRareWordsOverSharedCommonOnes() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2, 9));
+        Map<String, TermVector> others = new LinkedHashMap<>();
+        others.put("ann", terms(1, 2, 3, 4));   // two common words with me: Jaccard 2/5
+        others.put("ben", terms(9, 5));         // one rare word with me: Jaccard 1/4
+        others.put("cat", terms(7));
+        publicUsers(others);
+        Map<String, TermVector> everyone = new TreeMap<>(others);
+        everyone.put("me", terms(1, 2, 9));
+        for (int i = 0; i < 7; i++) {
+            everyone.put("private" + i, terms(1, 2, 3, 4));
+        }
+        vocabularies(everyone);
+
+        assertEquals("ann", soulmateService.findMatches("me", SimilarityMetric.JACCARD).orElseThrow()
+                .getSoulmate().getUsername());
+        SoulmateResult result = soulmateService.findMatches("me", SimilarityMetric.COSINE).orElseThrow();
+
+        assertEquals("ben", result.getSoulmate().getUsername());
+        assertTrue(result.getSoulmate().isMutual());
+        assertEquals("cat", result.getEnemy().getUsername());
+        assertEquals(0.0, result.getEnemy().getScore());
+        assertTrue(result.getEnemy().isMutual());
+
+        // the weighting is built once and reused until favorites change
+        soulmateService.findMatches("me", SimilarityMetric.COSINE);
+        verify(wordMapRepository, times(1)).forEachVocabulary(any());
+    }
+
+    @Test
+    void testCosineScoresMatchTheWeightedVectors() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2));
+        when(favoriteService.getWordVector("ben")).thenReturn(terms(3));
+        Map<String, TermVector> others = new LinkedHashMap<>();
+        others.put("ann", terms(1, 3));
+        others.put("ben", null);                // not materialized yet
+        publicUsers(others);
+        Map<String, TermVector> everyone = Map.of("me", terms(1, 2), "ann", terms(1, 3), "ben", terms(3));
+        vocabularies(everyone);
+        TfIdfWeighting.Builder builder = TfIdfWeighting.builder();
+        everyone.values().forEach(vector -> builder.add(TermBitmaps.of(vector)));
+        TfIdfWeighting weighting = builder.build();
+
+        SoulmateResult result = soulmateService.findMatches("me", SimilarityMetric.COSINE).orElseThrow();
+
+        assertEquals("ann", result.getSoulmate().getUsername());
+        assertEquals(weighting.weigh(terms(1, 2)).cosine(weighting.weigh(terms(1, 3))), result.getSoulmate().getScore());
+        // ann shares more weight with ben than with me
+        assertFalse(result.getSoulmate().isMutual());
+        assertEquals("ben", result.getEnemy().getUsername());
+        assertEquals(0.0, result.getEnemy().getScore());
+        assertTrue(result.getEnemy().isMutual());
+    }
+
+    @Test
+    void testCosineEmptyWhenNobodyToCompareAgainst() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1));
+        publicUsers(Map.of());
+        vocabularies(Map.of("me", terms(1)));
+
+        assertEquals(Optional.empty(), soulmateService.findMatches("me", SimilarityMetric.COSINE));
+    }
+
+    // public users' favorited song ids, as the favorites table would list them
+    @SuppressWarnings("unchecked")
+    private void publicSongs(Map<String, List<String>> favorites) {
+        doAnswer(invocation -> {
+            BiConsumer<String, String> visitor = invocation.getArgument(0);
+            new TreeMap<>(favorites).forEach((username, songs) -> songs.forEach(song -> visitor.accept(username, song)));
+            return null;
+        }).when(favoriteRepository).forEachPublicFavorite(any(BiConsumer.class));
+    }
+
+    @Test
+    void testSongOverlapScoresOnlyUsersSharingASong() {
+        publicSongs(Map.of(
+                "me", List.of("s1", "s2"),
+                "ann", List.of("s1", "s2"),     // 2/2
+                "ben", List.of("s2", "s3"),     // 1/3
+                "cat", List.of("s9"),           // nothing shared
+                "dan", List.of("s1", "s2", "s3")));   // 2/3
+
+        SoulmateResult result = soulmateService.findMatches("me", SimilarityMetric.SONGS).orElseThrow();
+
+        assertEquals("ann", result.getSoulmate().getUsername());
+        assertEquals(1.0, result.getSoulmate().getScore());
+        assertTrue(result.getSoulmate().isMutual());
+        assertEquals("cat", result.getEnemy().getUsername());
+        assertEquals(0.0, result.getEnemy().getScore());
+        assertTrue(result.getEnemy().isMutual());
+        verifyNoInteractions(favoriteService);
+    }
+
+    @Test
+    void testSongOverlapMutualFlagsCountUsersSharingNothing() {
+        publicSongs(Map.of(
+                "me", List.of("s1", "s2"),
+                "ann", List.of("s1", "s5"),     // 1/3, and the same songs as cat
+                "ben", List.of("s2"),           // 1/2, and the same songs as dan
+                "cat", List.of("s1", "s5"),     // 1/3
+                "dan", List.of("s2")));         // 1/2
+
+        SoulmateResult result = soulmateService.findMatches("me", SimilarityMetric.SONGS).orElseThrow();
+
+        assertEquals("ben", result.getSoulmate().getUsername());
+        assertEquals(0.5, result.getSoulmate().getScore());
+        assertFalse(result.getSoulmate().isMutual());
+        assertEquals("ann", result.getEnemy().getUsername());
+        assertEquals(1 / 3.0, result.getEnemy().getScore());
+        // ben and dan share nothing with ann, so they are farther from her than I am
+        assertFalse(result.getEnemy().isMutual());
+
+        MatchPage page = soulmateService.rank("me", SimilarityMetric.SONGS, true, null, 10);
+        assertEquals(List.of("ben", "dan", "ann", "cat"), page.getMatches().stream().map(RankedMatch::getUsername).toList());
+    }
+
+    @Test
+    void testSongOverlapWithNobodySharingPicksFirstNames() {
+        publicSongs(Map.of("me", List.of("s1"), "ann", List.of("s2"), "ben", List.of("s3")));
+
+        SoulmateResult result = soulmateService.findMatches("me", SimilarityMetric.SONGS).orElseThrow();
+
+        assertEquals("ann", result.getSoulmate().getUsername());
+        assertEquals(0.0, result.getSoulmate().getScore());
+        assertTrue(result.getSoulmate().isMutual());    // nobody is closer to ann than 0 either
+        assertEquals("ann", result.getEnemy().getUsername());
+        assertTrue(result.getEnemy().isMutual());
+        assertEquals(Optional.empty(), new SoulmateService(favoriteService, wordMapRepository, minHashRepository,
+                matchRepository, new SongOverlapIndex(mock(FavoriteRepository.class), wordMapRepository), userRepository)
+                .findMatches("me", SimilarityMetric.SONGS));
+    }
+
+    private List<String> allPages(String username, SimilarityMetric metric, boolean most, int limit) {
+        List<String> ranked = new ArrayList<>();
+        String cursor = null;
+        do {
+            MatchPage page = soulmateService.rank(username, metric, most, cursor, limit);
+            for (RankedMatch match : page.getMatches()) {
+                assertEquals(ranked.size() + 1, match.getRank());
+                ranked.add(match.getUsername());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ranked;
+    }
+
+    @Test
+    void testRankingPagesThroughEveryoneInOrder() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2, 3, 4));
+        Map<String, TermVector> others = new LinkedHashMap<>();
+        others.put("ann", terms(1, 2, 3));      // 3/4
+        others.put("ben", terms(1, 9));         // 1/5
+        others.put("bob", terms(2, 9));         // 1/5, ties with ben
+        others.put("cat", terms(7, 8));         // 0
+        others.put("dan", terms(1, 2));         // 2/4
+        publicUsers(others);
+
+        MatchPage first = soulmateService.rank("me", SimilarityMetric.JACCARD, true, null, 2);
+        assertEquals(List.of("ann", "dan"), first.getMatches().stream().map(RankedMatch::getUsername).toList());
+        assertEquals(0.75, first.getMatches().get(0).getScore(), 1e-12);
+        assertNotNull(first.getNextCursor());
+
+        assertEquals(List.of("ann", "dan", "ben", "bob", "cat"), allPages("me", SimilarityMetric.JACCARD, true, 2));
+        assertEquals(List.of("cat", "ben", "bob", "dan", "ann"), allPages("me", SimilarityMetric.JACCARD, false, 2));
+        assertEquals(List.of("ann", "dan", "ben", "bob", "cat"), allPages("me", SimilarityMetric.JACCARD, true, 5));
+        assertNull(soulmateService.rank("me", SimilarityMetric.JACCARD, true, null, 5).getNextCursor());
+    }
+
+    @Test
+    void testRankingAgreesWithSoulmateAndEnemy() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2, 9));
+        Map<String, TermVector> others = new LinkedHashMap<>();
+        others.put("ann", terms(1, 2, 3, 4));
+        others.put("ben", terms(9, 5));
+        others.put("cat", terms(7));
+        others.put("dan", null);
+        when(favoriteService.getWordVector("dan")).thenReturn(terms(2, 5));
+        publicUsers(others);
+        Map<String, TermVector> everyone = new TreeMap<>(others);
+        everyone.put("me", terms(1, 2, 9));
+        everyone.put("dan", terms(2, 5));
+        vocabularies(everyone);
+
+        for (SimilarityMetric metric : List.of(SimilarityMetric.JACCARD, SimilarityMetric.COSINE)) {
+            SoulmateResult result = soulmateService.findMatches("me", metric).orElseThrow();
+            RankedMatch top = soulmateService.rank("me", metric, true, null, 1).getMatches().get(0);
+            RankedMatch bottom = soulmateService.rank("me", metric, false, null, 1).getMatches().get(0);
+
+            assertEquals(result.getSoulmate().getUsername(), top.getUsername());
+            assertEquals(result.getSoulmate().getScore(), top.getScore());
+            assertEquals(result.getEnemy().getUsername(), bottom.getUsername());
+            assertEquals(result.getEnemy().getScore(), bottom.getScore());
+        }
+    }
+
+    @Test
+    void testRankingIsCachedUntilFavoritesChange() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1));
+        publicUsers(Map.of("ann", terms(1), "ben", terms(2)));
+
+        MatchPage first = soulmateService.rank("me", SimilarityMetric.JACCARD, true, null, 1);
+        soulmateService.rank("me", SimilarityMetric.JACCARD, true, first.getNextCursor(), 1);
+        verify(wordMapRepository, times(1)).forEachPublicVocabulary(eq("me"), any());
+
+        soulmateService.onFavoritesChanged(new FavoritesChangedEvent("ben"));
+        soulmateService.rank("me", SimilarityMetric.JACCARD, true, null, 1);
+        verify(wordMapRepository, times(2)).forEachPublicVocabulary(eq("me"), any());
+    }
+
+    @Test
+    void testRankingOfNobodyIsAnEmptyLastPage() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1));
+        publicUsers(Map.of());
+
+        MatchPage page = soulmateService.rank("me", SimilarityMetric.JACCARD, true, null, 10);
+
+        assertTrue(page.getMatches().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testCursorRoundTripsAndRejectsGarbage() {
+        SoulmateService.Scored scored = new SoulmateService.Scored("a:b/é", 0.1 + 0.2);
+        SoulmateService.Scored decoded = SoulmateService.decodeCursor(SoulmateService.encodeCursor(scored));
+
+        assertEquals(0, SoulmateService.encodeCursor(scored).compareTo(SoulmateService.encodeCursor(decoded)));
+        assertThrows(IllegalArgumentException.class, () -> SoulmateService.decodeCursor("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> SoulmateService.decodeCursor("bm9jb2xvbg"));
+        assertThrows(IllegalArgumentException.class, () -> SoulmateService.decodeCursor("eno6YW5u"));
+    }
+
+    @Test
+    void testApproximateReRanksLshCandidatesExactly() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2, 3, 4));
+        when(favoriteService.getWordVector("ann")).thenReturn(terms(1, 2));        // 1/2 with me
+        when(favoriteService.getWordVector("ben")).thenReturn(terms(1, 2, 3));     // 3/4 with me
+        when(favoriteService.getWordVector("cat")).thenReturn(terms(1, 2, 3, 9));  // 3/4 with ben
+        when(minHashRepository.findCandidates(eq("me"), any(int[].class))).thenReturn(List.of("ann", "ben"));
+        when(minHashRepository.findCandidates(eq("ben"), any(int[].class))).thenReturn(List.of("ann", "cat", "me"));
+
+        LyricalMatch soulmate = soulmateService.findSoulmateApproximate("me").orElseThrow();
+
+        assertEquals("ben", soulmate.getUsername());
+        assertEquals(0.75, soulmate.getScore(), 1e-12);
+        assertTrue(soulmate.isMutual());  // cat ties with me, which does not make ben closer to cat
+        verify(wordMapRepository, never()).forEachPublicVocabulary(any(), any());
+    }
+
+    @Test
+    void testApproximateIsNotMutualWhenACandidateIsCloserToTheSoulmate() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2));
+        when(favoriteService.getWordVector("ann")).thenReturn(terms(1, 2, 3, 4));
+        when(favoriteService.getWordVector("ben")).thenReturn(terms(1, 2, 3, 4, 5));
+        when(minHashRepository.findCandidates(eq("me"), any(int[].class))).thenReturn(List.of("ann"));
+        when(minHashRepository.findCandidates(eq("ann"), any(int[].class))).thenReturn(List.of("ben", "me"));
+
+        assertFalse(soulmateService.findSoulmateApproximate("me").orElseThrow().isMutual());
+    }
+
+    @Test
+    void testApproximateFallsBackToExactScanWithoutCandidates() {
+        when(favoriteService.getWordVector("me")).thenReturn(terms(1, 2));
+        when(minHashRepository.findCandidates(eq("me"), any(int[].class))).thenReturn(List.of());
+        publicUsers(Map.of("ann", terms(5)));
+
+        LyricalMatch soulmate = soulmateService.findSoulmateApproximate("me").orElseThrow();
+
+        assertEquals("ann", soulmate.getUsername());
+        assertEquals(0.0, soulmate.getScore());
+    }
+
+    // users whose favorites change in place, with privacy; wired into every repository call the service makes
+    @SuppressWarnings("unchecked")
+    private void population(Map<String, TermVector> users, Set<String> hidden) {
+        doAnswer(invocation -> {
+            String excluded = invocation.getArgument(0);
+            BiConsumer<String, RoaringBitmap> visitor = invocation.getArgument(1);
+            new TreeMap<>(users).forEach((username, vector) -> {
+                if (!username.equals(excluded) && !hidden.contains(username)) {
+                    visitor.accept(username, TermBitmaps.of(vector));
+                }
+            });
+            return null;
+        }).when(wordMapRepository).forEachPublicVocabulary(anyString(), any(BiConsumer.class));
+        doAnswer(invocation -> {
+            BiConsumer<String, RoaringBitmap> visitor = invocation.getArgument(0);
+            new TreeMap<>(users).forEach((username, vector) -> {
+                if (!hidden.contains(username)) {
+                    visitor.accept(username, TermBitmaps.of(vector));
+                }
+            });
+            return null;
+        }).when(wordMapRepository).forEachPublicVocabulary(any(BiConsumer.class));
+        doAnswer(invocation -> {
+            BiConsumer<String, RoaringBitmap> visitor = invocation.getArgument(0);
+            users.forEach((username, vector) -> visitor.accept(username, TermBitmaps.of(vector)));
+            return null;
+        }).when(wordMapRepository).forEachVocabulary(any(BiConsumer.class));
+        when(favoriteService.getWordVector(anyString()))
+                .thenAnswer(invocation -> users.getOrDefault(invocation.<String>getArgument(0), TermVector.EMPTY));
+        when(wordMapRepository.isPublicWithFavorites(anyString()))
+                .thenAnswer(invocation -> users.containsKey(invocation.<String>getArgument(0))
+                        && !hidden.contains(invocation.<String>getArgument(0)));
+    }
+
+    @Test
+    void testRefreshPatchesRowsWithoutRescanningWhenExtremesHold() {
+        Map<String, TermVector> users = new TreeMap<>(Map.of("a", terms(1, 2), "b", terms(1, 2, 3), "c", terms(5, 6)));
+        population(users, Set.of());
+        soulmateService.rebuildSnapshot(false);
+        clearInvocations(wordMapRepository);
+
+        users.put("b", terms(1, 2));   // closer to a, still nothing in common with c
+        soulmateService.onFavoritesChanged(new FavoritesChangedEvent("b"));
+        soulmateService.rebuildSnapshot(false);
+
+        verify(wordMapRepository, never()).forEachPublicVocabulary(anyString(), any());
+        MatchRow a = matchRepository.find("a").orElseThrow();
+        assertEquals("b", a.getSoulmate());
+        assertEquals(1.0, a.getSoulmateScore());
+        assertEquals("c", a.getEnemy());
+        // b's own row was dropped and recomputed with the rest of the snapshot
+        assertEquals(1.0, matchRepository.find("b").orElseThrow().getSoulmateScore());
+        assertEquals(1.0, soulmateService.findMatches("b").orElseThrow().getSoulmate().getScore());
+    }
+
+    @Test
+    void testChangesShowUpWithTheNextSnapshot() {
+        Map<String, TermVector> users = new TreeMap<>(Map.of("a", terms(1, 2), "b", terms(1, 3), "c", terms(5, 6)));
+        population(users, Set.of());
+        SimilaritySnapshot first = soulmateService.rebuildSnapshot(false);
+        assertEquals(3, first.size());
+        assertEquals("b", soulmateService.findMatches("a").orElseThrow().getSoulmate().getUsername());
+
+        users.put("c", terms(1, 2));
+        soulmateService.onFavoritesChanged(new FavoritesChangedEvent("c"));
+
+        // readers keep the published snapshot until the job swaps in the next one
+        assertEquals("b", soulmateService.findMatches("a").orElseThrow().getSoulmate().getUsername());
+        assertEquals(1, soulmateService.snapshotStats().get("pendingChanges"));
+
+        soulmateService.rebuildSnapshot(false);
+
+        assertEquals("c", soulmateService.findMatches("a").orElseThrow().getSoulmate().getUsername());
+        assertEquals(0, soulmateService.snapshotStats().get("pendingChanges"));
+        assertEquals(0L, soulmateService.snapshotStats().get("stalenessMillis"));
+    }
+
+    @Test
+    void testUnknownUsersAreNeitherComputedNorStored() {
+        publicUsers(Map.of("ann", terms(1, 2)));
+        when(userRepository.getHashedUsernameFromRaw("ghost")).thenReturn(Optional.empty());
+
+        for (SimilarityMetric metric : SimilarityMetric.values()) {
+            assertEquals(Optional.empty(), soulmateService.findMatches("ghost", metric));
+        }
+        assertTrue(soulmateService.rank("ghost", SimilarityMetric.JACCARD, true, null, 10).getMatches().isEmpty());
+        assertEquals(Optional.empty(), soulmateService.findSoulmateApproximate("ghost"));
+
+        assertFalse(soulmateService.isKnownUser("ghost"));
+        assertTrue(soulmateService.isKnownUser("ann"));
+        assertTrue(matchRepository.find("ghost").isEmpty());
+        verify(favoriteService, never()).getWordVector("ghost");
+    }
+
+    @Test
+    void testReadsOutsideTheSnapshotDoNotWaitForABuild() throws InterruptedException {
+        Map<String, TermVector> users = new TreeMap<>(Map.of("a", terms(1, 2), "b", terms(1, 3), "c", terms(5, 6)));
+        population(users, Set.of());
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        // holds the lock a build holds, for as long as the reads below take
+        Thread build = new Thread(() -> {
+            synchronized (soulmateService) {
+                building.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        build.start();
+        building.await();
+        try {
+            SoulmateResult result = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> soulmateService.findMatches("a").orElseThrow());
+            assertEquals("b", result.getSoulmate().getUsername());
+        } finally {
+            done.countDown();
+            build.join();
+        }
+        assertTrue(matchRepository.find("a").isEmpty());
+    }
+
+    @Test
+    void testUsersReadBeforeABuildCoversThemAreAddedByTheNextOne() {
+        Map<String, TermVector> users = new TreeMap<>(Map.of("a", terms(1, 2), "b", terms(1, 3)));
+        population(users, Set.of());
+        SimilaritySnapshot first = soulmateService.rebuildSnapshot(false);
+
+        users.put("d", terms(1, 2));
+        assertEquals("a", soulmateService.findMatches("d").orElseThrow().getSoulmate().getUsername());
+        assertTrue(matchRepository.find("d").isEmpty());
+
+        SimilaritySnapshot next = soulmateService.rebuildSnapshot(false);
+        assertNotSame(first, next);
+        assertEquals("a", next.find("d").orElseThrow().getSoulmate());
+        assertTrue(matchRepository.find("d").isPresent());
+    }
+
+    @Test
+    void testUsersGoingPrivateLeaveOtherResultsBeforeTheNextSnapshot() {
+        Map<String, TermVector> users = new TreeMap<>(Map.of("a", terms(1, 2), "b", terms(1, 3), "c", terms(5, 6)));
+        Set<String> hidden = new HashSet<>();
+        population(users, hidden);
+        soulmateService.rebuildSnapshot(false);
+
+        hidden.add("b");
+        soulmateService.onFavoritesChanged(new FavoritesChangedEvent("b"));
+
+        SoulmateResult result = soulmateService.findMatches("a").orElseThrow();
+        assertEquals("c", result.getSoulmate().getUsername());
+        assertEquals("c", result.getEnemy().getUsername());
+        // nobody's snapshot row names b any more, so reads go back to the snapshot alone
+        soulmateService.rebuildSnapshot(false);
+        clearInvocations(wordMapRepository, favoriteService);
+        assertEquals("c", soulmateService.findMatches("a").orElseThrow().getSoulmate().getUsername());
+        verifyNoInteractions(wordMapRepository, favoriteService);
+    }
+
+    @Test
+    void testDeletedUsersLeaveOtherResultsBeforeTheNextSnapshot() {
+        Map<String, TermVector> users = new TreeMap<>(Map.of("a", terms(1, 2), "b", terms(1, 3), "c", terms(5, 6)));
+        population(users, Set.of());
+        soulmateService.rebuildSnapshot(false);
+
+        users.remove("b");
+        when(userRepository.getHashedUsernameFromRaw("b")).thenReturn(Optional.empty());
+        soulmateService.onFavoritesChanged(new FavoritesChangedEvent("b"));
+
+        assertEquals("c", soulmateService.findMatches("a").orElseThrow().getSoulmate().getUsername());
+        assertEquals(Optional.empty(), soulmateService.findMatches("b"));
+    }
+
+    @Test
+    void testReadsFromTheSnapshotTouchNoRepository() {
+        population(new TreeMap<>(Map.of("a", terms(1, 2), "b", terms(1, 3), "c", terms(5, 6))), Set.of());
+        soulmateService.rebuildSnapshot(true);
+        clearInvocations(wordMapRepository, favoriteService);
+
+        SoulmateResult result = soulmateService.findMatches("a").orElseThrow();
+
+        assertEquals("b", result.getSoulmate().getUsername());
+        assertTrue(result.getSoulmate().isMutual());
+        assertEquals("c", result.getEnemy().getUsername());
+        verifyNoInteractions(wordMapRepository, favoriteService);
+    }
+
+    @Test
+    void testIncrementalRebuildWithoutChangesKeepsTheSnapshot() {
+        population(new TreeMap<>(Map.of("a", terms(1), "b", terms(2))), Set.of());
+
+        SimilaritySnapshot first = soulmateService.rebuildSnapshot(false);
+
+        assertSame(first, soulmateService.rebuildSnapshot(false));
+        assertNotSame(first, soulmateService.rebuildSnapshot(true));
+        assertTrue(first.isBuilt());
+        assertFalse(first.isFull());
+        verify(wordMapRepository, times(2)).forEachVocabulary(any());
+    }
+
+    @Test
+    void testSnapshotStats() {
+        Map<String, Object> before = soulmateService.snapshotStats();
+        assertEquals(false, before.get("built"));
+        assertEquals(0, before.get("users"));
+        assertEquals(0L, before.get("stalenessMillis"));
+
+        population(new TreeMap<>(Map.of("a", terms(1), "b", terms(2))), Set.of());
+        soulmateService.rebuildSnapshot(true);
+        soulmateService.onFavoritesChanged(new FavoritesChangedEvent("a"));
+        soulmateService.onFavoritesChanged(new FavoritesChangedEvent("a"));
+
+        Map<String, Object> after = soulmateService.snapshotStats();
+        assertEquals(true, after.get("built"));
+        assertEquals("full", after.get("mode"));
+        assertEquals(2, after.get("users"));
+        assertEquals(1, after.get("pendingChanges"));
+        assertTrue((Long) after.get("stalenessMillis") >= 0);
+        assertTrue((Long) after.get("buildMillis") >= 0);
+    }
+
+    @Test
+    void testIncrementalSnapshotsAgreeWithAFullRebuild() throws SQLException {
+        Random random = new Random(5);
+        Map<String, TermVector> users = new TreeMap<>();
+        Set<String> hidden = new HashSet<>();
+        for (char c = 'a'; c <= 'l'; c++) {
+            users.put(String.valueOf(c), randomTerms(random));
+        }
+        population(users, hidden);
+        soulmateService.rebuildSnapshot(false);
+
+        List<String> names = List.copyOf(users.keySet());
+        for (int step = 0; step < 40; step++) {
+            // several changes, some to the same user, between builds
+            for (int change = random.nextInt(4); change >= 0; change--) {
+                String changed = names.get(random.nextInt(names.size()));
+                if (random.nextInt(4) == 0 && !hidden.remove(changed)) {
+                    hidden.add(changed);
+                } else {
+                    users.put(changed, randomTerms(random));
+                }
+                soulmateService.onFavoritesChanged(new FavoritesChangedEvent(changed));
+            }
+            soulmateService.rebuildSnapshot(false);
+
+            SoulmateService fresh = new SoulmateService(favoriteService, wordMapRepository, minHashRepository, newMatchRepository(), songIndex, userRepository);
+            fresh.rebuildSnapshot(true);
+            for (String username : names) {
+                Optional<SoulmateResult> expected = fresh.findMatches(username);
+                Optional<SoulmateResult> actual = soulmateService.findMatches(username);
+                assertEquals(expected.isPresent(), actual.isPresent(), "step " + step + ", " + username);
+                if (expected.isPresent()) {
+                    assertSameMatch(expected.get().getSoulmate(), actual.get().getSoulmate());
+                    assertSameMatch(expected.get().getEnemy(), actual.get().getEnemy());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRefreshAgreesWithFullRecompute() throws SQLException {
+        Random random = new Random(11);
+        Map<String, TermVector> users = new TreeMap<>();
+        Set<String> hidden = new HashSet<>();
+        for (char c = 'a'; c <= 'l'; c++) {
+            users.put(String.valueOf(c), randomTerms(random));
+        }
+        population(users, hidden);
+        // rows stored by another instance, so this one reads them from user_matches rather than a snapshot
+        new SoulmateService(favoriteService, wordMapRepository, minHashRepository, matchRepository, songIndex, userRepository)
+                .rebuildSnapshot(true);
+
+        List<String> names = List.copyOf(users.keySet());
+        for (int step = 0; step < 60; step++) {
+            // small vocabularies so that ties, which are broken by username, come up often
+            String changed = names.get(random.nextInt(names.size()));
+            if (random.nextInt(4) == 0 && !hidden.remove(changed)) {
+                hidden.add(changed);
+            } else {
+                users.put(changed, randomTerms(random));
+            }
+            soulmateService.refresh(changed);
+
+            SoulmateService fresh = new SoulmateService(favoriteService, wordMapRepository, minHashRepository, newMatchRepository(), songIndex, userRepository);
+            for (String username : names) {
+                Optional<SoulmateResult> expected = fresh.findMatches(username);
+                Optional<SoulmateResult> actual = soulmateService.findMatches(username);
+                assertEquals(expected.isPresent(), actual.isPresent(), "step " + step + ", " + username);
+                if (expected.isPresent()) {
+                    assertSameMatch(expected.get().getSoulmate(), actual.get().getSoulmate());
+                    assertSameMatch(expected.get().getEnemy(), actual.get().getEnemy());
+                }
+            }
+        }
+    }
+
+    private static TermVector randomTerms(Random random) {
+        Integer[] ids = new Integer[2 + random.nextInt(5)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextInt(12);
+        }
+        return terms(ids);
+    }
+
+    private static void assertSameMatch(LyricalMatch expected, LyricalMatch actual) {
+        assertEquals(expected.getUsername(), actual.getUsername());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.isMutual(), actual.isMutual());
+    }
+}
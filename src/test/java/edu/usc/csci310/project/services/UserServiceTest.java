@@ -1,9 +1,12 @@
 package edu.usc.csci310.project.services;
 
+import edu.usc.csci310.project.model.FavoritesChangedEvent;
 import edu.usc.csci310.project.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,4 +47,14 @@ public class UserServiceTest {
 
         verify(userRepository).updateFavoritesPrivacy("testuser", true);
     }
+
+    @Test
+    public void testSetFavoritesPrivacy_PublishesFavoritesChanged() {
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+        new UserService(userRepository, events).setFavoritesPrivacy("testuser", true);
+
+        verify(events).publishEvent(argThat((Object event) ->
+                event instanceof FavoritesChangedEvent changed && changed.getUsername().equals("testuser")));
+    }
 }
@@ -0,0 +1,246 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.model.FavoriteSong;
+import edu.usc.csci310.project.model.RenderedCloud;
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.model.WordCloud;
+import edu.usc.csci310.project.model.WeightedWord;
+import edu.usc.csci310.project.model.HighlightRanges;
+import edu.usc.csci310.project.model.SongOccurrence;
+import edu.usc.csci310.project.repository.StemIndexRepository;
+import edu.usc.csci310.project.repository.TermRepository;
+import edu.usc.csci310.project.repository.WordCloudRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WordCloudServiceTest {
+
+    private FavoriteService favoriteService;
+    private TermRepository termRepository;
+    private StemIndexRepository stemIndexRepository;
+    private WordCloudRepository wordCloudRepository;
+    private WordCloudService wordCloudService;
+
+    @BeforeEach
+    void setUp() {
+        favoriteService = mock(FavoriteService.class);
+        termRepository = mock(TermRepository.class);
+        stemIndexRepository = mock(StemIndexRepository.class);
+        wordCloudRepository = mock(WordCloudRepository.class);
+        wordCloudService = new WordCloudService(favoriteService, termRepository, stemIndexRepository, wordCloudRepository);
+    }
+
+    @Test
+    void testTopKReturnsHighestCountsWithNormalizedWeights() {
+        Map<String, Integer> wordMap = Map.of("love", 9, "night", 5, "day", 1, "rain", 3);
+
+        List<WeightedWord> top = WordCloudService.topK(wordMap, 3);
+
+        assertEquals(List.of("love", "night", "rain"), top.stream().map(WeightedWord::getWord).toList());
+        assertEquals(List.of(9, 5, 3), top.stream().map(WeightedWord::getCount).toList());
+        assertEquals(1.0, top.get(0).getWeight());
+        assertEquals(1.0 / 3, top.get(1).getWeight(), 1e-9);
+        assertEquals(0.0, top.get(2).getWeight());
+    }
+
+    @Test
+    void testTopKBreaksTiesAlphabeticallyAndHandlesFlatCounts() {
+        Map<String, Integer> wordMap = Map.of("delta", 2, "alpha", 2, "charlie", 2, "bravo", 2);
+
+        List<WeightedWord> top = WordCloudService.topK(wordMap, 2);
+
+        assertEquals(List.of("alpha", "bravo"), top.stream().map(WeightedWord::getWord).toList());
+        assertTrue(top.stream().allMatch(w -> w.getWeight() == 1.0));
+    }
+
+    @Test
+    void testTopKMatchesFullSort() {
+        Random random = new Random(7);
+        Map<String, Integer> wordMap = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            wordMap.put("w" + i, 1 + random.nextInt(200));
+        }
+
+        List<String> expected = wordMap.entrySet().stream()
+                .sorted(WordCloudService.RANKING).limit(100).map(Map.Entry::getKey).toList();
+
+        assertEquals(expected, WordCloudService.topK(wordMap, 100).stream().map(WeightedWord::getWord).toList());
+    }
+
+    @Test
+    void testTopKEdgeCases() {
+        assertTrue(WordCloudService.topK(Map.of(), 10).isEmpty());
+        assertTrue(WordCloudService.topK(Map.of("a", 1), 0).isEmpty());
+        assertEquals(1, WordCloudService.topK(Map.of("a", 1), 10).size());
+    }
+
+    @Test
+    void testTopWordsForUserUsesStoredWordMap() {
+        when(favoriteService.getWordMap("alice")).thenReturn(Map.of("sun", 4, "moon", 2));
+
+        List<WeightedWord> top = wordCloudService.topWordsForUser("alice", 1, false);
+
+        assertEquals("sun", top.get(0).getWord());
+        verify(favoriteService).getWordMap("alice");
+    }
+
+    @Test
+    void testTopWordsForSongsSumsSongVectorsOnce() {
+        TermVector vector = new TermVector(new int[]{0, 1}, new int[]{3, 1});
+        when(termRepository.sumSongVectors(Set.of("s1", "s2"))).thenReturn(vector);
+        when(termRepository.toWordMap(vector)).thenReturn(Map.of("echo", 3, "call", 1));
+
+        List<WeightedWord> top = wordCloudService.topWordsForSongs(List.of("s1", "s2", "s1"), 5, false);
+
+        assertEquals(List.of("echo", "call"), top.stream().map(WeightedWord::getWord).toList());
+    }
+
+    @Test
+    void testTopStemsGroupsSurfaceFormsUnderMostFrequentWord() {
+        Map<String, Integer> wordMap = Map.of("loving", 2, "loved", 3, "love", 3, "night", 4, "nights", 1, "day", 1);
+
+        List<WeightedWord> top = WordCloudService.topStems(wordMap, 2);
+
+        assertEquals(2, top.size());
+        assertEquals("love", top.get(0).getWord());
+        assertEquals("love", top.get(0).getStem());
+        assertEquals(8, top.get(0).getCount());
+        assertEquals(1.0, top.get(0).getWeight());
+        assertEquals("night", top.get(1).getWord());
+        assertEquals(5, top.get(1).getCount());
+        assertEquals(0.0, top.get(1).getWeight());
+    }
+
+    @Test
+    void testTopWordsForUserStemmed() {
+        when(favoriteService.getWordMap("alice")).thenReturn(Map.of("running", 1, "runs", 2, "sun", 2));
+
+        List<WeightedWord> top = wordCloudService.topWordsForUser("alice", 5, true);
+
+        assertEquals("run", top.get(0).getStem());
+        assertEquals("runs", top.get(0).getWord());
+        assertEquals(3, top.get(0).getCount());
+    }
+
+    @Test
+    void testSongsForWordLooksUpTheStem() {
+        List<SongOccurrence> songs = List.of(new SongOccurrence("s1", "T", "A", 4));
+        when(stemIndexRepository.findFavoriteSongs("alice", "love")).thenReturn(songs);
+        when(stemIndexRepository.findSongs(Set.of("s1", "s2"), "danc")).thenReturn(List.of());
+
+        assertSame(songs, wordCloudService.songsForWord("alice", "Loving"));
+        assertTrue(wordCloudService.songsForWord(List.of("s1", "s2"), "dancing").isEmpty());
+    }
+
+    @Test
+    void testHighlightsStemTheWord() {
+        when(stemIndexRepository.findHighlightRanges("s1", "danc")).thenReturn(new int[]{3, 10});
+
+        HighlightRanges highlights = wordCloudService.highlights("s1", "Dancing");
+
+        assertEquals("s1", highlights.getSongId());
+        assertEquals("danc", highlights.getStem());
+        assertArrayEquals(new int[]{3, 10}, highlights.getRanges());
+    }
+
+    @Test
+    void testSavedCloudIsReadOnceUntilItChanges() {
+        TermVector vector = new TermVector(new int[]{0}, new int[]{2});
+        List<FavoriteSong> songs = List.of(new FavoriteSong("alice", "s1", "T", "u", "i", "2023", "A", "rain rain", 1));
+        when(wordCloudRepository.getSongs("alice")).thenReturn(songs);
+        when(wordCloudRepository.getCloudVector("alice")).thenReturn(vector);
+        when(termRepository.toWordMap(vector)).thenReturn(Map.of("rain", 2));
+
+        WordCloud first = wordCloudService.getSavedCloud("alice", 10, false);
+        WordCloud second = wordCloudService.getSavedCloud("alice", 5, true);
+
+        assertEquals(List.of("s1"), first.getSongs().stream().map(FavoriteSong::getSongId).toList());
+        assertEquals(List.of("rain"), first.getWords().stream().map(WeightedWord::getWord).toList());
+        assertEquals(2, second.getWords().get(0).getCount());
+        verify(wordCloudRepository, times(1)).getSongs("alice");
+        verify(wordCloudRepository, times(1)).getCloudVector("alice");
+
+        FavoriteSong added = new FavoriteSong("alice", "s2", "T2", "u", "i", "2023", "B", "sun", 2);
+        when(wordCloudRepository.addSong("alice", "s2", "T2", "u", "i", "2023", "B", "sun")).thenReturn(true);
+        assertTrue(wordCloudService.addToCloud(added));
+        wordCloudService.getSavedCloud("alice", 10, false);
+        verify(wordCloudRepository, times(2)).getCloudVector("alice");
+    }
+
+    @Test
+    void testCloudChangedWhileLoadingIsNotCached() {
+        when(wordCloudRepository.getSongs("alice")).thenReturn(List.of());
+        when(termRepository.toWordMap(TermVector.EMPTY)).thenReturn(new HashMap<>());
+        when(wordCloudRepository.getCloudVector("alice")).thenAnswer(invocation -> {
+            // the change and its invalidation land between the read's load and its put
+            wordCloudService.removeFromCloud("alice", "s1");
+            return TermVector.EMPTY;
+        }).thenReturn(TermVector.EMPTY);
+
+        wordCloudService.getSavedCloud("alice", 10, false);
+        wordCloudService.getSavedCloud("alice", 10, false);
+        wordCloudService.getSavedCloud("alice", 10, false);
+
+        verify(wordCloudRepository, times(2)).getSongs("alice");
+    }
+
+    @Test
+    void testRemoveAndClearInvalidateTheSavedCloud() {
+        when(wordCloudRepository.getSongs("alice")).thenReturn(List.of());
+        when(wordCloudRepository.getCloudVector("alice")).thenReturn(TermVector.EMPTY);
+        when(termRepository.toWordMap(TermVector.EMPTY)).thenReturn(new HashMap<>());
+        when(wordCloudRepository.removeSong("alice", "s1")).thenReturn(true);
+        when(wordCloudRepository.clear("alice")).thenReturn(3);
+
+        assertTrue(wordCloudService.getSavedCloud("alice", 10, false).getWords().isEmpty());
+        assertTrue(wordCloudService.removeFromCloud("alice", "s1"));
+        wordCloudService.getSavedCloud("alice", 10, false);
+        assertEquals(3, wordCloudService.clearCloud("alice"));
+        wordCloudService.getSavedCloud("alice", 10, false);
+
+        verify(wordCloudRepository, times(3)).getCloudVector("alice");
+    }
+
+    @Test
+    void testRenderSvgIsCachedPerWordMapVersionAndSize() {
+        TermVector v1 = new TermVector(new int[]{0, 1}, new int[]{3, 1});
+        TermVector v2 = new TermVector(new int[]{0, 1}, new int[]{4, 1});
+        when(favoriteService.getWordVector("alice")).thenReturn(v1, v1, v1, v2);
+        when(termRepository.toWordMap(v1)).thenReturn(Map.of("love", 3, "night", 1));
+        when(termRepository.toWordMap(v2)).thenReturn(Map.of("love", 4, "night", 1));
+
+        RenderedCloud first = wordCloudService.renderSvg("alice", false, 10, false, 400, 300);
+        RenderedCloud repeat = wordCloudService.renderSvg("alice", false, 10, false, 400, 300);
+        RenderedCloud resized = wordCloudService.renderSvg("alice", false, 10, false, 800, 600);
+        RenderedCloud changed = wordCloudService.renderSvg("alice", false, 10, false, 400, 300);
+
+        assertSame(first, repeat);
+        assertTrue(first.getSvg().contains(">love</text>"));
+        assertNotEquals(first.getETag(), resized.getETag());
+        assertNotEquals(first.getETag(), changed.getETag());
+        verify(termRepository, times(2)).toWordMap(v1);
+        verify(termRepository, times(1)).toWordMap(v2);
+    }
+
+    @Test
+    void testRenderSvgOfSavedCloudUsesCloudVector() {
+        TermVector vector = new TermVector(new int[]{0}, new int[]{2});
+        when(wordCloudRepository.getCloudVector("alice")).thenReturn(vector);
+        when(termRepository.toWordMap(vector)).thenReturn(Map.of("rain", 2));
+
+        RenderedCloud rendered = wordCloudService.renderSvg("alice", true, 10, true, 400, 300);
+
+        assertTrue(rendered.getSvg().contains(">rain</text>"));
+        assertTrue(rendered.getETag().startsWith("\"") && rendered.getETag().endsWith("-10-stem-400x300\""));
+        verifyNoInteractions(favoriteService);
+    }
+}
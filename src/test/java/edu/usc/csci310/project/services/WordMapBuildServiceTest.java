@@ -0,0 +1,55 @@
+package edu.usc.csci310.project.services;
+
+import edu.usc.csci310.project.repository.FavoriteRepository;
+import edu.usc.csci310.project.repository.MinHashRepository;
+import edu.usc.csci310.project.repository.WordMapRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WordMapBuildServiceTest {
+
+    private FavoriteRepository favoriteRepository;
+    private WordMapRepository wordMapRepository;
+    private MinHashRepository minHashRepository;
+
+    @BeforeEach
+    void setUp() {
+        favoriteRepository = mock(FavoriteRepository.class);
+        wordMapRepository = mock(WordMapRepository.class);
+        minHashRepository = mock(MinHashRepository.class);
+    }
+
+    @Test
+    void testBuildMissingRunsOnPoolOfConfiguredSize() {
+        when(favoriteRepository.rebuildMissingWordMaps(any(ForkJoinPool.class))).thenAnswer(invocation -> {
+            assertEquals(3, invocation.<ForkJoinPool>getArgument(0).getParallelism());
+            return 12;
+        });
+
+        assertEquals(12, new WordMapBuildService(favoriteRepository, wordMapRepository, minHashRepository, 3, true).buildMissing());
+    }
+
+    @Test
+    void testZeroParallelismMeansOneThreadPerCore() {
+        WordMapBuildService service = new WordMapBuildService(favoriteRepository, wordMapRepository, minHashRepository, 0, true);
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), service.getParallelism());
+    }
+
+    @Test
+    void testStartupBuildCanBeDisabled() {
+        new WordMapBuildService(favoriteRepository, wordMapRepository, minHashRepository, 2, false).onStartup();
+        verifyNoInteractions(favoriteRepository, wordMapRepository, minHashRepository);
+
+        new WordMapBuildService(favoriteRepository, wordMapRepository, minHashRepository, 2, true).onStartup();
+        verify(favoriteRepository).rebuildMissingWordMaps(any(ForkJoinPool.class));
+        verify(wordMapRepository).indexMissingVocabularies();
+        verify(minHashRepository).indexMissing();
+    }
+}
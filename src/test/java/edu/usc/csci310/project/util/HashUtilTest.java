@@ -21,6 +21,18 @@ public class HashUtilTest {
         assertEquals(64, hashed.length()); // SHA-256 -> 256 bits = 64 hex chars
     }
 
+    @Test
+    public void testContentHash_isStable() {
+        assertEquals(HashUtil.contentHash("{\"a\":1}"), HashUtil.contentHash("{\"a\":1}"));
+        assertNotEquals(HashUtil.contentHash("{\"a\":1}"), HashUtil.contentHash("{\"a\":2}"));
+        assertEquals(64, HashUtil.contentHash("").length());
+    }
+
+    @Test
+    public void testContentHash_bytesMatchUtf8String() {
+        assertEquals(HashUtil.contentHash("love"), HashUtil.contentHash("love".getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+    }
+
     @Test
     public void testHashUsername_throwsNoSuchAlgorithmException() {
         try (MockedStatic<MessageDigest> mocked = mockStatic(MessageDigest.class)) {
@@ -0,0 +1,56 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntCountMapTest {
+
+    @Test
+    public void testAddGetAndFreeze() {
+        IntCountMap map = new IntCountMap();
+        map.add(7, 2);
+        map.add(3, 1);
+        map.add(7, 1);
+        map.add(0, 4);
+
+        assertEquals(3, map.get(7));
+        assertEquals(0, map.get(99));
+        assertEquals(3, map.size());
+        assertEquals(new TermVector(new int[]{0, 3, 7}, new int[]{4, 1, 3}), map.toTermVector());
+    }
+
+    @Test
+    public void testNonPositiveCountsAreDroppedFromVector() {
+        IntCountMap map = new IntCountMap();
+        map.addAll(new TermVector(new int[]{1, 2}, new int[]{2, 5}));
+        map.add(1, -2);
+
+        assertEquals(new TermVector(new int[]{2}, new int[]{5}), map.toTermVector());
+    }
+
+    @Test
+    public void testMatchesHashMapThroughGrowth() {
+        Random random = new Random(3);
+        IntCountMap map = new IntCountMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(20_000);
+            map.add(key, 1);
+            expected.merge(key, 1, Integer::sum);
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(TermVector.fromCounts(expected), map.toTermVector());
+    }
+
+    @Test
+    public void testRejectsNegativeKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new IntCountMap().add(-1, 1));
+    }
+}
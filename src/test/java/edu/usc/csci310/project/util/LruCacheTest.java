@@ -0,0 +1,72 @@
+package edu.usc.csci310.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LruCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        Map<String, Integer> evicted = new LinkedHashMap<>();
+        LruCache<String, Integer> cache = new LruCache<>(2, evicted::put);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a"); // b is now the eldest
+        cache.put("c", 3);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(Map.of("b", 2), evicted);
+    }
+
+    @Test
+    public void testPutAndRemoveReturnWhatWasThere() {
+        LruCache<String, Integer> cache = new LruCache<>(10);
+
+        assertNull(cache.put("a", 1));
+        assertEquals(1, cache.put("a", 2));
+        assertFalse(cache.remove("a", 1));
+        assertTrue(cache.remove("a", 2));
+        assertNull(cache.remove("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLargeCachesStayWithinCapacity() throws InterruptedException {
+        LruCache<Integer, Integer> cache = new LruCache<>(1000);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 10_000;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    cache.put(offset + i, i);
+                    cache.get(offset + i / 2);
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(1000, cache.size());
+        cache.put(-1, -1);
+        assertEquals(-1, cache.get(-1));
+        assertEquals(1000, cache.size());
+    }
+
+    @Test
+    public void testRejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<String, String>(0));
+    }
+}
@@ -0,0 +1,83 @@
+package edu.usc.csci310.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LyricsTokenizerTest {
+
+    // the regex pipeline the tokenizer replaces, minus its empty-word quirk
+    private static Map<String, Integer> regexWordMap(String lyrics) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : lyrics.toLowerCase().replaceAll("[^a-zA-Z\\s]", "").split("\\s+")) {
+            if (!word.isEmpty() && !LyricsTokenizer.STOP_WORDS.contains(word)) {
+                counts.merge(word, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static Map<String, Integer> tokenizerWordMap(String lyrics) {
+        Map<String, Integer> counts = new HashMap<>();
+        LyricsTokenizer.countWords(lyrics, counts);
+        return counts;
+    }
+
+    @Test
+    public void testMatchesRegexPipeline() {
+        String[] samples = {
+                "Love love peace peace and harmony",
+                "  Don't STOP me now!\nI'm having such a good time\t\tI'm having a ball",
+                "[Chorus]\r\nNa-na-na, 1999... Café au lait\u000Bend\fend",
+                "",
+                "   \n\t ",
+                "It's the end of the world as we know it",
+                "averyveryveryveryveryveryveryveryverylongwordthatneedsgrowing ok"
+        };
+        for (String sample : samples) {
+            assertEquals(regexWordMap(sample), tokenizerWordMap(sample), sample);
+        }
+    }
+
+    @Test
+    public void testEmitsTokensInOrderWithoutStopWords() {
+        List<String> tokens = new ArrayList<>();
+        LyricsTokenizer.tokenize("You and I, we're the BEST", tokens::add);
+
+        assertEquals(List.of("i", "were", "best"), tokens);
+    }
+
+    @Test
+    public void testNullLyricsIsIgnored() {
+        Map<String, Integer> counts = new HashMap<>();
+        LyricsTokenizer.countWords(null, counts);
+
+        assertTrue(counts.isEmpty());
+    }
+
+    @Test
+    public void testPrivateConstructor_throwsException() throws Exception {
+        var constructor = LyricsTokenizer.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        InvocationTargetException e = assertThrows(InvocationTargetException.class, constructor::newInstance);
+        assertTrue(e.getCause() instanceof UnsupportedOperationException);
+    }
+
+    @Test
+    public void testTokenizeWithOffsetsReportsSpansInOriginalText() {
+        String lyrics = "Don't stop,\n  the MUSIC!";
+        List<String> spans = new ArrayList<>();
+
+        LyricsTokenizer.tokenizeWithOffsets(lyrics, (token, start, end) ->
+                spans.add(token + "=" + lyrics.substring(start, end)));
+
+        assertEquals(List.of("dont=Don't", "stop=stop", "music=MUSIC"), spans);
+    }
+}
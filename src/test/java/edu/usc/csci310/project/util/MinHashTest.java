@@ -0,0 +1,70 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashTest {
+
+    private static TermVector range(int from, int to) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int id = from; id < to; id++) {
+            counts.put(id, 1 + id % 3);
+        }
+        return TermVector.fromCounts(counts);
+    }
+
+    @Test
+    void testSignatureIgnoresCountsAndIsStable() {
+        TermVector a = range(0, 50);
+        TermVector sameWords = TermVector.fromCounts(Map.of(0, 1)).plus(range(1, 50));
+
+        assertEquals(MinHash.NUM_HASHES, MinHash.signature(a).length);
+        assertArrayEquals(MinHash.signature(a), MinHash.signature(sameWords));
+        assertEquals(1.0, MinHash.estimate(MinHash.signature(a), MinHash.signature(sameWords)));
+    }
+
+    @Test
+    void testEstimateTracksJaccard() {
+        TermVector a = range(0, 600);
+        TermVector b = range(300, 900);   // 300 / 900 shared
+        TermVector c = range(1000, 1600);  // disjoint
+
+        assertEquals(1 / 3.0, MinHash.estimate(MinHash.signature(a), MinHash.signature(b)), 0.1);
+        assertTrue(MinHash.estimate(MinHash.signature(a), MinHash.signature(c)) < 0.05);
+    }
+
+    @Test
+    void testBandKeysCollideForEqualSetsOnly() {
+        long[] a = MinHash.bandKeys(MinHash.signature(range(0, 100)));
+        long[] same = MinHash.bandKeys(MinHash.signature(range(0, 100)));
+        long[] other = MinHash.bandKeys(MinHash.signature(range(5000, 5100)));
+
+        assertEquals(MinHash.BANDS, a.length);
+        assertArrayEquals(a, same);
+        for (int band = 0; band < MinHash.BANDS; band++) {
+            assertNotEquals(a[band], other[band]);
+        }
+    }
+
+    @Test
+    void testEncodeRoundTrip() {
+        int[] signature = MinHash.signature(range(0, 10));
+
+        assertEquals(MinHash.NUM_HASHES * 4, MinHash.encode(signature).length);
+        assertArrayEquals(signature, MinHash.decode(MinHash.encode(signature)));
+    }
+
+    @Test
+    void testEmptySetSignature() {
+        int[] signature = MinHash.signature(TermVector.EMPTY);
+
+        for (int slot : signature) {
+            assertEquals(Integer.MAX_VALUE, slot);
+        }
+    }
+}
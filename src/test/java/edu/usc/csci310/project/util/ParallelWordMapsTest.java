@@ -0,0 +1,70 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelWordMapsTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testCountSongsMatchesSequentialCounting() {
+        Map<String, String> lyrics = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            lyrics.put("s" + i, "Love me, love me " + "night ".repeat(i % 4) + "the end" + i);
+        }
+
+        Map<String, Map<String, Integer>> counted = ParallelWordMaps.countSongs(lyrics, pool);
+
+        assertEquals(100, counted.size());
+        lyrics.forEach((songId, text) -> {
+            Map<String, Integer> expected = new HashMap<>();
+            LyricsTokenizer.countWords(text, expected);
+            assertEquals(expected, counted.get(songId));
+        });
+    }
+
+    @Test
+    void testCountSongsHandlesEmptyInputAndMissingLyrics() {
+        assertTrue(ParallelWordMaps.countSongs(Map.of(), pool).isEmpty());
+
+        Map<String, String> lyrics = new HashMap<>();
+        lyrics.put("s1", null);
+        assertEquals(Map.of("s1", Map.of()), ParallelWordMaps.countSongs(lyrics, pool));
+    }
+
+    @Test
+    void testSumByUserAddsEachUsersVectors() {
+        Map<String, List<TermVector>> vectors = new LinkedHashMap<>();
+        for (int u = 0; u < 50; u++) {
+            vectors.put("user" + u, List.of(
+                    new TermVector(new int[]{0, 2}, new int[]{1, u}),
+                    new TermVector(new int[]{2, 5}, new int[]{3, 1})));
+        }
+        vectors.put("nobody", List.of());
+
+        Map<String, TermVector> sums = ParallelWordMaps.sumByUser(vectors, pool);
+
+        assertEquals(51, sums.size());
+        assertTrue(sums.get("nobody").isEmpty());
+        for (int u = 0; u < 50; u++) {
+            TermVector sum = sums.get("user" + u);
+            assertArrayEquals(new int[]{0, 2, 5}, sum.getTermIds());
+            assertArrayEquals(new int[]{1, u + 3, 1}, sum.getCounts());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package edu.usc.csci310.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StemmerTest {
+
+    @Test
+    public void testPorter2Stems() {
+        // same outputs as wink-porter2-stemmer used by the frontend
+        assertEquals("love", Stemmer.stem("loving"));
+        assertEquals("love", Stemmer.stem("loved"));
+        assertEquals("happi", Stemmer.stem("happiness"));
+        assertEquals("generous", Stemmer.stem("generously"));
+        assertEquals("night", Stemmer.stem("nights"));
+        assertEquals("sky", Stemmer.stem("sky"));
+    }
+
+    @Test
+    public void testStemsAreMemoized() {
+        String word = "memoizationcheckingly";
+        String first = Stemmer.stem(word);
+        int size = Stemmer.memoizedCount();
+
+        assertSame(first, Stemmer.stem(word));
+        assertEquals(size, Stemmer.memoizedCount());
+    }
+
+    @Test
+    public void testConcurrentStemmingIsConsistent() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String word = i % 2 == 0 ? "dancing" : "dreamers";
+                results.add(pool.submit(() -> Stemmer.stem(word)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 2 == 0 ? "danc" : "dreamer", results.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testPrivateConstructor_throwsException() throws Exception {
+        var constructor = Stemmer.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        InvocationTargetException e = assertThrows(InvocationTargetException.class, constructor::newInstance);
+        assertTrue(e.getCause() instanceof UnsupportedOperationException);
+    }
+}
@@ -0,0 +1,56 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermBitmapsTest {
+
+    private static TermVector randomVector(Random random, int size, int range) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        while (counts.size() < size) {
+            counts.put(random.nextInt(range), 1 + random.nextInt(5));
+        }
+        return TermVector.fromCounts(counts);
+    }
+
+    @Test
+    void testJaccardMatchesSortedArrayMerge() {
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            // dense low ids (bitset containers) and a sparse tail past 65536 (array containers)
+            TermVector a = randomVector(random, 1 + random.nextInt(3000), 100_000);
+            TermVector b = randomVector(random, 1 + random.nextInt(3000), 100_000);
+
+            assertEquals(a.jaccard(b), TermBitmaps.jaccard(TermBitmaps.of(a), TermBitmaps.of(b)), 1e-12);
+        }
+    }
+
+    @Test
+    void testEmptySetsScoreZero() {
+        RoaringBitmap empty = TermBitmaps.of(TermVector.EMPTY);
+
+        assertEquals(0.0, TermBitmaps.jaccard(empty, empty));
+        assertEquals(0.0, TermBitmaps.jaccard(empty, RoaringBitmap.bitmapOf(1, 2)));
+    }
+
+    @Test
+    void testEncodeRoundTrip() {
+        RoaringBitmap bitmap = TermBitmaps.of(randomVector(new Random(1), 5000, 200_000));
+
+        assertEquals(bitmap, TermBitmaps.decode(TermBitmaps.encode(bitmap)));
+        assertTrue(TermBitmaps.decode(null).isEmpty());
+        assertTrue(TermBitmaps.decode(new byte[0]).isEmpty());
+    }
+
+    @Test
+    void testCorruptBytesAreRejected() {
+        assertThrows(RuntimeException.class, () -> TermBitmaps.decode(new byte[]{1, 2, 3}));
+    }
+}
@@ -0,0 +1,41 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TermVectorCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        TermVector vector = new TermVector(new int[]{0, 5, 127, 128, 300_000}, new int[]{1, 200, 3, 1, 70_000});
+
+        assertEquals(vector, TermVectorCodec.decode(TermVectorCodec.encode(vector)));
+    }
+
+    @Test
+    public void testSmallGapsAndCountsUseOneByteEach() {
+        TermVector vector = TermVector.fromCounts(Map.of(1, 2, 2, 3, 4, 1));
+
+        // count + 3 * (gap, count)
+        assertEquals(7, TermVectorCodec.encode(vector).length);
+    }
+
+    @Test
+    public void testEmptyAndNull() {
+        assertEquals(TermVector.EMPTY, TermVectorCodec.decode(TermVectorCodec.encode(TermVector.EMPTY)));
+        assertEquals(TermVector.EMPTY, TermVectorCodec.decode(null));
+    }
+
+    @Test
+    public void testRangesRoundTrip() {
+        int[] ranges = {0, 4, 10, 16, 300, 305, 70_000, 70_010};
+
+        assertArrayEquals(ranges, TermVectorCodec.decodeRanges(TermVectorCodec.encodeRanges(ranges)));
+        assertArrayEquals(new int[0], TermVectorCodec.decodeRanges(TermVectorCodec.encodeRanges(new int[0])));
+        assertArrayEquals(new int[0], TermVectorCodec.decodeRanges(null));
+    }
+}
@@ -0,0 +1,56 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.TermVector;
+import edu.usc.csci310.project.model.WeightedTermVector;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TfIdfWeightingTest {
+
+    private static TfIdfWeighting weighting() {
+        // term 1 is in every vocabulary, term 2 in half, term 5000 in one (past the builder's first array)
+        return TfIdfWeighting.builder()
+                .add(RoaringBitmap.bitmapOf(1, 2))
+                .add(RoaringBitmap.bitmapOf(1, 2))
+                .add(RoaringBitmap.bitmapOf(1, 5000))
+                .add(RoaringBitmap.bitmapOf(1))
+                .build();
+    }
+
+    @Test
+    void testRarerTermsWeighMore() {
+        TfIdfWeighting weighting = weighting();
+
+        assertEquals(4, weighting.getDocuments());
+        assertEquals(1.0, weighting.idf(1), 1e-12);
+        assertTrue(weighting.idf(2) > weighting.idf(1));
+        assertTrue(weighting.idf(5000) > weighting.idf(2));
+        // a term nobody has yet weighs the most, but stays finite
+        assertEquals(Math.log(5) + 1, weighting.idf(123_456), 1e-12);
+    }
+
+    @Test
+    void testWeighedVectorsAreUnitLength() {
+        WeightedTermVector vector = weighting().weigh(TermVector.fromCounts(Map.of(1, 40, 2, 1, 5000, 3)));
+
+        assertArrayEquals(new int[]{1, 2, 5000}, vector.getTermIds());
+        assertEquals(1.0, vector.cosine(vector), 1e-6);
+        assertEquals(0, weighting().weigh(TermVector.EMPTY).size());
+    }
+
+    @Test
+    void testSublinearTermFrequency() {
+        WeightedTermVector vector = weighting().weigh(TermVector.fromCounts(Map.of(1, 1, 2, 1)));
+        WeightedTermVector chorus = weighting().weigh(TermVector.fromCounts(Map.of(1, 40, 2, 1)));
+
+        float[] plain = vector.getWeights();
+        float[] repeated = chorus.getWeights();
+        assertTrue(plain[0] < plain[1]);
+        // forty repeats of the common word lift it past the rarer one, but only by 1 + ln 40, not 40x
+        assertEquals((1 + Math.log(40)) * weighting().idf(1) / weighting().idf(2), repeated[0] / repeated[1], 1e-5);
+    }
+}
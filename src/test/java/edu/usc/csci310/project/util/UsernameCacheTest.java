@@ -0,0 +1,66 @@
+package edu.usc.csci310.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UsernameCacheTest {
+
+    @Test
+    public void testLooksUpBothWays() {
+        UsernameCache cache = new UsernameCache(10);
+        cache.put("ann", "h-ann");
+
+        assertEquals(Optional.of("h-ann"), cache.hashedOf("ann"));
+        assertEquals(Optional.of("ann"), cache.rawOf("h-ann"));
+        assertTrue(cache.hashedOf("ben").isEmpty());
+        assertTrue(cache.rawOf("h-ben").isEmpty());
+    }
+
+    @Test
+    public void testRemoveDropsBothDirections() {
+        UsernameCache cache = new UsernameCache(10);
+        cache.put("ann", "h-ann");
+        cache.remove("ann");
+        cache.remove("nobody");
+
+        assertTrue(cache.hashedOf("ann").isEmpty());
+        assertTrue(cache.rawOf("h-ann").isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedPair() {
+        UsernameCache cache = new UsernameCache(2);
+        cache.put("ann", "h-ann");
+        cache.put("ben", "h-ben");
+        cache.rawOf("h-ann"); // ben is now the eldest
+        cache.put("cat", "h-cat");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.hashedOf("ben").isEmpty());
+        assertTrue(cache.rawOf("h-ben").isEmpty());
+        assertEquals(Optional.of("ann"), cache.rawOf("h-ann"));
+        assertEquals(Optional.of("h-cat"), cache.hashedOf("cat"));
+    }
+
+    @Test
+    public void testRemappingKeepsDirectionsInStep() {
+        UsernameCache cache = new UsernameCache(10);
+        cache.put("ann", "h1");
+        cache.put("ann", "h2");
+        cache.put("ben", "h2");
+
+        assertTrue(cache.rawOf("h1").isEmpty());
+        assertTrue(cache.hashedOf("ann").isEmpty());
+        assertEquals(Optional.of("ben"), cache.rawOf("h2"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testRejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new UsernameCache(0));
+    }
+}
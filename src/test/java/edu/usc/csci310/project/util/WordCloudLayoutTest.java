@@ -0,0 +1,91 @@
+package edu.usc.csci310.project.util;
+
+import edu.usc.csci310.project.model.WeightedWord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordCloudLayoutTest {
+
+    private static final Pattern TEXT = Pattern.compile(
+            "<text x=\"(\\d+)\" y=\"(\\d+)\" font-size=\"(\\d+)\" fill=\"#[0-9a-f]{6}\">([^<]*)</text>");
+
+    private static List<WeightedWord> words(int n) {
+        List<WeightedWord> words = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            words.add(new WeightedWord("word" + (char) ('a' + i % 26) + i, n - i, n == 1 ? 1.0 : (n - 1 - i) / (double) (n - 1)));
+        }
+        return words;
+    }
+
+    @Test
+    void testLayoutIsDeterministic() {
+        assertEquals(WordCloudLayout.renderSvg(words(80), 800, 600), WordCloudLayout.renderSvg(words(80), 800, 600));
+    }
+
+    @Test
+    void testHeaviestWordSitsAtTheCentre() {
+        String svg = WordCloudLayout.renderSvg(words(10), 800, 600);
+
+        Matcher m = TEXT.matcher(svg);
+        assertTrue(m.find());
+        assertEquals("400", m.group(1));
+        assertEquals("300", m.group(2));
+        assertEquals(String.valueOf(WordCloudLayout.fontSize(1.0)), m.group(3));
+        assertEquals("worda0", m.group(4));
+    }
+
+    @Test
+    void testPlacedWordsStayOnCanvasWithoutOverlapping() {
+        String svg = WordCloudLayout.renderSvg(words(150), 600, 400);
+
+        List<int[]> boxes = new ArrayList<>();
+        Matcher m = TEXT.matcher(svg);
+        while (m.find()) {
+            int x = Integer.parseInt(m.group(1));
+            int y = Integer.parseInt(m.group(2));
+            int size = Integer.parseInt(m.group(3));
+            int w = (int) Math.ceil(m.group(4).length() * size * 0.6);
+            int[] box = {x - w / 2, y - size / 2, x + w / 2, y + size / 2};
+            assertTrue(box[0] >= 0 && box[1] >= 0 && box[2] <= 600 && box[3] <= 400);
+            for (int[] other : boxes) {
+                boolean overlap = box[0] < other[2] && other[0] < box[2] && box[1] < other[3] && other[1] < box[3];
+                assertFalse(overlap, "overlapping words in " + svg);
+            }
+            boxes.add(box);
+        }
+        assertTrue(boxes.size() >= 20);
+    }
+
+    @Test
+    void testFontSizeFollowsSigmoidBetweenBounds() {
+        assertEquals(15, WordCloudLayout.fontSize(0.0));
+        assertEquals(30, WordCloudLayout.fontSize(0.5));
+        assertEquals(45, WordCloudLayout.fontSize(1.0));
+        assertTrue(WordCloudLayout.fontSize(0.0) >= WordCloudLayout.MIN_FONT_SIZE);
+        assertTrue(WordCloudLayout.fontSize(1.0) <= WordCloudLayout.MAX_FONT_SIZE);
+    }
+
+    @Test
+    void testEscapesMarkupAndSkipsWordsTooBigForTheCanvas() {
+        String svg = WordCloudLayout.renderSvg(List.of(
+                new WeightedWord("a<b&c", 2, 1.0),
+                new WeightedWord("x".repeat(200), 1, 0.0)), 300, 100);
+
+        assertTrue(svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"300\" height=\"100\""));
+        assertTrue(svg.contains(">a&lt;b&amp;c</text>"));
+        assertFalse(svg.contains("xxxx"));
+        assertTrue(svg.endsWith("</svg>"));
+    }
+
+    @Test
+    void testEmptyCloudRendersEmptySvg() {
+        String svg = WordCloudLayout.renderSvg(List.of(), 200, 100);
+        assertFalse(svg.contains("<text"));
+    }
+}